@@ -0,0 +1,139 @@
+package com.credit.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoAuditoria;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Linhas/s do upsert da importação ({@link CreditoJdbcRepository#upsertLote}) com a auditoria por
+ * linha x por comando. Precisa de um PostgreSQL com scripts/init-db.sql aplicado (H2 não tem os triggers):
+ * {@code -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/creditos_db} (e, se preciso,
+ * {@code benchmark.postgres.usuario} / {@code benchmark.postgres.senha}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AuditoriaImportacaoBenchmark {
+
+    private static final int LINHAS_POR_LOTE = 1000;
+    private static final String PREFIXO = "BENCH-AUD-";
+
+    @Param({"LINHA", "LOTE"})
+    private ModoAuditoria modo;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transacao;
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    private List<Credito> loteAtualizacao;
+    private long proximoLote;
+    private long versao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("benchmark.postgres.url");
+        if (url == null) {
+            throw new IllegalStateException("Informe -Dbenchmark.postgres.url=jdbc:postgresql://... (banco com scripts/init-db.sql)");
+        }
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getProperty("benchmark.postgres.usuario", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.postgres.senha", ""));
+        dataSource.setAutoCommit(false);
+        // Mesma configuração do application.yml
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        creditoJdbcRepository = new CreditoJdbcRepository();
+        ReflectionTestUtils.setField(creditoJdbcRepository, "jdbcTemplate", jdbcTemplate);
+
+        limpar();
+        loteAtualizacao = lote(PREFIXO + "UPD-", Valor.de("1.00"));
+        transacao.executeWithoutResult(status -> creditoJdbcRepository.upsertLote(loteAtualizacao, ModoAuditoria.LOTE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        limpar();
+        dataSource.close();
+    }
+
+    /**
+     * Lote só de créditos novos: INSERT com uma linha de auditoria por crédito.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINHAS_POR_LOTE)
+    public void inserir() {
+        List<Credito> creditos = lote(PREFIXO + modo + "-" + proximoLote++ + "-", Valor.de("1.00"));
+        transacao.executeWithoutResult(status -> creditoJdbcRepository.upsertLote(creditos, modo));
+    }
+
+    /**
+     * Recarga dos mesmos créditos com valor alterado: UPDATE com dados antigos e novos na auditoria.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINHAS_POR_LOTE)
+    public void atualizar() {
+        Valor valor = Valor.deCentesimos((++versao % 1000 + 2) * 100);
+        for (Credito credito : loteAtualizacao) {
+            credito.setValorIssqn(valor);
+        }
+        transacao.executeWithoutResult(status -> creditoJdbcRepository.upsertLote(loteAtualizacao, modo));
+    }
+
+    private static List<Credito> lote(String prefixo, Valor valorIssqn) {
+        List<Credito> creditos = new ArrayList<>(LINHAS_POR_LOTE);
+        for (int i = 0; i < LINHAS_POR_LOTE; i++) {
+            creditos.add(new Credito(null, prefixo + i, "NFSE-BENCH-" + (i % 100), LocalDate.of(2024, 2, 25),
+                    valorIssqn, "ISSQN", true, Valor.de("5.00"), Valor.de("30000.00"),
+                    Valor.de("5000.00"), Valor.de("25000.00")));
+        }
+        return creditos;
+    }
+
+    // Em transações de um lote: a exclusão em massa numa transação só faria o trigger de resumo
+    // percorrer cadeias cada vez maiores de versões das mesmas linhas de credito_resumo_nfse
+    private void limpar() {
+        int excluidos;
+        do {
+            excluidos = transacao.execute(status -> {
+                jdbcTemplate.queryForObject("SELECT set_config('app.audit_mode', 'lote', true)", String.class);
+                return jdbcTemplate.update("DELETE FROM credito WHERE id IN "
+                        + "(SELECT id FROM credito WHERE numero_credito LIKE ? LIMIT ?)", PREFIXO + "%", LINHAS_POR_LOTE);
+            });
+        } while (excluidos > 0);
+        transacao.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM credito_auditoria "
+                + "WHERE COALESCE(dados_novos, dados_antigos) ->> 'numero_credito' LIKE ?", PREFIXO + "%"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.credit.benchmark;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Substitui o KafkaTemplate da aplicação nos benchmarks que sobem o contexto Spring.
+ */
+@Configuration
+public class BenchmarkKafkaConfig {
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> benchmarkKafkaTemplate() {
+        return KafkaSemBroker.kafkaTemplate();
+    }
+}
@@ -0,0 +1,131 @@
+package com.credit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.entity.Credito;
+import com.credit.repository.CampoBusca;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoBusca;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primeira página (20 linhas) de {@link CreditoJdbcRepository#buscarPorTermo} sobre {@value #LINHAS}
+ * créditos sintéticos, comparada ao LIKE numa collation linguística, que o índice B-tree comum não atende.
+ * Precisa de um PostgreSQL com scripts/init-db.sql aplicado (índices COLLATE "C" e pg_trgm) e de um
+ * usuário que possa usar {@code session_replication_role} (a carga desliga os triggers):
+ * {@code -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/creditos_db}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BuscaPrefixoBenchmark {
+
+    private static final int LINHAS = 1_000_000;
+    private static final int PAGINA = 20;
+    private static final String PREFIXO_CREDITO = "BUSCA-";
+    private static final String PREFIXO_NFSE = "BNF-";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("benchmark.postgres.url");
+        if (url == null) {
+            throw new IllegalStateException("Informe -Dbenchmark.postgres.url=jdbc:postgresql://... (banco com scripts/init-db.sql)");
+        }
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getProperty("benchmark.postgres.usuario", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.postgres.senha", ""));
+        dataSource.setMaximumPoolSize(1);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        creditoJdbcRepository = new CreditoJdbcRepository();
+        ReflectionTestUtils.setField(creditoJdbcRepository, "jdbcTemplate", jdbcTemplate);
+
+        limpar();
+        // Dez créditos por NFS-e; sem triggers de auditoria e de resumo, que não interessam à busca
+        jdbcTemplate.execute("SET session_replication_role = replica");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) "
+                + "SELECT ? || lpad(i::text, 8, '0'), ? || lpad((i / 10)::text, 7, '0'), "
+                + "DATE '2024-01-01' + (i % 365), 1500.75, CASE WHEN i % 2 = 0 THEN 'ISSQN' ELSE 'Outros' END, "
+                + "i % 3 = 0, 5.00, 30000.00, 5000.00, 25000.00 FROM generate_series(1, ?) AS i",
+                PREFIXO_CREDITO, PREFIXO_NFSE, LINHAS);
+        jdbcTemplate.execute("SET session_replication_role = DEFAULT");
+        jdbcTemplate.execute("ANALYZE credito");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        limpar();
+        dataSource.close();
+    }
+
+    /**
+     * Prefixo do número do crédito com ~10 mil correspondências: varredura do índice COLLATE "C".
+     */
+    @Benchmark
+    public List<Credito> prefixoCredito() {
+        return creditoJdbcRepository.buscarPorTermo(CampoBusca.CREDITO, ModoBusca.PREFIXO, PREFIXO_CREDITO + "0042",
+                null, null, null, null, 0, PAGINA);
+    }
+
+    /**
+     * Prefixo da NFS-e com filtro de tipo, continuando de um cursor no meio do intervalo.
+     */
+    @Benchmark
+    public List<Credito> prefixoNfseComCursor() {
+        return creditoJdbcRepository.buscarPorTermo(CampoBusca.NFSE, ModoBusca.PREFIXO, PREFIXO_NFSE + "004",
+                "ISSQN", null, null, PREFIXO_NFSE + "0045000", 450_000, PAGINA);
+    }
+
+    /**
+     * Trecho do número do crédito (LIKE '%...%') pelo índice de trigramas.
+     */
+    @Benchmark
+    public List<Credito> contemCredito() {
+        return creditoJdbcRepository.buscarPorTermo(CampoBusca.CREDITO, ModoBusca.CONTEM, "77123",
+                null, null, null, null, 0, PAGINA);
+    }
+
+    /**
+     * A mesma busca de {@link #prefixoCredito()} numa collation linguística (como a en_US.UTF-8 da imagem
+     * do PostgreSQL), em que nem o índice B-tree comum nem o dedicado atendem o LIKE e a ordenação.
+     */
+    @Benchmark
+    public List<Credito> prefixoSemIndiceDedicado() {
+        return jdbcTemplate.query("SELECT * FROM credito WHERE numero_credito COLLATE \"und-x-icu\" LIKE ? "
+                + "ORDER BY numero_credito COLLATE \"und-x-icu\", id LIMIT ?",
+                (rs, linha) -> new Credito(rs.getLong("id"), rs.getString("numero_credito"), rs.getString("numero_nfse"),
+                        null, null, null, false, null, null, null, null),
+                PREFIXO_CREDITO + "0042%", PAGINA);
+    }
+
+    private void limpar() {
+        jdbcTemplate.execute("SET session_replication_role = replica");
+        jdbcTemplate.update("DELETE FROM credito WHERE numero_credito LIKE ?", PREFIXO_CREDITO + "%");
+        jdbcTemplate.execute("SET session_replication_role = DEFAULT");
+    }
+}
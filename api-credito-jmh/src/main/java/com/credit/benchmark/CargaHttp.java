@@ -0,0 +1,143 @@
+package com.credit.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Carga HTTP em malha fechada contra uma instância da API em execução: {@code carga.concorrencia}
+ * clientes fazem uma requisição após a outra, alternando entre {@code carga.caminhos}, e ao fim
+ * imprime vazão, códigos de status e percentis de latência. Serve para comparar o modo padrão
+ * (pool de threads do Tomcat) com o profile virtual-threads na mesma máquina:
+ * <pre>
+ * java -Dcarga.url=http://localhost:8080 -Dcarga.concorrencia=2000 \
+ *      -cp target/benchmarks.jar com.credit.benchmark.CargaHttp
+ * </pre>
+ * Os clientes usam o {@link HttpClient} assíncrono, então a concorrência não depende de threads do gerador.
+ */
+public final class CargaHttp {
+
+    // Histograma em faixas de 100 µs até 60 s; acima disso cai na última faixa
+    private static final long RESOLUCAO_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int FAIXAS = 600_000;
+
+    private final HttpClient cliente;
+    private final URI[] destinos;
+    private final Duration timeout;
+
+    private final AtomicLongArray histograma = new AtomicLongArray(FAIXAS);
+    private final Map<String, AtomicLong> resultados = new ConcurrentHashMap<>();
+    private final AtomicLong latenciaMaxima = new AtomicLong();
+    private volatile boolean medindo;
+    private volatile long fim;
+
+    private CargaHttp(String url, String[] caminhos, Duration timeout) {
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.destinos = new URI[caminhos.length];
+        for (int i = 0; i < caminhos.length; i++) {
+            destinos[i] = URI.create(url + caminhos[i].trim());
+        }
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String url = System.getProperty("carga.url", "http://localhost:8080");
+        String[] caminhos = System.getProperty("carga.caminhos",
+                "/api/creditos/7891011,/api/creditos/credito/123456").split(",");
+        int concorrencia = Integer.getInteger("carga.concorrencia", 1000);
+        int aquecimentoSegundos = Integer.getInteger("carga.aquecimento-s", 10);
+        int duracaoSegundos = Integer.getInteger("carga.duracao-s", 30);
+        Duration timeout = Duration.ofMillis(Long.getLong("carga.timeout-ms", 10_000L));
+
+        CargaHttp carga = new CargaHttp(url, caminhos, timeout);
+        System.out.printf("%s: %d clientes, %d s de aquecimento + %d s medidos%n",
+                url, concorrencia, aquecimentoSegundos, duracaoSegundos);
+        carga.executar(concorrencia, aquecimentoSegundos, duracaoSegundos);
+    }
+
+    private void executar(int concorrencia, int aquecimentoSegundos, int duracaoSegundos) throws InterruptedException {
+        long inicio = System.nanoTime();
+        fim = inicio + TimeUnit.SECONDS.toNanos(aquecimentoSegundos + duracaoSegundos);
+        CountDownLatch clientes = new CountDownLatch(concorrencia);
+        for (int i = 0; i < concorrencia; i++) {
+            requisitar(i, clientes);
+        }
+
+        TimeUnit.SECONDS.sleep(aquecimentoSegundos);
+        medindo = true;
+        long inicioMedicao = System.nanoTime();
+        clientes.await();
+        medindo = false;
+        double segundos = Math.min(System.nanoTime(), fim) - inicioMedicao;
+        imprimir(segundos / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // Encadeia a próxima requisição do mesmo cliente na conclusão da anterior
+    private void requisitar(int sequencia, CountDownLatch clientes) {
+        long enviado = System.nanoTime();
+        if (enviado >= fim) {
+            clientes.countDown();
+            return;
+        }
+        HttpRequest requisicao = HttpRequest.newBuilder(destinos[sequencia % destinos.length])
+                .timeout(timeout)
+                .GET()
+                .build();
+        cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resposta, erro) -> {
+                    if (medindo) {
+                        registrar(System.nanoTime() - enviado,
+                                erro != null ? causa(erro) : String.valueOf(resposta.statusCode()));
+                    }
+                    requisitar(sequencia + 1, clientes);
+                });
+    }
+
+    private static String causa(Throwable erro) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        return causa.getClass().getSimpleName();
+    }
+
+    private void registrar(long latenciaNanos, String resultado) {
+        histograma.incrementAndGet((int) Math.min(FAIXAS - 1, latenciaNanos / RESOLUCAO_NANOS));
+        latenciaMaxima.accumulateAndGet(latenciaNanos, Math::max);
+        resultados.computeIfAbsent(resultado, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void imprimir(double segundos) {
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            total += histograma.get(i);
+        }
+        System.out.printf("requisições: %d em %.1f s (%.0f req/s)%n", total, segundos, total / segundos);
+        System.out.println("resultados: " + new TreeMap<>(resultados));
+        System.out.printf("latência (ms): p50 %.1f | p90 %.1f | p99 %.1f | p99.9 %.1f | máx %.1f%n",
+                percentil(total, 0.50), percentil(total, 0.90), percentil(total, 0.99), percentil(total, 0.999),
+                latenciaMaxima.get() / 1e6);
+    }
+
+    private double percentil(long total, double fracao) {
+        long alvo = (long) Math.ceil(total * fracao);
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += histograma.get(i);
+            if (acumulado >= alvo && acumulado > 0) {
+                return (i + 1) * RESOLUCAO_NANOS / 1e6;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.credit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.credit.event.ConsultaEvent;
+import com.credit.event.ConsultaEventDeserializer;
+import com.credit.event.ConsultaEventSerializer;
+import com.credit.event.FormatoEvento;
+
+/**
+ * Compara o custo de serializar/desserializar eventos de consulta em binário e no JSON legado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultaEventSerializacaoBenchmark {
+
+    private static final String TOPICO = "creditos-consultas";
+
+    private ConsultaEvent evento;
+    private ConsultaEventSerializer binario;
+    private ConsultaEventSerializer json;
+    private ConsultaEventDeserializer deserializer;
+    private byte[] payloadBinario;
+    private byte[] payloadJson;
+
+    @Setup
+    public void setUp() {
+        evento = new ConsultaEvent("CONSULTA_POR_NFSE", "7891011", System.currentTimeMillis(), "sistema");
+        binario = new ConsultaEventSerializer(FormatoEvento.BINARIO);
+        json = new ConsultaEventSerializer(FormatoEvento.JSON);
+        deserializer = new ConsultaEventDeserializer();
+        payloadBinario = binario.serialize(TOPICO, evento);
+        payloadJson = json.serialize(TOPICO, evento);
+        System.out.printf("%nTamanho do payload: binário=%d bytes, JSON=%d bytes%n", payloadBinario.length, payloadJson.length);
+    }
+
+    @Benchmark
+    public byte[] serializarBinario() {
+        return binario.serialize(TOPICO, evento);
+    }
+
+    @Benchmark
+    public byte[] serializarJson() {
+        return json.serialize(TOPICO, evento);
+    }
+
+    @Benchmark
+    public ConsultaEvent desserializarBinario() {
+        return deserializer.deserialize(TOPICO, payloadBinario);
+    }
+
+    @Benchmark
+    public ConsultaEvent desserializarJson() {
+        return deserializer.deserialize(TOPICO, payloadJson);
+    }
+}
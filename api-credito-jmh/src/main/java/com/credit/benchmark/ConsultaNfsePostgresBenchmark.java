@@ -0,0 +1,104 @@
+package com.credit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.repository.CreditoJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Caminho da consulta por NFS-e sem cache no PostgreSQL: {@link CreditoJdbcRepository#buscarPorNumeroNfse}
+ * (driver JDBC até o DTO) e a mesma lista já serializada com o ObjectMapper do Spring MVC. Valores
+ * aleatórios, para que nenhum cache de números pequenos esconda as alocações. Rode com {@code -prof gc}
+ * e {@code -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/creditos_db}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaNfsePostgresBenchmark {
+
+    private static final String PREFIXO = "JMH-NFSE-";
+    private static final String NUMERO_NFSE = PREFIXO + "1";
+
+    @Param({"100", "5000"})
+    private int creditosPorNfse;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CreditoJdbcRepository creditoJdbcRepository;
+    private ObjectWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("benchmark.postgres.url");
+        if (url == null) {
+            throw new IllegalStateException("Informe -Dbenchmark.postgres.url=jdbc:postgresql://... (banco com scripts/init-db.sql)");
+        }
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getProperty("benchmark.postgres.usuario", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.postgres.senha", ""));
+        dataSource.setMaximumPoolSize(1);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        creditoJdbcRepository = new CreditoJdbcRepository();
+        ReflectionTestUtils.setField(creditoJdbcRepository, "jdbcTemplate", jdbcTemplate);
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+        limpar();
+        jdbcTemplate.execute("SET session_replication_role = replica");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) "
+                + "SELECT ? || i, ?, DATE '2024-01-01' + (i % 365), round((random() * 100000)::numeric, 2), "
+                + "CASE WHEN i % 2 = 0 THEN 'ISSQN' ELSE 'Outros' END, i % 3 = 0, round((random() * 5)::numeric, 2), "
+                + "round((random() * 2000000)::numeric, 2), round((random() * 1000)::numeric, 2), "
+                + "round((random() * 2000000)::numeric, 2) FROM generate_series(1, ?) AS i",
+                PREFIXO, NUMERO_NFSE, creditosPorNfse);
+        jdbcTemplate.execute("SET session_replication_role = DEFAULT");
+        jdbcTemplate.execute("ANALYZE credito");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        limpar();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<CreditoDTO> buscarPorNumeroNfse() {
+        return creditoJdbcRepository.buscarPorNumeroNfse(NUMERO_NFSE);
+    }
+
+    @Benchmark
+    public byte[] buscarESerializar() throws Exception {
+        return writer.writeValueAsBytes(creditoJdbcRepository.buscarPorNumeroNfse(NUMERO_NFSE));
+    }
+
+    private void limpar() {
+        jdbcTemplate.execute("SET session_replication_role = replica");
+        jdbcTemplate.update("DELETE FROM credito WHERE numero_credito LIKE ?", PREFIXO + "%");
+        jdbcTemplate.execute("SET session_replication_role = DEFAULT");
+    }
+}
@@ -0,0 +1,70 @@
+package com.credit.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.credit.CreditosApiApplication;
+
+/**
+ * Sobe a aplicação completa sobre um H2 em memória, sem Kafka, e popula a tabela credito.
+ */
+final class ContextoH2 {
+
+    private ContextoH2() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propriedadesAdicionais) {
+        List<String> propriedades = new ArrayList<>(List.of(
+                "spring.profiles.active=benchmark",
+                "spring.main.web-application-type=none",
+                "spring.main.banner-mode=off",
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.hikari.auto-commit=true",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.kafka.bootstrap-servers=localhost:1",
+                "app.kafka.admin.auto-create=false",
+                "app.kafka.consultas.consumidor.enabled=false",
+                "app.kafka.eventos.publicador.enabled=false",
+                "app.kafka.eventos.invalidacao.enabled=false",
+                "logging.level.root=WARN",
+                "logging.level.com.credit=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "logging.file.name="));
+        propriedades.addAll(List.of(propriedadesAdicionais));
+
+        // Como argumentos de linha de comando, para prevalecer sobre os profiles do application.yml
+        return new SpringApplicationBuilder(CreditosApiApplication.class, BenchmarkKafkaConfig.class)
+                .run(propriedades.stream().map(propriedade -> "--" + propriedade).toArray(String[]::new));
+    }
+
+    /**
+     * Insere {@code nfses} NFS-e com {@code creditosPorNfse} créditos cada.
+     * NFS-e: "NFSE-0".."NFSE-n"; créditos: "CRED-&lt;nfse&gt;-&lt;i&gt;".
+     */
+    static void popular(ConfigurableApplicationContext contexto, int nfses, int creditosPorNfse) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        // Mesmos índices de scripts/init-db.sql (o ddl-auto do Hibernate não os cria)
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse ON credito(numero_nfse)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_credito_numero_credito ON credito(numero_credito)");
+
+        List<Object[]> linhas = new ArrayList<>();
+        for (int n = 0; n < nfses; n++) {
+            for (int i = 0; i < creditosPorNfse; i++) {
+                linhas.add(new Object[] {"CRED-" + n + "-" + i, "NFSE-" + n});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) "
+                + "VALUES (?, ?, DATE '2024-02-25', 1500.75, 'ISSQN', TRUE, 5.00, 30000.00, 5000.00, 25000.00)", linhas);
+    }
+}
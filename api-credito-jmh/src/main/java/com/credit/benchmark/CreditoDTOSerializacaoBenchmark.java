@@ -0,0 +1,60 @@
+package com.credit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.mapper.CreditoMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Serialização JSON dos DTOs ({@link com.credit.entity.Valor} e LocalDate) com o mesmo ObjectMapper que o Spring MVC usa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoDTOSerializacaoBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int quantidade;
+
+    private ObjectWriter writer;
+    private CreditoDTO credito;
+    private List<CreditoDTO> creditos;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        CreditoMapperImpl mapper = new CreditoMapperImpl();
+        credito = mapper.toDTO(Dados.credito(1, "7891011"));
+        creditos = mapper.toDTOList(Dados.creditos(quantidade, "7891011"));
+    }
+
+    @Benchmark
+    public byte[] serializarCredito() throws Exception {
+        return writer.writeValueAsBytes(credito);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return writer.writeValueAsBytes(creditos);
+    }
+}
@@ -0,0 +1,89 @@
+package com.credit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.mapper.CreditoMapper;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.CreditoRepository;
+
+/**
+ * Caminho de leitura sem cache: entidades JPA + MapStruct x JDBC direto no DTO, sobre H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditoLeituraBenchmark {
+
+    private static final int NFSES = 1000;
+
+    @Param({"10", "1000"})
+    private int creditosPorNfse;
+
+    private ConfigurableApplicationContext contexto;
+    private CreditoRepository creditoRepository;
+    private CreditoJdbcRepository creditoJdbcRepository;
+    private CreditoMapper creditoMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = ContextoH2.iniciar("app.cache.creditos.negativo.bloom.initial-delay-ms=600000");
+        ContextoH2.popular(contexto, NFSES, creditosPorNfse);
+        creditoRepository = contexto.getBean(CreditoRepository.class);
+        creditoJdbcRepository = contexto.getBean(CreditoJdbcRepository.class);
+        creditoMapper = contexto.getBean(CreditoMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<CreditoDTO> entidadeNumeroNfse() {
+        return creditoMapper.toDTOList(creditoRepository.findByNumeroNfse(nfseAleatoria()));
+    }
+
+    @Benchmark
+    public List<CreditoDTO> projecaoNumeroNfse() {
+        return creditoJdbcRepository.buscarPorNumeroNfse(nfseAleatoria());
+    }
+
+    @Benchmark
+    public CreditoDTO entidadeNumeroCredito() {
+        return creditoRepository.findByNumeroCredito(creditoAleatorio()).map(creditoMapper::toDTO).orElse(null);
+    }
+
+    @Benchmark
+    public CreditoDTO projecaoNumeroCredito() {
+        return creditoJdbcRepository.buscarPorNumeroCredito(creditoAleatorio()).orElse(null);
+    }
+
+    private static String nfseAleatoria() {
+        return "NFSE-" + ThreadLocalRandom.current().nextInt(NFSES);
+    }
+
+    private static String creditoAleatorio() {
+        return "CRED-" + ThreadLocalRandom.current().nextInt(NFSES) + "-0";
+    }
+}
@@ -0,0 +1,56 @@
+package com.credit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.entity.Credito;
+import com.credit.mapper.CreditoMapper;
+import com.credit.mapper.CreditoMapperImpl;
+
+/**
+ * Custo do mapeamento entidade -> DTO feito pelo MapStruct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoMapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int quantidade;
+
+    private final CreditoMapper mapper = new CreditoMapperImpl();
+    private Credito credito;
+    private List<Credito> creditos;
+
+    @Setup
+    public void setUp() {
+        credito = Dados.credito(1, "7891011");
+        creditos = Dados.creditos(quantidade, "7891011");
+    }
+
+    @Benchmark
+    public CreditoDTO toDTO() {
+        return mapper.toDTO(credito);
+    }
+
+    @Benchmark
+    public List<CreditoDTO> toDTOList() {
+        return mapper.toDTOList(creditos);
+    }
+}
@@ -0,0 +1,81 @@
+package com.credit.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.exception.CreditoNotFoundException;
+import com.credit.service.CreditoService;
+
+/**
+ * Chamada ponta a ponta ao CreditoService (cache, JPA, mapper e publicação do evento) sobre H2.
+ * Com {@code ttlCache=0} o cache local expira imediatamente e toda consulta vai ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditoServiceBenchmark {
+
+    private static final int NFSES = 1000;
+
+    @Param({"0", "300"})
+    private int ttlCache;
+
+    @Param({"10"})
+    private int creditosPorNfse;
+
+    private ConfigurableApplicationContext contexto;
+    private CreditoService creditoService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = ContextoH2.iniciar(
+                "app.cache.creditos.ttl=" + ttlCache,
+                "app.cache.creditos.negativo.bloom.initial-delay-ms=600000");
+        ContextoH2.popular(contexto, NFSES, creditosPorNfse);
+        creditoService = contexto.getBean(CreditoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public PaginaCreditosDTO buscarPorNumeroNfse() {
+        return creditoService.buscarPaginaPorNumeroNfse("NFSE-" + ThreadLocalRandom.current().nextInt(NFSES), null, null);
+    }
+
+    @Benchmark
+    public CreditoDTO buscarPorNumeroCredito() {
+        return creditoService.buscarPorNumeroCredito("CRED-" + ThreadLocalRandom.current().nextInt(NFSES) + "-0");
+    }
+
+    @Benchmark
+    public Object buscarPorNumeroNfseInexistente() {
+        try {
+            return creditoService.buscarPaginaPorNumeroNfse("AUSENTE-" + ThreadLocalRandom.current().nextInt(NFSES), null, null);
+        } catch (CreditoNotFoundException e) {
+            return e;
+        }
+    }
+}
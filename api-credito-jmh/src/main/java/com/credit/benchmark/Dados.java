@@ -0,0 +1,41 @@
+package com.credit.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+
+/**
+ * Massa de dados sintética, semelhante aos registros de init-db.sql.
+ */
+final class Dados {
+
+    private Dados() {
+    }
+
+    static Credito credito(long id, String numeroNfse) {
+        Credito credito = new Credito();
+        credito.setId(id);
+        credito.setNumeroCredito(String.valueOf(100000 + id));
+        credito.setNumeroNfse(numeroNfse);
+        credito.setDataConstituicao(LocalDate.of(2024, 1, 1).plusDays(id % 365));
+        credito.setValorIssqn(Valor.de("1500.75"));
+        credito.setTipoCredito(id % 3 == 0 ? "Outros" : "ISSQN");
+        credito.setSimplesNacional(id % 2 == 0);
+        credito.setAliquota(Valor.de("5.00"));
+        credito.setValorFaturado(Valor.de("30000.00"));
+        credito.setValorDeducao(Valor.de("5000.00"));
+        credito.setBaseCalculo(Valor.de("25000.00"));
+        return credito;
+    }
+
+    static List<Credito> creditos(int quantidade, String numeroNfse) {
+        List<Credito> creditos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            creditos.add(credito(i, numeroNfse));
+        }
+        return creditos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.credit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.event.PoliticaOverflow;
+import com.credit.service.EventPublisherService;
+
+/**
+ * Custo de publicar um evento de consulta na thread da requisição,
+ * no modo síncrono (envio direto ao producer) e no assíncrono (apenas enfileira).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPublisherBenchmark {
+
+    @Param({"true", "false"})
+    private boolean async;
+
+    private EventPublisherService eventPublisherService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventPublisherService = new EventPublisherService();
+        ReflectionTestUtils.setField(eventPublisherService, "kafkaTemplate", KafkaSemBroker.kafkaTemplate());
+        ReflectionTestUtils.setField(eventPublisherService, "async", async);
+        ReflectionTestUtils.setField(eventPublisherService, "capacidade", 10000);
+        ReflectionTestUtils.setField(eventPublisherService, "tamanhoLote", 500);
+        ReflectionTestUtils.setField(eventPublisherService, "politicaOverflow", PoliticaOverflow.DROP);
+        ReflectionTestUtils.setField(eventPublisherService, "taxaAmostragem", 10);
+        eventPublisherService.iniciar();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        eventPublisherService.encerrar();
+        System.out.printf("%nEventos descartados: %d de %d%n",
+                eventPublisherService.getDescartados(),
+                eventPublisherService.getEnfileirados() + eventPublisherService.getDescartados());
+    }
+
+    @Benchmark
+    public void publishConsultaEvent() {
+        eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", "7891011");
+    }
+}
@@ -0,0 +1,54 @@
+package com.credit.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.credit.event.ConsultaEventSerializer;
+import com.credit.event.FormatoEvento;
+
+/**
+ * KafkaTemplate que serializa os registros e os descarta, sem broker e sem guardar histórico.
+ */
+final class KafkaSemBroker {
+
+    private KafkaSemBroker() {
+    }
+
+    static KafkaTemplate<String, Object> kafkaTemplate() {
+        ProducerFactory<String, Object> producerFactory = () -> new ProducerDescartavel(
+                new ConsultaEventSerializer(FormatoEvento.BINARIO));
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    private static final class ProducerDescartavel extends MockProducer<String, Object> {
+
+        private static final RecordMetadata METADATA =
+                new RecordMetadata(new TopicPartition("benchmark", 0), 0L, 0, 0L, 0, 0);
+
+        private final Serializer<Object> valueSerializer;
+
+        private ProducerDescartavel(Serializer<Object> valueSerializer) {
+            super(true, new StringSerializer(), valueSerializer);
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+            valueSerializer.serialize(record.topic(), record.value());
+            if (callback != null) {
+                callback.onCompletion(METADATA, null);
+            }
+            return CompletableFuture.completedFuture(METADATA);
+        }
+    }
+}
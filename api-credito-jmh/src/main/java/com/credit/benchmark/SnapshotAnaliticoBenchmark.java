@@ -0,0 +1,72 @@
+package com.credit.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.credit.cache.Agrupamento;
+import com.credit.cache.ColunasCredito;
+import com.credit.dto.TotalAnaliticoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+
+/**
+ * Totalizações do snapshot analítico ({@link ColunasCredito}) sobre créditos sintéticos, sem banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SnapshotAnaliticoBenchmark {
+
+    private static final String[] TIPOS = {"ISSQN", "Outros", "Taxa", "Multa"};
+
+    @Param({"1000000"})
+    private int linhas;
+
+    private ColunasCredito colunas;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random aleatorio = new Random(42);
+        colunas = new ColunasCredito(linhas);
+        LocalDate inicio = LocalDate.of(2020, 1, 1);
+        for (long id = 1; id <= linhas; id++) {
+            Valor valor = Valor.deCentesimos(aleatorio.nextInt(10_000_000));
+            colunas.gravar(new Credito(id, "C" + id, "NF" + id / 10, inicio.plusDays(aleatorio.nextInt(1825)), valor,
+                    TIPOS[aleatorio.nextInt(TIPOS.length)], aleatorio.nextBoolean(), Valor.de("5.00"),
+                    valor, Valor.ZERO, valor));
+        }
+    }
+
+    @Benchmark
+    public List<TotalAnaliticoDTO> porTipo() {
+        return colunas.totalizar(Agrupamento.TIPO_CREDITO, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<TotalAnaliticoDTO> porMesNoAnoComFiltros() {
+        return colunas.totalizar(Agrupamento.MES, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), "ISSQN", true);
+    }
+
+    @Benchmark
+    public List<TotalAnaliticoDTO> porSimplesNacional() {
+        return colunas.totalizar(Agrupamento.SIMPLES_NACIONAL, null, null, null, null);
+    }
+}
@@ -24,10 +24,24 @@ CREATE TABLE IF NOT EXISTS credito (
 
 -- Índices para otimização de consultas
 CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse ON credito(numero_nfse);
+-- Paginação por keyset (numero_nfse = ? AND id > ? ORDER BY id) sem ordenação em memória
+CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse_id ON credito(numero_nfse, id);
 CREATE INDEX IF NOT EXISTS idx_credito_numero_credito ON credito(numero_credito);
 CREATE INDEX IF NOT EXISTS idx_credito_data_constituicao ON credito(data_constituicao);
 CREATE INDEX IF NOT EXISTS idx_credito_tipo_credito ON credito(tipo_credito);
 
+-- Atualização incremental do snapshot analítico (updated_at >= ?)
+CREATE INDEX IF NOT EXISTS idx_credito_updated_at ON credito(updated_at);
+
+-- Busca por prefixo (numero COLLATE "C" LIKE 'abc%') e paginação por keyset na mesma ordem do índice.
+-- O índice B-tree comum segue a collation do banco e não atende LIKE com prefixo fora da locale C.
+CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse_prefixo ON credito((numero_nfse COLLATE "C"), id);
+CREATE INDEX IF NOT EXISTS idx_credito_numero_credito_prefixo ON credito((numero_credito COLLATE "C"), id);
+-- Busca por trecho (LIKE '%abc%') com índice de trigramas
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse_trgm ON credito USING gin (numero_nfse gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_credito_numero_credito_trgm ON credito USING gin (numero_credito gin_trgm_ops);
+
 -- Criação da tabela de auditoria (corrigida)
 CREATE TABLE IF NOT EXISTS credito_auditoria (
                                                  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
@@ -66,8 +80,9 @@ CREATE OR REPLACE FUNCTION credito_audit_trigger()
 RETURNS TRIGGER AS $$
 BEGIN
     IF TG_OP = 'DELETE' THEN
+        -- credito_id nulo: a linha já não existe (FK) e o id fica em dados_antigos
         INSERT INTO credito_auditoria (credito_id, operacao, dados_antigos, usuario)
-        VALUES (OLD.id, 'DELETE', row_to_json(OLD), current_user);
+        VALUES (NULL, 'DELETE', row_to_json(OLD), current_user);
 RETURN OLD;
 ELSIF TG_OP = 'UPDATE' THEN
         INSERT INTO credito_auditoria (credito_id, operacao, dados_antigos, dados_novos, usuario)
@@ -82,6 +97,117 @@ RETURN NULL;
 END;
 $$ language 'plpgsql';
 
+-- Resumo por NFS-e mantido incrementalmente (substitui o GROUP BY de vw_creditos_resumo nas leituras)
+CREATE TABLE IF NOT EXISTS credito_resumo_nfse (
+    numero_nfse VARCHAR(50) NOT NULL,
+    total_creditos BIGINT NOT NULL,
+    total_issqn DECIMAL(19, 2) NOT NULL,
+    soma_aliquota DECIMAL(19, 2) NOT NULL, -- média = soma_aliquota / total_creditos
+    total_faturado DECIMAL(19, 2) NOT NULL,
+    primeira_constituicao DATE,
+    ultima_constituicao DATE,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (numero_nfse)
+    );
+
+-- Aplica o delta de cada linha alterada. Somas e contagem são subtraíveis; mínimo e máximo só
+-- são recalculados (pelo índice de numero_nfse) quando a linha removida estava na borda.
+CREATE OR REPLACE FUNCTION credito_resumo_nfse_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE credito_resumo_nfse
+           SET total_creditos = total_creditos - 1,
+               total_issqn = total_issqn - OLD.valor_issqn,
+               soma_aliquota = soma_aliquota - OLD.aliquota,
+               total_faturado = total_faturado - OLD.valor_faturado,
+               atualizado_em = CURRENT_TIMESTAMP
+         WHERE numero_nfse = OLD.numero_nfse;
+
+        DELETE FROM credito_resumo_nfse
+         WHERE numero_nfse = OLD.numero_nfse AND total_creditos <= 0;
+
+        UPDATE credito_resumo_nfse r
+           SET primeira_constituicao = s.primeira,
+               ultima_constituicao = s.ultima
+          FROM (SELECT MIN(data_constituicao) AS primeira, MAX(data_constituicao) AS ultima
+                  FROM credito WHERE numero_nfse = OLD.numero_nfse) s
+         WHERE r.numero_nfse = OLD.numero_nfse
+           AND (OLD.data_constituicao = r.primeira_constituicao OR OLD.data_constituicao = r.ultima_constituicao);
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO credito_resumo_nfse AS r (numero_nfse, total_creditos, total_issqn, soma_aliquota,
+                                              total_faturado, primeira_constituicao, ultima_constituicao)
+        VALUES (NEW.numero_nfse, 1, NEW.valor_issqn, NEW.aliquota, NEW.valor_faturado,
+                NEW.data_constituicao, NEW.data_constituicao)
+        ON CONFLICT (numero_nfse) DO UPDATE
+           SET total_creditos = r.total_creditos + 1,
+               total_issqn = r.total_issqn + EXCLUDED.total_issqn,
+               soma_aliquota = r.soma_aliquota + EXCLUDED.soma_aliquota,
+               total_faturado = r.total_faturado + EXCLUDED.total_faturado,
+               primeira_constituicao = LEAST(r.primeira_constituicao, EXCLUDED.primeira_constituicao),
+               ultima_constituicao = GREATEST(r.ultima_constituicao, EXCLUDED.ultima_constituicao),
+               atualizado_em = CURRENT_TIMESTAMP;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- Carga inicial para bancos que já tinham créditos antes da tabela de resumo
+INSERT INTO credito_resumo_nfse (numero_nfse, total_creditos, total_issqn, soma_aliquota,
+                                 total_faturado, primeira_constituicao, ultima_constituicao)
+SELECT numero_nfse, COUNT(*), SUM(valor_issqn), SUM(aliquota), SUM(valor_faturado),
+       MIN(data_constituicao), MAX(data_constituicao)
+FROM credito
+GROUP BY numero_nfse
+    ON CONFLICT (numero_nfse) DO NOTHING;
+
+DROP TRIGGER IF EXISTS credito_resumo_nfse ON credito;
+CREATE TRIGGER credito_resumo_nfse
+    AFTER INSERT OR UPDATE OR DELETE ON credito
+    FOR EACH ROW
+    EXECUTE FUNCTION credito_resumo_nfse_trigger();
+
+-- Contadores de consultas por chave e minuto, alimentados pelo consumidor do tópico creditos-consultas
+CREATE TABLE IF NOT EXISTS consulta_estatistica (
+    tipo_consulta VARCHAR(50) NOT NULL,
+    parametro TEXT NOT NULL,
+    minuto TIMESTAMP NOT NULL,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (tipo_consulta, parametro, minuto)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_consulta_estatistica_minuto ON consulta_estatistica(minuto);
+
+-- Último offset aplicado por grupo/partição, gravado na mesma transação dos contadores
+CREATE TABLE IF NOT EXISTS kafka_offset_processado (
+    grupo VARCHAR(100) NOT NULL,
+    topico VARCHAR(255) NOT NULL,
+    particao INT NOT NULL,
+    ultimo_offset BIGINT NOT NULL,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (grupo, topico, particao)
+    );
+
+-- Último id de credito_auditoria já publicado em creditos-eventos, por publicador
+CREATE TABLE IF NOT EXISTS credito_auditoria_publicacao (
+    publicador VARCHAR(100) NOT NULL,
+    ultimo_id BIGINT NOT NULL,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (publicador)
+    );
+
+-- Ids de credito_auditoria pulados pelo publicador (transação ainda aberta) que seguem sendo reconsultados.
+-- Gravados na mesma transação que a posição, então sobrevivem à troca da instância que publica
+CREATE TABLE IF NOT EXISTS credito_auditoria_lacuna (
+    publicador VARCHAR(100) NOT NULL,
+    auditoria_id BIGINT NOT NULL,
+    pulada_em TIMESTAMP NOT NULL,
+    PRIMARY KEY (publicador, auditoria_id)
+    );
+
 -- Inserção de dados de teste (ANTES do trigger de auditoria)
 INSERT INTO credito (
     numero_credito,
@@ -106,12 +232,65 @@ INSERT INTO credito (
     ON CONFLICT (numero_credito) DO NOTHING;
 
 -- Trigger para auditoria (DEPOIS dos dados de teste)
+-- Modo padrão: uma chamada por linha. Com SET LOCAL app.audit_mode = 'lote' (cargas em massa) o WHEN
+-- desliga o trigger por linha sem nem chamar a função, e os triggers por comando abaixo assumem.
 DROP TRIGGER IF EXISTS credito_audit ON credito;
 CREATE TRIGGER credito_audit
     AFTER INSERT OR UPDATE OR DELETE ON credito
     FOR EACH ROW
+    WHEN (current_setting('app.audit_mode', true) IS DISTINCT FROM 'lote')
     EXECUTE FUNCTION credito_audit_trigger();
 
+-- Auditoria por comando: as mesmas linhas de credito_auditoria, gravadas com um único INSERT ... SELECT
+-- sobre as tabelas de transição. Tabelas de transição exigem um trigger por evento.
+CREATE OR REPLACE FUNCTION credito_audit_lote_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO credito_auditoria (credito_id, operacao, dados_novos, usuario)
+        SELECT n.id, 'INSERT', to_jsonb(n), current_user
+          FROM novas n
+         ORDER BY n.id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO credito_auditoria (credito_id, operacao, dados_antigos, dados_novos, usuario)
+        SELECT n.id, 'UPDATE', to_jsonb(a), to_jsonb(n), current_user
+          FROM novas n
+          JOIN antigas a ON a.id = n.id
+         ORDER BY n.id;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO credito_auditoria (credito_id, operacao, dados_antigos, usuario)
+        SELECT NULL::BIGINT, 'DELETE', to_jsonb(a), current_user
+          FROM antigas a
+         ORDER BY a.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS credito_audit_lote_insert ON credito;
+CREATE TRIGGER credito_audit_lote_insert
+    AFTER INSERT ON credito
+    REFERENCING NEW TABLE AS novas
+    FOR EACH STATEMENT
+    WHEN (current_setting('app.audit_mode', true) = 'lote')
+    EXECUTE FUNCTION credito_audit_lote_trigger();
+
+DROP TRIGGER IF EXISTS credito_audit_lote_update ON credito;
+CREATE TRIGGER credito_audit_lote_update
+    AFTER UPDATE ON credito
+    REFERENCING OLD TABLE AS antigas NEW TABLE AS novas
+    FOR EACH STATEMENT
+    WHEN (current_setting('app.audit_mode', true) = 'lote')
+    EXECUTE FUNCTION credito_audit_lote_trigger();
+
+DROP TRIGGER IF EXISTS credito_audit_lote_delete ON credito;
+CREATE TRIGGER credito_audit_lote_delete
+    AFTER DELETE ON credito
+    REFERENCING OLD TABLE AS antigas
+    FOR EACH STATEMENT
+    WHEN (current_setting('app.audit_mode', true) = 'lote')
+    EXECUTE FUNCTION credito_audit_lote_trigger();
+
 -- Criação de usuário específico para a aplicação (opcional)
 DO $$
 BEGIN
@@ -126,6 +305,11 @@ GRANT CONNECT ON DATABASE creditos_db TO app_user;
 GRANT USAGE ON SCHEMA public TO app_user;
 GRANT SELECT, INSERT, UPDATE, DELETE ON credito TO app_user;
 GRANT SELECT, INSERT ON credito_auditoria TO app_user;
+GRANT SELECT, INSERT, UPDATE, DELETE ON credito_resumo_nfse TO app_user;
+GRANT SELECT, INSERT, UPDATE ON consulta_estatistica TO app_user;
+GRANT SELECT, INSERT, UPDATE ON kafka_offset_processado TO app_user;
+GRANT SELECT, INSERT, UPDATE ON credito_auditoria_publicacao TO app_user;
+GRANT SELECT, INSERT, DELETE ON credito_auditoria_lacuna TO app_user;
 GRANT USAGE, SELECT ON ALL SEQUENCES IN SCHEMA public TO app_user;
 
 -- Visualização para relatórios
@@ -147,7 +331,10 @@ GRANT SELECT ON vw_creditos_resumo TO app_user;
 -- Comentários nas tabelas
 COMMENT ON TABLE credito IS 'Tabela principal para armazenar informações de créditos constituídos';
 COMMENT ON TABLE credito_auditoria IS 'Tabela de auditoria para rastrear alterações nos créditos';
+COMMENT ON TABLE credito_auditoria_publicacao IS 'Posição do publicador que leva credito_auditoria para o tópico creditos-eventos';
+COMMENT ON TABLE credito_auditoria_lacuna IS 'Ids de credito_auditoria pulados pelo publicador e ainda reconsultados a cada ciclo';
 COMMENT ON VIEW vw_creditos_resumo IS 'Visão resumida dos créditos agrupados por NFS-e';
+COMMENT ON TABLE credito_resumo_nfse IS 'Resumo por NFS-e mantido pelo trigger credito_resumo_nfse; mesmos totais da vw_creditos_resumo sem GROUP BY na leitura';
 
 -- Informações sobre a inicialização
 SELECT 'Banco de dados inicializado com sucesso!' as status,
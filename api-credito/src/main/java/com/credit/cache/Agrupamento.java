@@ -0,0 +1,10 @@
+package com.credit.cache;
+
+/**
+ * Chave de agrupamento dos totais do snapshot analítico.
+ */
+public enum Agrupamento {
+    TIPO_CREDITO,
+    MES,
+    SIMPLES_NACIONAL
+}
@@ -0,0 +1,68 @@
+package com.credit.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para chaves String. Aceita inserções concorrentes depois de construído.
+ * {@link #mightContain(String)} nunca retorna falso para uma chave inserida.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+
+    public BloomFilter(long insercoesEsperadas, double probabilidadeFalsoPositivo) {
+        long n = Math.max(1, insercoesEsperadas);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadeFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(palavras);
+        this.numeroBits = (long) palavras << 6;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / n * Math.log(2)));
+    }
+
+    public void put(String chave) {
+        long hash = hash64(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numeroHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            int palavra = (int) (indice >>> 6);
+            long mascara = 1L << indice;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    public boolean mightContain(String chave) {
+        long hash = hash64(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numeroHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long indice(int combinado) {
+        return (combinado & 0x7fffffffL) % numeroBits;
+    }
+
+    // FNV-1a dos bytes UTF-8 (também usado pelo CountMinSketch)
+    static long hash64(String chave) {
+        long h = Hash64.FNV_OFFSET;
+        for (byte b : chave.getBytes(StandardCharsets.UTF_8)) {
+            h = Hash64.fnv1a(h, b);
+        }
+        return Hash64.fmix64(h);
+    }
+}
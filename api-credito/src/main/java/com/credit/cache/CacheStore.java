@@ -0,0 +1,17 @@
+package com.credit.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Segundo nível do cache de créditos (ex.: Redis, Hazelcast).
+ * Consultado apenas quando o cache local não possui a chave.
+ */
+public interface CacheStore {
+
+    Optional<Object> get(String chave);
+
+    void put(String chave, Object valor, Duration ttl);
+
+    void evict(String chave);
+}
@@ -0,0 +1,163 @@
+package com.credit.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.credit.dto.ChaveQuenteDTO;
+
+/**
+ * Top-K das NFS-e e números de crédito mais consultados, com memória limitada: a frequência de
+ * cada chave vem de um {@link CountMinSketch} e só as K maiores ficam guardadas. Os contadores
+ * são divididos por dois a cada intervalo, então o ranking acompanha o tráfego recente.
+ * As chaves não viram tags de métrica (cardinalidade); são lidas pelo endpoint chavesquentes.
+ */
+@Component
+public class ChavesQuentes {
+
+    private final boolean habilitado;
+    private final Rastreador numerosNfse;
+    private final Rastreador numerosCredito;
+
+    public ChavesQuentes(@Value("${app.metricas.chaves-quentes.enabled:true}") boolean habilitado,
+                         @Value("${app.metricas.chaves-quentes.top-k:20}") int topK,
+                         @Value("${app.metricas.chaves-quentes.largura:4096}") int largura,
+                         @Value("${app.metricas.chaves-quentes.profundidade:4}") int profundidade) {
+        this.habilitado = habilitado;
+        this.numerosNfse = new Rastreador(topK, largura, profundidade);
+        this.numerosCredito = new Rastreador(topK, largura, profundidade);
+    }
+
+    public void registrarNumeroNfse(String numeroNfse) {
+        if (habilitado && numeroNfse != null) {
+            numerosNfse.registrar(numeroNfse);
+        }
+    }
+
+    public void registrarNumeroCredito(String numeroCredito) {
+        if (habilitado && numeroCredito != null) {
+            numerosCredito.registrar(numeroCredito);
+        }
+    }
+
+    /**
+     * Devolve ao ranking uma chave salva antes do restart (snapshot ou lista capturada), com a
+     * estimativa que tinha; na subida o top-K já reflete o tráfego de antes.
+     */
+    public void restaurarNumeroNfse(String numeroNfse, long estimativa) {
+        if (habilitado && numeroNfse != null && estimativa > 0) {
+            numerosNfse.registrar(numeroNfse, estimativa);
+        }
+    }
+
+    public void restaurarNumeroCredito(String numeroCredito, long estimativa) {
+        if (habilitado && numeroCredito != null && estimativa > 0) {
+            numerosCredito.registrar(numeroCredito, estimativa);
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Se a NFS-e está hoje no top-K (desligado, nenhuma chave é quente).
+     */
+    public boolean isNumeroNfseQuente(String numeroNfse) {
+        return habilitado && numerosNfse.contem(numeroNfse);
+    }
+
+    public boolean isNumeroCreditoQuente(String numeroCredito) {
+        return habilitado && numerosCredito.contem(numeroCredito);
+    }
+
+    public List<ChaveQuenteDTO> getNumerosNfse() {
+        return numerosNfse.ranking();
+    }
+
+    public List<ChaveQuenteDTO> getNumerosCredito() {
+        return numerosCredito.ranking();
+    }
+
+    @Scheduled(fixedDelayString = "${app.metricas.chaves-quentes.intervalo-decaimento-ms:60000}")
+    public void envelhecer() {
+        numerosNfse.envelhecer();
+        numerosCredito.envelhecer();
+    }
+
+    /**
+     * Sketch + as K chaves de maior estimativa. Chave já no top-K só atualiza a própria estimativa;
+     * o lock é tomado apenas quando uma chave nova supera a menor do top-K.
+     */
+    static class Rastreador {
+
+        private final CountMinSketch sketch;
+        private final int topK;
+        private final Map<String, Long> topo = new ConcurrentHashMap<>();
+        private volatile long minimo;
+
+        Rastreador(int topK, int largura, int profundidade) {
+            this.sketch = new CountMinSketch(largura, profundidade);
+            this.topK = Math.max(1, topK);
+        }
+
+        void registrar(String chave) {
+            registrar(chave, 1);
+        }
+
+        void registrar(String chave, long quantidade) {
+            long estimativa = sketch.incrementar(chave, quantidade);
+            if (topo.computeIfPresent(chave, (k, v) -> Math.max(v, estimativa)) != null) {
+                return;
+            }
+            if (topo.size() >= topK && estimativa <= minimo) {
+                return;
+            }
+            synchronized (this) {
+                if (topo.size() >= topK) {
+                    Map.Entry<String, Long> menor = menor();
+                    if (menor == null || estimativa <= menor.getValue()) {
+                        return;
+                    }
+                    topo.remove(menor.getKey());
+                }
+                topo.put(chave, estimativa);
+                atualizarMinimo();
+            }
+        }
+
+        boolean contem(String chave) {
+            return chave != null && topo.containsKey(chave);
+        }
+
+        synchronized void envelhecer() {
+            sketch.envelhecer();
+            topo.replaceAll((chave, valor) -> sketch.estimar(chave));
+            topo.values().removeIf(valor -> valor == 0);
+            atualizarMinimo();
+        }
+
+        List<ChaveQuenteDTO> ranking() {
+            List<ChaveQuenteDTO> ranking = new ArrayList<>(topo.size());
+            topo.forEach((chave, estimativa) -> ranking.add(new ChaveQuenteDTO(chave, estimativa)));
+            ranking.sort(Comparator.comparingLong(ChaveQuenteDTO::getEstimativa).reversed()
+                    .thenComparing(ChaveQuenteDTO::getChave));
+            return ranking;
+        }
+
+        private Map.Entry<String, Long> menor() {
+            return topo.entrySet().stream().min(Map.Entry.comparingByValue()).orElse(null);
+        }
+
+        // Enquanto o top-K não está cheio qualquer chave entra
+        private void atualizarMinimo() {
+            Map.Entry<String, Long> menor = topo.size() >= topK ? menor() : null;
+            minimo = menor != null ? menor.getValue() : 0;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.credit.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.credit.dto.TotalAnaliticoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+
+/**
+ * A tabela credito em colunas de tipos primitivos, ordenadas por id, para totalizações em memória:
+ * valores em centavos (long), datas em dias desde 1970 (int), tipo de crédito codificado por
+ * dicionário e Simples Nacional num bitset. Linhas excluídas ficam marcadas até a próxima recarga.
+ * Não é thread-safe: quem grava precisa excluir as leituras (ver {@code AnaliticoService}).
+ */
+public final class ColunasCredito {
+
+    // Linhas por tarefa da totalização paralela
+    private static final int BLOCO = 1 << 16;
+
+    // Campos do acumulador de cada grupo: quantidade e as quatro somas
+    private static final int CAMPOS = 5;
+
+    private static final String[] SIMPLES_NACIONAL = {"Não", "Sim"};
+
+    private int tamanho;
+    private int removidas;
+    private long[] ids;
+    private long[] valorIssqn;
+    private long[] valorFaturado;
+    private long[] valorDeducao;
+    private long[] baseCalculo;
+    private int[] diaConstituicao;
+    private int[] mesConstituicao;
+    private int[] tipoCredito;
+    private final BitSet simplesNacional = new BitSet();
+    private final BitSet removida = new BitSet();
+
+    private final List<String> tipos = new ArrayList<>();
+    private final Map<String, Integer> codigosTipo = new HashMap<>();
+    private int mesMinimo = Integer.MAX_VALUE;
+    private int mesMaximo = Integer.MIN_VALUE;
+
+    public ColunasCredito(int capacidadeInicial) {
+        int capacidade = Math.max(16, capacidadeInicial);
+        ids = new long[capacidade];
+        valorIssqn = new long[capacidade];
+        valorFaturado = new long[capacidade];
+        valorDeducao = new long[capacidade];
+        baseCalculo = new long[capacidade];
+        diaConstituicao = new int[capacidade];
+        mesConstituicao = new int[capacidade];
+        tipoCredito = new int[capacidade];
+    }
+
+    /**
+     * Atualiza a linha do id ou acrescenta no fim. Retorna false, sem gravar, para um id novo menor
+     * que o último carregado (transação que gravou fora de ordem): só uma recarga o posiciona.
+     */
+    public boolean gravar(Credito credito) {
+        long id = credito.getId();
+        int linha = tamanho > 0 && id <= ids[tamanho - 1] ? Arrays.binarySearch(ids, 0, tamanho, id) : -(tamanho + 1);
+        if (linha < 0) {
+            if (-(linha + 1) != tamanho) {
+                return false;
+            }
+            garantirCapacidade(tamanho + 1);
+            linha = tamanho++;
+            ids[linha] = id;
+        }
+
+        valorIssqn[linha] = credito.getValorIssqn().getCentesimos();
+        valorFaturado[linha] = credito.getValorFaturado().getCentesimos();
+        valorDeducao[linha] = credito.getValorDeducao().getCentesimos();
+        baseCalculo[linha] = credito.getBaseCalculo().getCentesimos();
+        LocalDate data = credito.getDataConstituicao();
+        diaConstituicao[linha] = (int) data.toEpochDay();
+        int mes = data.getYear() * 12 + data.getMonthValue() - 1;
+        mesConstituicao[linha] = mes;
+        mesMinimo = Math.min(mesMinimo, mes);
+        mesMaximo = Math.max(mesMaximo, mes);
+        tipoCredito[linha] = codigosTipo.computeIfAbsent(credito.getTipoCredito(), tipo -> {
+            tipos.add(tipo);
+            return tipos.size() - 1;
+        });
+        simplesNacional.set(linha, credito.isSimplesNacional());
+        return true;
+    }
+
+    public boolean remover(long id) {
+        int linha = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (linha < 0 || removida.get(linha)) {
+            return false;
+        }
+        removida.set(linha);
+        removidas++;
+        return true;
+    }
+
+    public int getLinhas() {
+        return tamanho - removidas;
+    }
+
+    public int getRemovidas() {
+        return removidas;
+    }
+
+    /**
+     * Quantidade e somas por grupo das linhas que passam nos filtros (null = sem filtro), em blocos
+     * paralelos com acumuladores próprios somados no fim. Grupos sem linhas não aparecem.
+     */
+    public List<TotalAnaliticoDTO> totalizar(Agrupamento agrupamento, LocalDate dataInicio, LocalDate dataFim,
+                                             String tipo, Boolean simples) {
+        int tipoFiltro = -1;
+        if (tipo != null) {
+            Integer codigo = codigosTipo.get(tipo);
+            if (codigo == null) {
+                return new ArrayList<>();
+            }
+            tipoFiltro = codigo;
+        }
+        int diaInicio = dataInicio != null ? (int) dataInicio.toEpochDay() : Integer.MIN_VALUE;
+        int diaFim = dataFim != null ? (int) dataFim.toEpochDay() : Integer.MAX_VALUE;
+        int grupos = agrupamento == Agrupamento.TIPO_CREDITO ? tipos.size()
+                : agrupamento == Agrupamento.SIMPLES_NACIONAL ? 2
+                : tamanho > 0 ? mesMaximo - mesMinimo + 1 : 0;
+        if (grupos == 0) {
+            return new ArrayList<>();
+        }
+
+        int filtroTipo = tipoFiltro;
+        int blocos = (tamanho + BLOCO - 1) / BLOCO;
+        long[] total = IntStream.range(0, blocos).parallel()
+                .mapToObj(bloco -> acumular(bloco * BLOCO, Math.min(tamanho, (bloco + 1) * BLOCO), agrupamento, grupos,
+                        diaInicio, diaFim, filtroTipo, simples))
+                .reduce(new long[grupos * CAMPOS], ColunasCredito::somar);
+        return totais(agrupamento, total);
+    }
+
+    private long[] acumular(int inicio, int fim, Agrupamento agrupamento, int grupos, int diaInicio, int diaFim,
+                            int filtroTipo, Boolean simples) {
+        long[] acumulador = new long[grupos * CAMPOS];
+        boolean filtraSimples = simples != null;
+        boolean simplesDesejado = filtraSimples && simples;
+        boolean temRemovidas = removidas > 0;
+        for (int i = inicio; i < fim; i++) {
+            int dia = diaConstituicao[i];
+            if (temRemovidas && removida.get(i)
+                    || dia < diaInicio || dia > diaFim
+                    || filtroTipo >= 0 && tipoCredito[i] != filtroTipo
+                    || filtraSimples && simplesNacional.get(i) != simplesDesejado) {
+                continue;
+            }
+            int grupo;
+            switch (agrupamento) {
+                case TIPO_CREDITO:
+                    grupo = tipoCredito[i];
+                    break;
+                case SIMPLES_NACIONAL:
+                    grupo = simplesNacional.get(i) ? 1 : 0;
+                    break;
+                default:
+                    grupo = mesConstituicao[i] - mesMinimo;
+            }
+            int base = grupo * CAMPOS;
+            acumulador[base]++;
+            acumulador[base + 1] = Math.addExact(acumulador[base + 1], valorIssqn[i]);
+            acumulador[base + 2] = Math.addExact(acumulador[base + 2], valorFaturado[i]);
+            acumulador[base + 3] = Math.addExact(acumulador[base + 3], valorDeducao[i]);
+            acumulador[base + 4] = Math.addExact(acumulador[base + 4], baseCalculo[i]);
+        }
+        return acumulador;
+    }
+
+    private static long[] somar(long[] a, long[] b) {
+        long[] soma = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            soma[i] = Math.addExact(a[i], b[i]);
+        }
+        return soma;
+    }
+
+    private List<TotalAnaliticoDTO> totais(Agrupamento agrupamento, long[] total) {
+        List<TotalAnaliticoDTO> totais = new ArrayList<>();
+        for (int grupo = 0; grupo < total.length / CAMPOS; grupo++) {
+            int base = grupo * CAMPOS;
+            if (total[base] == 0) {
+                continue;
+            }
+            totais.add(new TotalAnaliticoDTO(rotulo(agrupamento, grupo), total[base], Valor.deCentesimos(total[base + 1]),
+                    Valor.deCentesimos(total[base + 2]), Valor.deCentesimos(total[base + 3]),
+                    Valor.deCentesimos(total[base + 4])));
+        }
+        if (agrupamento == Agrupamento.TIPO_CREDITO) {
+            totais.sort(Comparator.comparing(TotalAnaliticoDTO::getGrupo));
+        }
+        return totais;
+    }
+
+    private String rotulo(Agrupamento agrupamento, int grupo) {
+        switch (agrupamento) {
+            case TIPO_CREDITO:
+                return tipos.get(grupo);
+            case SIMPLES_NACIONAL:
+                return SIMPLES_NACIONAL[grupo];
+            default:
+                int mes = mesMinimo + grupo;
+                return String.format("%04d-%02d", mes / 12, mes % 12 + 1);
+        }
+    }
+
+    private void garantirCapacidade(int minimo) {
+        if (minimo <= ids.length) {
+            return;
+        }
+        int capacidade = Math.max(minimo, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacidade);
+        valorIssqn = Arrays.copyOf(valorIssqn, capacidade);
+        valorFaturado = Arrays.copyOf(valorFaturado, capacidade);
+        valorDeducao = Arrays.copyOf(valorDeducao, capacidade);
+        baseCalculo = Arrays.copyOf(baseCalculo, capacidade);
+        diaConstituicao = Arrays.copyOf(diaConstituicao, capacidade);
+        mesConstituicao = Arrays.copyOf(mesConstituicao, capacidade);
+        tipoCredito = Arrays.copyOf(tipoCredito, capacidade);
+    }
+}
@@ -0,0 +1,75 @@
+package com.credit.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch para frequência aproximada de chaves String, com atualização conservadora
+ * (só sobem os contadores que estão no mínimo). A estimativa nunca fica abaixo da contagem real e
+ * passa dela em no máximo ~e/largura do total de eventos. Aceita incrementos concorrentes.
+ */
+public class CountMinSketch {
+
+    private final AtomicLongArray contadores;
+    private final int largura;
+    private final int profundidade;
+
+    public CountMinSketch(int largura, int profundidade) {
+        this.largura = Integer.highestOneBit(Math.max(16, largura - 1) << 1);
+        this.profundidade = Math.max(1, profundidade);
+        this.contadores = new AtomicLongArray(this.largura * this.profundidade);
+    }
+
+    /**
+     * Conta mais uma ocorrência da chave e devolve a frequência estimada já incluindo esta.
+     */
+    public long incrementar(String chave) {
+        return incrementar(chave, 1);
+    }
+
+    /**
+     * Conta {@code quantidade} ocorrências de uma vez (restauração de um ranking salvo).
+     */
+    public long incrementar(String chave, long quantidade) {
+        long hash = BloomFilter.hash64(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long minimo = Long.MAX_VALUE;
+        for (int linha = 0; linha < profundidade; linha++) {
+            minimo = Math.min(minimo, contadores.get(posicao(linha, h1, h2)));
+        }
+        long alvo = minimo + Math.max(1, quantidade);
+        for (int linha = 0; linha < profundidade; linha++) {
+            int posicao = posicao(linha, h1, h2);
+            long atual;
+            do {
+                atual = contadores.get(posicao);
+            } while (atual < alvo && !contadores.compareAndSet(posicao, atual, alvo));
+        }
+        return alvo;
+    }
+
+    public long estimar(String chave) {
+        long hash = BloomFilter.hash64(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long minimo = Long.MAX_VALUE;
+        for (int linha = 0; linha < profundidade; linha++) {
+            minimo = Math.min(minimo, contadores.get(posicao(linha, h1, h2)));
+        }
+        return minimo;
+    }
+
+    /**
+     * Divide todos os contadores por dois, para que a frequência reflita o tráfego recente.
+     */
+    public void envelhecer() {
+        for (int i = 0; i < contadores.length(); i++) {
+            contadores.updateAndGet(i, valor -> valor >>> 1);
+        }
+    }
+
+    private int posicao(int linha, int h1, int h2) {
+        return linha * largura + ((h1 + linha * h2) & (largura - 1));
+    }
+}
@@ -0,0 +1,158 @@
+package com.credit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.credit.dto.CreditoDTO;
+
+/**
+ * Cache read-through de dois níveis para as consultas de créditos.
+ * O primeiro nível é local (TTL + limite de entradas); o segundo é opcional
+ * e fornecido por um {@link CacheStore}.
+ * Chaves invalidadas ficam marcadas por {@code janela-primario-ms}: recarregá-las da réplica, que
+ * pode ainda não ter a alteração, devolveria a linha antiga ao cache por um TTL inteiro.
+ */
+@Component
+public class CreditoCache {
+
+    private static final String PREFIXO_NFSE = "creditos:nfse:";
+    private static final String PREFIXO_CREDITO = "creditos:credito:";
+
+    private final Cache<String, List<CreditoDTO>> porNumeroNfse;
+    private final Cache<String, CreditoDTO> porNumeroCredito;
+    private final CacheStore segundoNivel;
+    private final Duration ttlSegundoNivel;
+    private final Cache<String, Boolean> invalidadasRecentemente;
+
+    public CreditoCache(@Value("${app.cache.creditos.ttl:300}") long ttlSegundos,
+                        @Value("${app.cache.creditos.max-entries:1000}") long maxEntries,
+                        @Value("${app.cache.creditos.segundo-nivel.ttl:1800}") long ttlSegundoNivelSegundos,
+                        @Value("${app.cache.creditos.janela-primario-ms:5000}") long janelaPrimarioMs,
+                        Optional<CacheStore> segundoNivel) {
+        this.porNumeroNfse = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        this.porNumeroCredito = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        this.segundoNivel = segundoNivel.orElse(null);
+        this.ttlSegundoNivel = Duration.ofSeconds(ttlSegundoNivelSegundos);
+        this.invalidadasRecentemente = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(janelaPrimarioMs))
+                .maximumSize(maxEntries * 2)
+                .build();
+    }
+
+    public CreditoDTO buscarPorNumeroCredito(String numeroCredito, Function<String, CreditoDTO> loader) {
+        return buscar(porNumeroCredito, PREFIXO_CREDITO, numeroCredito, loader);
+    }
+
+    /**
+     * Consulta os dois níveis sem carregar do banco; null se a chave não estiver em cache.
+     */
+    public List<CreditoDTO> getNumeroNfse(String numeroNfse) {
+        return get(porNumeroNfse, PREFIXO_NFSE, numeroNfse);
+    }
+
+    public CreditoDTO getNumeroCredito(String numeroCredito) {
+        return get(porNumeroCredito, PREFIXO_CREDITO, numeroCredito);
+    }
+
+    public void putNumeroNfse(String numeroNfse, List<CreditoDTO> creditos) {
+        put(porNumeroNfse, PREFIXO_NFSE, numeroNfse, creditos);
+    }
+
+    public void putNumeroCredito(String numeroCredito, CreditoDTO credito) {
+        put(porNumeroCredito, PREFIXO_CREDITO, numeroCredito, credito);
+    }
+
+    public void evictNumeroNfse(String numeroNfse) {
+        invalidadasRecentemente.put(PREFIXO_NFSE + numeroNfse, Boolean.TRUE);
+        porNumeroNfse.invalidate(numeroNfse);
+        if (segundoNivel != null) {
+            segundoNivel.evict(PREFIXO_NFSE + numeroNfse);
+        }
+    }
+
+    public void evictNumeroCredito(String numeroCredito) {
+        invalidadasRecentemente.put(PREFIXO_CREDITO + numeroCredito, Boolean.TRUE);
+        porNumeroCredito.invalidate(numeroCredito);
+        if (segundoNivel != null) {
+            segundoNivel.evict(PREFIXO_CREDITO + numeroCredito);
+        }
+    }
+
+    /**
+     * Se a NFS-e foi invalidada há menos de {@code janela-primario-ms}: a recarga deve ler do primário.
+     */
+    public boolean isInvalidadaRecentementeNfse(String numeroNfse) {
+        return invalidadasRecentemente.getIfPresent(PREFIXO_NFSE + numeroNfse) != null;
+    }
+
+    public boolean isInvalidadoRecentementeCredito(String numeroCredito) {
+        return invalidadasRecentemente.getIfPresent(PREFIXO_CREDITO + numeroCredito) != null;
+    }
+
+    public Cache<String, List<CreditoDTO>> getCacheNumeroNfse() {
+        return porNumeroNfse;
+    }
+
+    public Cache<String, CreditoDTO> getCacheNumeroCredito() {
+        return porNumeroCredito;
+    }
+
+    /**
+     * Resultados nulos ou listas vazias não são armazenados: misses continuam indo ao banco.
+     */
+    private <V> V buscar(Cache<String, V> local, String prefixo, String chave, Function<String, V> loader) {
+        V valor = get(local, prefixo, chave);
+        if (valor != null) {
+            return valor;
+        }
+
+        valor = loader.apply(chave);
+        return put(local, prefixo, chave, valor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V get(Cache<String, V> local, String prefixo, String chave) {
+        V valor = local.getIfPresent(chave);
+        if (valor != null || segundoNivel == null) {
+            return valor;
+        }
+
+        Optional<Object> remoto = segundoNivel.get(prefixo + chave);
+        if (remoto.isPresent()) {
+            valor = (V) remoto.get();
+            local.put(chave, valor);
+        }
+        return valor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V put(Cache<String, V> local, String prefixo, String chave, V valor) {
+        if (valor == null || (valor instanceof List && ((List<?>) valor).isEmpty())) {
+            return valor;
+        }
+        if (valor instanceof List) {
+            valor = (V) Collections.unmodifiableList((List<?>) valor);
+        }
+
+        local.put(chave, valor);
+        if (segundoNivel != null) {
+            segundoNivel.put(prefixo + chave, valor, ttlSegundoNivel);
+        }
+        return valor;
+    }
+}
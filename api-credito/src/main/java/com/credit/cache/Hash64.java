@@ -0,0 +1,27 @@
+package com.credit.cache;
+
+/**
+ * Hash de 64 bits usado pelo filtro de Bloom, pelo count-min sketch e pelos ETags: FNV-1a
+ * acumulado byte a byte, com o finalizador (fmix64) do MurmurHash3 para espalhar os bits.
+ */
+public final class Hash64 {
+
+    public static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    public static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hash64() {
+    }
+
+    public static long fnv1a(long hash, int octeto) {
+        return (hash ^ octeto) * FNV_PRIME;
+    }
+
+    public static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,53 @@
+package com.credit.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementação em memória do segundo nível, usada em testes e ambientes locais
+ * no lugar de um cache distribuído.
+ */
+public class InMemoryCacheStore implements CacheStore {
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Object> get(String chave) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        // Diferença, não comparação direta: nanoTime pode ser negativo ou dar a volta
+        if (System.nanoTime() - entrada.expiraEm > 0) {
+            entradas.remove(chave, entrada);
+            return Optional.empty();
+        }
+        return Optional.of(entrada.valor);
+    }
+
+    @Override
+    public void put(String chave, Object valor, Duration ttl) {
+        entradas.put(chave, new Entrada(valor, System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public void evict(String chave) {
+        entradas.remove(chave);
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    private static final class Entrada {
+        private final Object valor;
+        private final long expiraEm;
+
+        private Entrada(Object valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.credit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.credit.repository.CreditoAuditoriaRepository;
+import com.credit.repository.CreditoJdbcRepository;
+
+/**
+ * Cache negativo das consultas: evita ir ao banco para chaves que sabidamente não existem.
+ * Combina um filtro de Bloom montado a partir das chaves da tabela credito (reconstruído
+ * periodicamente) com um conjunto de misses recentes de TTL curto.
+ * <p>
+ * Entre reconstruções, créditos novos entram no filtro por {@link #registrarCredito} (eventos de
+ * creditos-eventos e a importação). Se esse caminho não está garantido (invalidação por eventos
+ * desligada ou atrasada mais que {@code bloom.atraso-maximo-ms}), o filtro deixa de responder
+ * "ausente" e as consultas vão ao banco, para não devolver 404 para um crédito que já existe.
+ * Um fluxo parado não tem atraso a medir: por isso o maior id de credito_auditoria é conferido a
+ * cada {@code bloom.verificacao-eventos-ms} contra o último id aplicado aqui (por evento ou pela
+ * varredura), e um fluxo parado conta como eventos desligados.
+ */
+@Slf4j
+@Component
+public class NegativeCreditoCache {
+
+    private static final double PROBABILIDADE_FALSO_POSITIVO = 0.01;
+
+    @Autowired(required = false)
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Autowired(required = false)
+    private CreditoAuditoriaRepository creditoAuditoriaRepository;
+
+    @Value("${app.kafka.eventos.invalidacao.enabled:true}")
+    private boolean invalidacaoPorEventos = true;
+
+    @Value("${app.cache.creditos.negativo.bloom.atraso-maximo-ms:30000}")
+    private long atrasoMaximoMs = 30000;
+
+    @Value("${app.cache.creditos.negativo.bloom.rebuild-interval-ms:300000}")
+    private long intervaloReconstrucaoMs = 300000;
+
+    @Value("${app.cache.creditos.negativo.bloom.verificacao-eventos-ms:5000}")
+    private long verificacaoEventosMs = 5000;
+
+    private final Cache<String, Boolean> missesNumeroNfse;
+    private final Cache<String, Boolean> missesNumeroCredito;
+    private final boolean bloomHabilitado;
+
+    private volatile BloomFilter bloomNumeroNfse;
+    private volatile BloomFilter bloomNumeroCredito;
+    // Início (epoch ms) da varredura que montou o filtro atual
+    private volatile long bloomMontadoEm;
+    // Atraso do último evento de creditos-eventos aplicado; sem eventos fica o último valor medido
+    private volatile long atrasoEventosMs;
+    // Maior id de credito_auditoria coberto: pelos eventos aplicados ou pela última varredura
+    private final AtomicLong ultimoIdAplicado = new AtomicLong();
+    // Última verificação do fluxo (epoch ms) e desde quando a auditoria está à frente do aplicado (0: em dia)
+    private volatile long fluxoVerificadoEm;
+    private volatile long fluxoAtrasadoDesde;
+
+    // Créditos registrados enquanto uma reconstrução varre a tabela, aplicados ao filtro novo antes da troca
+    private final Object registro = new Object();
+    private List<String[]> registradosDuranteReconstrucao;
+
+    public NegativeCreditoCache(@Value("${app.cache.creditos.negativo.ttl:30}") long ttlSegundos,
+                                @Value("${app.cache.creditos.negativo.max-entries:10000}") long maxEntries,
+                                @Value("${app.cache.creditos.negativo.bloom.enabled:true}") boolean bloomHabilitado) {
+        this.missesNumeroNfse = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(maxEntries)
+                .build();
+        this.missesNumeroCredito = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(maxEntries)
+                .build();
+        this.bloomHabilitado = bloomHabilitado;
+    }
+
+    public boolean isAusenteNumeroNfse(String numeroNfse) {
+        return isAusente(numeroNfse, missesNumeroNfse, bloomNumeroNfse);
+    }
+
+    public boolean isAusenteNumeroCredito(String numeroCredito) {
+        return isAusente(numeroCredito, missesNumeroCredito, bloomNumeroCredito);
+    }
+
+    /**
+     * Eventos de creditos-eventos aplicados nesta instância: maior id de auditoria entre eles e
+     * atraso, em ms, entre a alteração no banco e a aplicação.
+     */
+    public void registrarEventos(long ultimoAuditoriaId, long atrasoMs) {
+        atrasoEventosMs = Math.max(0, atrasoMs);
+        ultimoIdAplicado.accumulateAndGet(ultimoAuditoriaId, Math::max);
+    }
+
+    public void registrarMissNumeroNfse(String numeroNfse) {
+        missesNumeroNfse.put(numeroNfse, Boolean.TRUE);
+    }
+
+    public void registrarMissNumeroCredito(String numeroCredito) {
+        missesNumeroCredito.put(numeroCredito, Boolean.TRUE);
+    }
+
+    /**
+     * Deve ser chamado quando um crédito passa a existir, para que a chave deixe de ser tratada como miss.
+     */
+    public void registrarCredito(String numeroNfse, String numeroCredito) {
+        synchronized (registro) {
+            BloomFilter nfse = bloomNumeroNfse;
+            BloomFilter credito = bloomNumeroCredito;
+            if (nfse != null) {
+                nfse.put(numeroNfse);
+            }
+            if (credito != null) {
+                credito.put(numeroCredito);
+            }
+            if (registradosDuranteReconstrucao != null) {
+                registradosDuranteReconstrucao.add(new String[] {numeroNfse, numeroCredito});
+            }
+        }
+        missesNumeroNfse.invalidate(numeroNfse);
+        missesNumeroCredito.invalidate(numeroCredito);
+    }
+
+    @Scheduled(initialDelayString = "${app.cache.creditos.negativo.bloom.initial-delay-ms:0}",
+            fixedDelayString = "${app.cache.creditos.negativo.bloom.rebuild-interval-ms:300000}")
+    public void reconstruirBloom() {
+        if (!bloomHabilitado || creditoJdbcRepository == null) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        long montadoEm = System.currentTimeMillis();
+        synchronized (registro) {
+            registradosDuranteReconstrucao = new ArrayList<>();
+        }
+        try {
+            // Lido antes da varredura: toda alteração até este id já está na tabela que ela percorre
+            long ultimoIdAuditoria = creditoAuditoriaRepository != null ? creditoAuditoriaRepository.buscarUltimoIdAuditoria() : 0;
+            long esperado = Math.max(1000, (long) (creditoJdbcRepository.contar() * 1.2));
+            BloomFilter nfse = new BloomFilter(esperado, PROBABILIDADE_FALSO_POSITIVO);
+            BloomFilter credito = new BloomFilter(esperado, PROBABILIDADE_FALSO_POSITIVO);
+            creditoJdbcRepository.percorrerChaves((numeroNfse, numeroCredito) -> {
+                nfse.put(numeroNfse);
+                credito.put(numeroCredito);
+            });
+
+            synchronized (registro) {
+                for (String[] registrado : registradosDuranteReconstrucao) {
+                    nfse.put(registrado[0]);
+                    credito.put(registrado[1]);
+                }
+                bloomNumeroNfse = nfse;
+                bloomNumeroCredito = credito;
+                bloomMontadoEm = montadoEm;
+            }
+            ultimoIdAplicado.accumulateAndGet(ultimoIdAuditoria, Math::max);
+            log.debug("Filtro de Bloom de créditos reconstruído em {} ms",
+                    Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao reconstruir o filtro de Bloom de créditos; mantendo o anterior", e);
+        } finally {
+            synchronized (registro) {
+                registradosDuranteReconstrucao = null;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.creditos.negativo.bloom.verificacao-eventos-ms:5000}")
+    public void verificarFluxoEventos() {
+        verificarFluxoEventos(System.currentTimeMillis());
+    }
+
+    void verificarFluxoEventos(long agora) {
+        if (!bloomHabilitado || !invalidacaoPorEventos || creditoAuditoriaRepository == null) {
+            return;
+        }
+        long ultimoIdAuditoria;
+        try {
+            ultimoIdAuditoria = creditoAuditoriaRepository.buscarUltimoIdAuditoria();
+        } catch (RuntimeException e) {
+            // Sem verificação o fluxo deixa de contar como em dia após verificacao-eventos-ms + atraso-maximo-ms
+            log.warn("Falha ao verificar o fluxo de creditos-eventos", e);
+            return;
+        }
+        if (ultimoIdAuditoria <= ultimoIdAplicado.get()) {
+            fluxoAtrasadoDesde = 0;
+        } else if (fluxoAtrasadoDesde == 0) {
+            fluxoAtrasadoDesde = agora;
+        }
+        fluxoVerificadoEm = agora;
+    }
+
+    private boolean isAusente(String chave, Cache<String, Boolean> misses, BloomFilter bloom) {
+        if (misses.getIfPresent(chave) != null) {
+            return true;
+        }
+        return bloom != null && isBloomConfiavel(System.currentTimeMillis()) && !bloom.mightContain(chave);
+    }
+
+    /**
+     * Sem eventos, o filtro só cobre o que a última varredura viu: vale por {@code atraso-maximo-ms}
+     * depois dela. Com eventos, vale enquanto eles chegam dentro desse atraso e as reconstruções
+     * não falham além de um intervalo. Com o fluxo parado, vale a regra sem eventos.
+     */
+    boolean isBloomConfiavel(long agora) {
+        long idade = agora - bloomMontadoEm;
+        if (!invalidacaoPorEventos || !isFluxoEventosEmDia(agora)) {
+            return idade <= atrasoMaximoMs;
+        }
+        return atrasoEventosMs <= atrasoMaximoMs && idade <= intervaloReconstrucaoMs + atrasoMaximoMs;
+    }
+
+    // Verificado há pouco e sem alterações na auditoria esperando evento há mais de atraso-maximo-ms
+    private boolean isFluxoEventosEmDia(long agora) {
+        long atrasadoDesde = fluxoAtrasadoDesde;
+        return agora - fluxoVerificadoEm <= verificacaoEventosMs + atrasoMaximoMs
+                && (atrasadoDesde == 0 || agora - atrasadoDesde <= atrasoMaximoMs);
+    }
+}
@@ -0,0 +1,35 @@
+package com.credit.cache;
+
+/**
+ * Corpo JSON já serializado de uma consulta, com a versão gzip quando o corpo passa do mínimo de
+ * compressão. O ETag identifica o conteúdo de que os bytes vieram.
+ */
+public final class RespostaSerializada {
+
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    public RespostaSerializada(String etag, byte[] json, byte[] gzip) {
+        this.etag = etag;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    /** null quando o corpo é pequeno demais para compensar a compressão (ou ela está desligada). */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    int tamanho() {
+        return json.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.credit.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Corpos JSON (e gzip) prontos das consultas de chaves quentes, para que a resposta não repita
+ * a serialização nem a compressão do server.compression a cada requisição. A entrada vale enquanto
+ * o ETag do conteúdo atual for o mesmo com que foi gerada: como o ETag é calculado dos DTOs em cache,
+ * qualquer alteração que chegue a eles (invalidação por evento, TTL) gera uma entrada nova. A
+ * invalidação por evento também remove a entrada, para liberar a memória na hora.
+ * Hits e serializações são expostos em {@code creditos.http.corpo-em-cache}.
+ */
+@Component
+public class RespostaSerializadaCache {
+
+    private static final String PREFIXO_NFSE = "nfse:";
+    private static final String PREFIXO_CREDITO = "credito:";
+
+    private final Cache<String, RespostaSerializada> respostas;
+    private final ObjectMapper objectMapper;
+    private final boolean gzipHabilitado;
+    private final int gzipMinimoBytes;
+
+    private final AtomicLong reaproveitadas = new AtomicLong();
+    private final AtomicLong serializadas = new AtomicLong();
+
+    public RespostaSerializadaCache(ObjectMapper objectMapper,
+                                    @Value("${app.http.corpo-em-cache.ttl:300}") long ttlSegundos,
+                                    @Value("${app.http.corpo-em-cache.max-bytes:67108864}") long maxBytes,
+                                    @Value("${app.http.corpo-em-cache.gzip.enabled:true}") boolean gzipHabilitado,
+                                    @Value("${app.http.corpo-em-cache.gzip.min-bytes:2048}") int gzipMinimoBytes,
+                                    Optional<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.gzipHabilitado = gzipHabilitado;
+        this.gzipMinimoBytes = gzipMinimoBytes;
+        this.respostas = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumWeight(maxBytes)
+                .weigher((String chave, RespostaSerializada resposta) -> resposta.tamanho())
+                .build();
+        meterRegistry.ifPresent(registry -> {
+            contador(registry, "reaproveitado", reaproveitadas);
+            contador(registry, "serializado", serializadas);
+        });
+    }
+
+    public RespostaSerializada obterNumeroNfse(String numeroNfse, String etag, Object corpo) {
+        return obter(PREFIXO_NFSE + numeroNfse, etag, corpo);
+    }
+
+    public RespostaSerializada obterNumeroCredito(String numeroCredito, String etag, Object corpo) {
+        return obter(PREFIXO_CREDITO + numeroCredito, etag, corpo);
+    }
+
+    public void evictNumeroNfse(String numeroNfse) {
+        respostas.invalidate(PREFIXO_NFSE + numeroNfse);
+    }
+
+    public void evictNumeroCredito(String numeroCredito) {
+        respostas.invalidate(PREFIXO_CREDITO + numeroCredito);
+    }
+
+    /**
+     * Duas requisições que erram ao mesmo tempo serializam as duas; a última gravação vence, e
+     * uma entrada de conteúdo antigo é só descartada na próxima comparação de ETag.
+     */
+    private RespostaSerializada obter(String chave, String etag, Object corpo) {
+        RespostaSerializada resposta = respostas.getIfPresent(chave);
+        if (resposta != null && resposta.getEtag().equals(etag)) {
+            reaproveitadas.incrementAndGet();
+            return resposta;
+        }
+
+        byte[] json = json(chave, corpo);
+        byte[] gzip = gzipHabilitado && json.length >= gzipMinimoBytes ? gzip(json, Deflater.BEST_COMPRESSION) : null;
+        resposta = new RespostaSerializada(etag, json, gzip);
+        respostas.put(chave, resposta);
+        serializadas.incrementAndGet();
+        return resposta;
+    }
+
+    /**
+     * Serializa sem guardar, para as consultas que não são quentes: o ETag forte impede o
+     * server.compression de comprimi-las, então a variante gzip (acima do mesmo mínimo) sai daqui,
+     * com o nível padrão de compressão porque é paga a cada requisição.
+     */
+    public RespostaSerializada serializar(String etag, Object corpo) {
+        byte[] json = json(etag, corpo);
+        byte[] gzip = gzipHabilitado && json.length >= gzipMinimoBytes ? gzip(json, Deflater.DEFAULT_COMPRESSION) : null;
+        return new RespostaSerializada(etag, json, gzip);
+    }
+
+    private byte[] json(String descricao, Object corpo) {
+        try {
+            return objectMapper.writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta de " + descricao, e);
+        }
+    }
+
+    // Comprimido uma vez por versão, o corpo em cache vale o nível máximo
+    static byte[] gzip(byte[] json, int nivel) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (OutputStream gzip = new GzipComNivel(saida, nivel)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private static void contador(MeterRegistry registry, String resultado, AtomicLong valor) {
+        FunctionCounter.builder("creditos.http.corpo-em-cache", valor, AtomicLong::get)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    private static class GzipComNivel extends GZIPOutputStream {
+
+        GzipComNivel(OutputStream saida, int nivel) throws IOException {
+            super(saida);
+            def.setLevel(nivel);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.credit.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de cargas concorrentes da mesma chave: a primeira thread executa a carga e as que
+ * chegarem enquanto ela está em andamento esperam o mesmo resultado (ou a mesma exceção), em vez
+ * de abrir cada uma sua consulta e sua conexão. Nada fica guardado depois que a carga termina.
+ * A memória é limitada a {@code max-chaves} cargas em andamento (acima disso a carga roda sem
+ * coalescer) e quem espera desiste após {@code timeout-ms}.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private final int maxChaves;
+    private final long timeoutMs;
+
+    public SingleFlight(@Value("${app.coalescencia.max-chaves:10000}") int maxChaves,
+                        @Value("${app.coalescencia.timeout-ms:5000}") long timeoutMs) {
+        this.maxChaves = maxChaves;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V executar(String chave, Supplier<V> carga) {
+        CompletableFuture<Object> existente = emAndamento.get(chave);
+        if (existente != null) {
+            return (V) aguardar(chave, existente);
+        }
+        if (emAndamento.size() >= maxChaves) {
+            return carga.get();
+        }
+
+        CompletableFuture<Object> proprio = new CompletableFuture<>();
+        existente = emAndamento.putIfAbsent(chave, proprio);
+        if (existente != null) {
+            return (V) aguardar(chave, existente);
+        }
+        try {
+            V valor = carga.get();
+            proprio.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            proprio.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, proprio);
+        }
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.size();
+    }
+
+    private Object aguardar(String chave, CompletableFuture<Object> carga) {
+        try {
+            return carga.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IllegalStateException(causa);
+        } catch (TimeoutException e) {
+            throw new DataAccessResourceFailureException("Tempo esgotado aguardando a consulta em andamento de " + chave, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrompido aguardando a consulta em andamento de " + chave, e);
+        }
+    }
+}
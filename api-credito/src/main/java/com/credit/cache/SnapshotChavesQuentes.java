@@ -0,0 +1,169 @@
+package com.credit.cache;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.credit.dto.ChaveQuenteDTO;
+
+/**
+ * Ranking de {@link ChavesQuentes} gravado em disco para o aquecimento da próxima subida. Só as
+ * chaves e estimativas vão para o arquivo, não os créditos: os valores são relidos do banco, então
+ * o que mudou com a instância parada (eventos de invalidação não são relidos) não volta velho.
+ * <p>
+ * Arquivo mapeado em memória: cabeçalho (magic, versão, gravação em epoch ms, quantidade de NFS-e e
+ * de créditos), as entradas (estimativa, tamanho e a chave em UTF-8) e um CRC32 de tudo que vem
+ * antes. A gravação vai para um {@code .tmp} renomeado no fim, para que uma parada no meio não
+ * deixe um snapshot truncado.
+ */
+public final class SnapshotChavesQuentes {
+
+    private static final int MAGIC = 0x43524351; // "CRCQ"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 8 + 4 + 4;
+    private static final int TAMANHO_MAXIMO_CHAVE = Short.MAX_VALUE;
+
+    private final Instant geradoEm;
+    private final List<ChaveQuenteDTO> numerosNfse;
+    private final List<ChaveQuenteDTO> numerosCredito;
+
+    public SnapshotChavesQuentes(Instant geradoEm, List<ChaveQuenteDTO> numerosNfse, List<ChaveQuenteDTO> numerosCredito) {
+        this.geradoEm = geradoEm;
+        this.numerosNfse = Collections.unmodifiableList(new ArrayList<>(numerosNfse));
+        this.numerosCredito = Collections.unmodifiableList(new ArrayList<>(numerosCredito));
+    }
+
+    public static SnapshotChavesQuentes de(ChavesQuentes chavesQuentes) {
+        return new SnapshotChavesQuentes(Instant.now(), chavesQuentes.getNumerosNfse(), chavesQuentes.getNumerosCredito());
+    }
+
+    public Instant getGeradoEm() {
+        return geradoEm;
+    }
+
+    public List<ChaveQuenteDTO> getNumerosNfse() {
+        return numerosNfse;
+    }
+
+    public List<ChaveQuenteDTO> getNumerosCredito() {
+        return numerosCredito;
+    }
+
+    public boolean isVazio() {
+        return numerosNfse.isEmpty() && numerosCredito.isEmpty();
+    }
+
+    public void gravar(Path arquivo) throws IOException {
+        List<byte[]> chavesNfse = codificar(numerosNfse);
+        List<byte[]> chavesCredito = codificar(numerosCredito);
+        long tamanho = TAMANHO_CABECALHO + tamanhoEntradas(chavesNfse) + tamanhoEntradas(chavesCredito) + 4;
+
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+            buffer.putInt(MAGIC)
+                    .putInt(VERSAO)
+                    .putLong(geradoEm.toEpochMilli())
+                    .putInt(numerosNfse.size())
+                    .putInt(numerosCredito.size());
+            escreverEntradas(buffer, numerosNfse, chavesNfse);
+            escreverEntradas(buffer, numerosCredito, chavesCredito);
+            buffer.putInt((int) crc(buffer, buffer.position()));
+            buffer.force();
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lança IOException se o arquivo não for um snapshot íntegro desta versão.
+     */
+    public static SnapshotChavesQuentes ler(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO + 4 || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot de chaves quentes com tamanho inválido: " + tamanho + " bytes");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            int fimConteudo = (int) tamanho - 4;
+            if (buffer.getInt(fimConteudo) != (int) crc(buffer, fimConteudo)) {
+                throw new IOException("Snapshot de chaves quentes corrompido (CRC)");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSAO) {
+                throw new IOException("Arquivo não é um snapshot de chaves quentes da versão " + VERSAO);
+            }
+            Instant geradoEm = Instant.ofEpochMilli(buffer.getLong());
+            int quantidadeNfse = buffer.getInt();
+            int quantidadeCredito = buffer.getInt();
+            List<ChaveQuenteDTO> numerosNfse = lerEntradas(buffer, quantidadeNfse, fimConteudo);
+            List<ChaveQuenteDTO> numerosCredito = lerEntradas(buffer, quantidadeCredito, fimConteudo);
+            return new SnapshotChavesQuentes(geradoEm, numerosNfse, numerosCredito);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Snapshot de chaves quentes truncado", e);
+        }
+    }
+
+    private static List<byte[]> codificar(List<ChaveQuenteDTO> chaves) {
+        List<byte[]> codificadas = new ArrayList<>(chaves.size());
+        for (ChaveQuenteDTO chave : chaves) {
+            byte[] bytes = chave.getChave().getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > TAMANHO_MAXIMO_CHAVE) {
+                throw new IllegalArgumentException("Chave grande demais para o snapshot: " + bytes.length + " bytes");
+            }
+            codificadas.add(bytes);
+        }
+        return codificadas;
+    }
+
+    private static long tamanhoEntradas(List<byte[]> chaves) {
+        long tamanho = 0;
+        for (byte[] chave : chaves) {
+            tamanho += 8 + 2 + chave.length;
+        }
+        return tamanho;
+    }
+
+    private static void escreverEntradas(MappedByteBuffer buffer, List<ChaveQuenteDTO> chaves, List<byte[]> codificadas) {
+        for (int i = 0; i < chaves.size(); i++) {
+            byte[] chave = codificadas.get(i);
+            buffer.putLong(chaves.get(i).getEstimativa()).putShort((short) chave.length).put(chave);
+        }
+    }
+
+    private static List<ChaveQuenteDTO> lerEntradas(MappedByteBuffer buffer, int quantidade, int fimConteudo)
+            throws IOException {
+        // Cada entrada tem ao menos 10 bytes: quantidade maior que isso não cabe no arquivo
+        if (quantidade < 0 || (long) quantidade * 10 > fimConteudo - buffer.position()) {
+            throw new IOException("Snapshot de chaves quentes com quantidade inválida: " + quantidade);
+        }
+        List<ChaveQuenteDTO> chaves = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long estimativa = buffer.getLong();
+            byte[] chave = new byte[buffer.getShort()];
+            buffer.get(chave);
+            chaves.add(new ChaveQuenteDTO(new String(chave, StandardCharsets.UTF_8), estimativa));
+        }
+        return chaves;
+    }
+
+    private static long crc(MappedByteBuffer buffer, int fim) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(fim));
+        return crc.getValue();
+    }
+}
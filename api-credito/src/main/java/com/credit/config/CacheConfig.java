@@ -0,0 +1,19 @@
+package com.credit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.credit.cache.CacheStore;
+import com.credit.cache.InMemoryCacheStore;
+
+@Configuration
+public class CacheConfig {
+
+    // Segundo nível do cache de créditos (desligado por padrão)
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.creditos.segundo-nivel.tipo", havingValue = "memory")
+    public CacheStore inMemoryCacheStore() {
+        return new InMemoryCacheStore();
+    }
+}
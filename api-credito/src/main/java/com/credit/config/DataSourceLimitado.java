@@ -0,0 +1,101 @@
+package com.credit.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+
+/**
+ * DataSource que só entrega uma conexão com uma permissão do semáforo, devolvida no
+ * {@code close()}. Quem não consegue a permissão em {@code esperaMaximaMs} recebe
+ * {@link SQLTransientConnectionException} (503 no {@link com.credit.exception.GlobalExceptionHandler}).
+ * O semáforo é justo e estaciona a thread sem prendê-la, o que importa com threads virtuais.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final int maxConcorrencia;
+    private final long esperaMaximaMs;
+
+    public DataSourceLimitado(DataSource alvo, int maxConcorrencia, long esperaMaximaMs) {
+        super(alvo);
+        this.permissoes = new Semaphore(maxConcorrencia, true);
+        this.maxConcorrencia = maxConcorrencia;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection(usuario, senha));
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    public int getPermissoesDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Limite de " + maxConcorrencia
+                        + " acessos simultâneos ao banco atingido (espera de " + esperaMaximaMs + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando acesso ao banco", e);
+        }
+    }
+
+    // close() repetido não faz nada: a permissão volta uma única vez
+    private Connection liberarAoFechar(Connection conexao) {
+        AtomicBoolean fechada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if ("close".equals(metodo.getName())) {
+                        if (fechada.compareAndSet(false, true)) {
+                            try {
+                                conexao.close();
+                            } finally {
+                                permissoes.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexao, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
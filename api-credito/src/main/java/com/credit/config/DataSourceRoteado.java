@@ -0,0 +1,38 @@
+package com.credit.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Encaminha as transações somente leitura ({@code @Transactional(readOnly = true)}, inclusive as
+ * dos repositórios Spring Data) para a réplica enquanto ela estiver dentro do atraso aceito; todo
+ * o resto, inclusive acesso fora de transação, vai ao primário. Precisa estar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: o gerenciador de
+ * transações pede a conexão antes de marcar a transação como somente leitura.
+ * Dentro de {@link RoteamentoLeitura#noPrimario} tudo vai ao primário.
+ */
+public class DataSourceRoteado extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIO, REPLICA }
+
+    private final MonitorAtrasoReplica monitor;
+
+    public DataSourceRoteado(DataSource primario, DataSource replica, MonitorAtrasoReplica monitor) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!RoteamentoLeitura.isPrimarioObrigatorio()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && monitor.isReplicaUtilizavel()) {
+            RoteamentoLeitura.registrarLeituraReplica();
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+}
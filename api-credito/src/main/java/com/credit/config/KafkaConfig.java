@@ -7,8 +7,11 @@ import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,10 +23,24 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.credit.event.ConsultaEvent;
+import com.credit.event.ConsultaEventDeserializer;
+import com.credit.event.ConsultaEventSerializer;
+import com.credit.event.CreditoAlteradoEvent;
+import com.credit.event.FormatoEvento;
+import com.credit.event.RoteamentoFalhas;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableKafka
@@ -35,6 +52,22 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.consultas.formato:BINARIO}")
+    private FormatoEvento formatoConsultas;
+
+    @Value("${app.kafka.consultas.consumidor.tentativas-lote:5}")
+    private long tentativasLoteConsultas = 5;
+
+    @Value("${app.kafka.admin.auto-create:true}")
+    private boolean autoCreateTopics;
+
+    @Autowired
+    private RoteamentoFalhas roteamentoFalhas;
+
+    // Métricas dos clientes Kafka (kafka.producer.* / kafka.consumer.*); ausente em testes sem Actuator
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
@@ -43,7 +76,7 @@ public class KafkaConfig {
         // Configurações básicas
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ConsultaEventSerializer.class);
 
         // Configurações de performance e confiabilidade
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -58,9 +91,18 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Eventos de consulta em binário (ou JSON legado); demais payloads em JSON
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new ConsultaEventSerializer(formatoConsultas));
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerProducerListener<>(registry)));
+        return factory;
     }
 
+    /**
+     * Latência e resultado de cada envio ficam no timer {@code spring.kafka.template}
+     * (tags {@code result=success|failure} e {@code exception}), registrado pelo próprio template.
+     */
+
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
@@ -68,12 +110,7 @@ public class KafkaConfig {
 
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
-        Map<String, Object> props = new HashMap<>();
-
-        // Configurações básicas
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        Map<String, Object> props = propriedadesConsumidor();
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
 
         // Configurações do JsonDeserializer
@@ -81,15 +118,7 @@ public class KafkaConfig {
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "java.util.Map");
 
-        // Configurações de comportamento
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
-        props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 3000);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
-        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
-
-        return new DefaultKafkaConsumerFactory<>(props);
+        return comMetricas(new DefaultKafkaConsumerFactory<>(props));
     }
 
     @Bean
@@ -104,12 +133,136 @@ public class KafkaConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         factory.getContainerProperties().setPollTimeout(3000);
 
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        // Sem retentativas no lugar: o registro com falha segue para o tópico de retry/DLQ e a partição não para
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recuperadorFalhas(), new FixedBackOff(0L, 0L)));
+
+        return factory;
+    }
+
+    /**
+     * Reencaminha registros com falha para {@code <tópico>-retry-N} ou para o creditos-dlq,
+     * com os headers de exceção (kafka_dlt-*) e os de tentativa do {@link RoteamentoFalhas}.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer recuperadorFalhas() {
+        DeadLetterPublishingRecoverer recuperador =
+                new DeadLetterPublishingRecoverer(kafkaTemplate(), roteamentoFalhas::destino);
+        recuperador.setHeadersFunction(roteamentoFalhas::cabecalhos);
+        // Mantém só os headers da falha mais recente (e o tópico/offset originais da primeira)
+        recuperador.setAppendOriginalHeaders(false);
+        recuperador.setStripPreviousExceptionHeaders(true);
+        return recuperador;
+    }
+
+    // Eventos de consulta (binário ou JSON legado); payload ilegível chega ao listener como null
+    @Bean
+    public ConsumerFactory<String, ConsultaEvent> consultasConsumerFactory() {
+        return comMetricas(new DefaultKafkaConsumerFactory<>(propriedadesConsumidor(), new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new ConsultaEventDeserializer())));
+    }
+
+    /**
+     * Listener em lote para os eventos de consulta: um poll inteiro (até max.poll.records) é
+     * entregue de uma vez e confirmado manualmente depois do flush no banco.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ConsultaEvent> consultasListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ConsultaEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consultasConsumerFactory());
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(3000);
+
+        // Falha no banco: o lote é reentregue algumas vezes (o controle de offsets evita contagem dupla);
+        // esgotadas as tentativas, cada registro segue para o tópico de retry e a partição não fica parada
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recuperadorFalhas(), new FixedBackOff(5000L, tentativasLoteConsultas)));
+
+        return factory;
+    }
+
+    // Alterações de crédito (JSON sem headers de tipo); payload ilegível chega ao listener como null
+    @Bean
+    public ConsumerFactory<String, CreditoAlteradoEvent> eventosInvalidacaoConsumerFactory() {
+        Map<String, Object> props = propriedadesConsumidor();
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return comMetricas(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(CreditoAlteradoEvent.class, false))));
+    }
+
+    /**
+     * Invalidação dos caches locais: lote por poll, sem retentativas (evict é idempotente e
+     * o TTL do cache cobre um evento perdido).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CreditoAlteradoEvent> eventosInvalidacaoListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CreditoAlteradoEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(eventosInvalidacaoConsumerFactory());
+        factory.setConcurrency(1);
+        factory.setBatchListener(true);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setPollTimeout(3000);
+
+        return factory;
+    }
+
+    // Leitura crua do creditos-dlq para o replay (o valor é reenviado como está)
+    @Bean
+    public ConsumerFactory<String, byte[]> dlqConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(propriedadesConsumidor(), new StringDeserializer(),
+                new ByteArrayDeserializer());
+    }
+
+    /**
+     * Consumidores dos tópicos de retry: um registro por vez, para que a espera de cada nível
+     * ({@code nack}) pause apenas o próprio tópico. Falhando de novo, vai para o próximo nível.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ConsultaEvent> consultasRetryListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ConsultaEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consultasConsumerFactory());
+        factory.setConcurrency(1);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(3000);
+
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recuperadorFalhas(), new FixedBackOff(0L, 0L)));
+
+        return factory;
+    }
 
+    private <K, V> ConsumerFactory<K, V> comMetricas(DefaultKafkaConsumerFactory<K, V> factory) {
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerConsumerListener<>(registry)));
         return factory;
     }
 
+    private Map<String, Object> propriedadesConsumidor() {
+        Map<String, Object> props = new HashMap<>();
+
+        // Configurações básicas
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        // Configurações de comportamento
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
+        props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 3000);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
+
+        return props;
+    }
+
     // ===============================
     // CONFIGURAÇÕES DE ADMIN (TÓPICOS)
     // ===============================
@@ -118,7 +271,9 @@ public class KafkaConfig {
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
         configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        return new KafkaAdmin(configs);
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(configs);
+        kafkaAdmin.setAutoCreate(autoCreateTopics);
+        return kafkaAdmin;
     }
 
     // Criação automática dos tópicos
@@ -161,6 +316,33 @@ public class KafkaConfig {
                 .build();
     }
 
+    // Tópicos de retry dos eventos de consulta (esperas de 1s, 5s e 25s por padrão)
+    @Bean
+    public NewTopic creditosConsultasRetry1Topic() {
+        return topicoRetry(1);
+    }
+
+    @Bean
+    public NewTopic creditosConsultasRetry2Topic() {
+        return topicoRetry(2);
+    }
+
+    @Bean
+    public NewTopic creditosConsultasRetry3Topic() {
+        return topicoRetry(3);
+    }
+
+    private NewTopic topicoRetry(int nivel) {
+        return TopicBuilder.name(RoteamentoFalhas.topicoRetry("creditos-consultas", nivel))
+                .partitions(1)
+                .replicas(1)
+                .configs(Map.of(
+                        "retention.ms", "604800000", // 7 dias
+                        "segment.ms", "86400000"     // 1 dia
+                ))
+                .build();
+    }
+
     // Topic para DLQ (Dead Letter Queue)
     @Bean
     public NewTopic creditosDlqTopic() {
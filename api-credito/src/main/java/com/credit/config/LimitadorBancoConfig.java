@@ -0,0 +1,35 @@
+package com.credit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+
+/**
+ * Limita quantas threads usam o banco ao mesmo tempo ({@code app.banco.limitador}). Com threads
+ * virtuais o número de requisições simultâneas não tem mais teto, e sem o limite todas ficariam
+ * na fila do Hikari até o connection-timeout; aqui o excedente espera pouco e recebe 503.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.banco.limitador.enabled", havingValue = "true")
+public class LimitadorBancoConfig {
+
+    @Bean
+    public static BeanPostProcessor limitadorBanco(
+            @Value("${app.banco.limitador.max-concorrencia:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcorrencia,
+            @Value("${app.banco.limitador.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Só os pools: proxies (como o roteamento para a réplica) delegam a eles e não contam de novo
+                if (bean instanceof DataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new DataSourceLimitado((DataSource) bean, maxConcorrencia, esperaMaximaMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
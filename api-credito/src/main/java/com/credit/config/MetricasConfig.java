@@ -0,0 +1,20 @@
+package com.credit.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Habilita o {@code @Timed} nos serviços e repositórios JDBC (os repositórios Spring Data já são
+ * medidos pelo Actuator em {@code spring.data.repository.invocations}).
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,97 @@
+package com.credit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Mede periodicamente o atraso de replicação da réplica de leitura. Acima de {@code atraso-maximo-ms},
+ * ou se a réplica não responder, as leituras voltam ao primário até a próxima medição dentro do limite.
+ * Começa sem usar a réplica até a primeira medição. No health a réplica aparece sempre UP (as
+ * leituras têm para onde ir), com o atraso e o destino atual nos detalhes.
+ */
+@Slf4j
+public class MonitorAtrasoReplica implements HealthIndicator {
+
+    // O registry depende do pool de conexões (métricas do Hikari), que depende deste monitor: só é
+    // resolvido com a aplicação no ar
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String consultaAtraso;
+    private final long atrasoMaximoMs;
+
+    private volatile boolean replicaUtilizavel;
+    private volatile double atrasoMs = -1;
+
+    public MonitorAtrasoReplica(DataSource replica, String consultaAtraso, long atrasoMaximoMs, int timeoutSegundos) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout(timeoutSegundos);
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximoMs = atrasoMaximoMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("creditos.banco.replica.atraso", this, MonitorAtrasoReplica::getAtrasoMs)
+                    .description("Atraso de replicação medido na réplica de leitura, em ms (-1 se indisponível)")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("creditos.banco.replica.em-uso", this, monitor -> monitor.isReplicaUtilizavel() ? 1 : 0)
+                    .description("1 se as leituras estão indo para a réplica, 0 se voltaram ao primário")
+                    .register(registry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.banco.replica.intervalo-verificacao-ms:1000}")
+    public void verificar() {
+        boolean utilizavel;
+        try {
+            Number atraso = jdbcTemplate.queryForObject(consultaAtraso, Number.class);
+            atrasoMs = atraso != null ? atraso.doubleValue() : 0;
+            utilizavel = atrasoMs <= atrasoMaximoMs;
+            if (!utilizavel && replicaUtilizavel) {
+                log.warn("Réplica com {} ms de atraso (máximo {} ms): leituras voltam ao primário", (long) atrasoMs, atrasoMaximoMs);
+            }
+        } catch (RuntimeException e) {
+            atrasoMs = -1;
+            utilizavel = false;
+            if (replicaUtilizavel) {
+                log.warn("Réplica indisponível, leituras voltam ao primário: {}", e.getMessage());
+            }
+        }
+        if (utilizavel && !replicaUtilizavel) {
+            log.info("Leituras encaminhadas à réplica (atraso {} ms)", (long) atrasoMs);
+        }
+        replicaUtilizavel = utilizavel;
+    }
+
+    public boolean isReplicaUtilizavel() {
+        return replicaUtilizavel;
+    }
+
+    public double getAtrasoMs() {
+        return atrasoMs;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("atrasoMs", (long) atrasoMs)
+                .withDetail("atrasoMaximoMs", atrasoMaximoMs)
+                .withDetail("leituras", replicaUtilizavel ? "replica" : "primario")
+                .build();
+    }
+}
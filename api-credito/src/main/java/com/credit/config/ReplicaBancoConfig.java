@@ -0,0 +1,69 @@
+package com.credit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+
+/**
+ * Réplica de leitura ({@code app.banco.replica}): dois pools Hikari, o primário com as mesmas
+ * propriedades {@code spring.datasource.*} de sempre e o da réplica com {@code app.banco.replica.*},
+ * atrás de um {@link DataSourceRoteado}. O health "db" passa a verificar só o primário; a réplica
+ * tem o seu próprio ("replica") com o atraso medido.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.banco.replica.enabled", havingValue = "true")
+public class ReplicaBancoConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.banco.replica.hikari")
+    public HikariDataSource dataSourceReplica(DataSourceProperties properties,
+                                              @Value("${app.banco.replica.url}") String url,
+                                              @Value("${app.banco.replica.username:${spring.datasource.username:}}") String usuario,
+                                              @Value("${app.banco.replica.password:${spring.datasource.password:}}") String senha) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(url);
+        replica.setUsername(usuario);
+        replica.setPassword(senha);
+        return replica;
+    }
+
+    @Bean
+    public MonitorAtrasoReplica replicaHealthIndicator(
+            @Qualifier("dataSourceReplica") DataSource replica,
+            @Value("${app.banco.replica.consulta-atraso}") String consultaAtraso,
+            @Value("${app.banco.replica.atraso-maximo-ms:1000}") long atrasoMaximoMs,
+            @Value("${app.banco.replica.timeout-verificacao-s:1}") int timeoutSegundos) {
+        return new MonitorAtrasoReplica(replica, consultaAtraso, atrasoMaximoMs, timeoutSegundos);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 MonitorAtrasoReplica monitor) {
+        DataSourceRoteado roteado = new DataSourceRoteado(primario, replica, monitor);
+        roteado.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteado);
+    }
+
+    @Bean
+    public DataSourceHealthIndicator dbHealthContributor(@Qualifier("dataSourcePrimario") DataSource primario) {
+        return new DataSourceHealthIndicator(primario);
+    }
+}
@@ -0,0 +1,64 @@
+package com.credit.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Exceções ao roteamento do {@link DataSourceRoteado} para as leituras que alimentam os caches:
+ * forçar o primário e saber se uma leitura foi servida pela réplica (que pode estar até
+ * {@code atraso-maximo-ms} atrás). Vale para a thread atual e só para conexões abertas dentro do
+ * bloco, o que com o {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * inclui as transações iniciadas nele. Sem réplica configurada tudo já vai ao primário.
+ */
+public final class RoteamentoLeitura {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+    private static final ThreadLocal<boolean[]> USOU_REPLICA = new ThreadLocal<>();
+
+    private RoteamentoLeitura() {
+    }
+
+    public static <T> T noPrimario(Supplier<T> leitura) {
+        Boolean anterior = PRIMARIO.get();
+        PRIMARIO.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            if (anterior == null) {
+                PRIMARIO.remove();
+            } else {
+                PRIMARIO.set(anterior);
+            }
+        }
+    }
+
+    /**
+     * Executa a leitura e devolve true se alguma conexão dela foi para a réplica.
+     */
+    public static boolean usouReplica(Runnable leitura) {
+        boolean[] anterior = USOU_REPLICA.get();
+        boolean[] usou = {false};
+        USOU_REPLICA.set(usou);
+        try {
+            leitura.run();
+        } finally {
+            if (anterior == null) {
+                USOU_REPLICA.remove();
+            } else {
+                USOU_REPLICA.set(anterior);
+                anterior[0] |= usou[0];
+            }
+        }
+        return usou[0];
+    }
+
+    static boolean isPrimarioObrigatorio() {
+        return PRIMARIO.get() != null;
+    }
+
+    static void registrarLeituraReplica() {
+        boolean[] usou = USOU_REPLICA.get();
+        if (usou != null) {
+            usou[0] = true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.credit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Profile {@code virtual-threads}: cada requisição do Tomcat (e cada resposta assíncrona do MVC,
+ * como a exportação) roda em uma thread virtual, então esperar o banco ou o Kafka não prende uma
+ * thread de plataforma e o teto deixa de ser {@code server.tomcat.threads.max}. O acesso ao banco
+ * passa a ser limitado pelo {@link LimitadorBancoConfig}, habilitado no mesmo profile.
+ * Exige JDK 21+ em tempo de execução; o código segue compilando para Java 11, por isso a fábrica
+ * de threads virtuais é obtida por reflexão.
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class ThreadsVirtuaisConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService executorThreadsVirtuais() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Requisições em threads virtuais (JDK {})", Runtime.version());
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("O profile virtual-threads exige JDK 21 ou superior (atual: "
+                    + Runtime.version() + ")", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> threadsVirtuaisTomcat(ExecutorService executorThreadsVirtuais) {
+        return protocolHandler -> protocolHandler.setExecutor(executorThreadsVirtuais);
+    }
+
+    // Substitui o pool do Spring Boot usado pelo MVC em StreamingResponseBody
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService executorThreadsVirtuais) {
+        return new TaskExecutorAdapter(executorThreadsVirtuais);
+    }
+}
@@ -0,0 +1,34 @@
+package com.credit.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+
+import com.credit.cache.Agrupamento;
+import com.credit.dto.TotaisAnaliticosDTO;
+import com.credit.service.AnaliticoService;
+
+/**
+ * Totais para painéis, calculados no snapshot em memória (app.analitico.snapshot.enabled).
+ */
+@RestController
+@RequestMapping("/api/creditos/analitico")
+@ConditionalOnProperty(name = "app.analitico.snapshot.enabled", havingValue = "true")
+public class AnaliticoController {
+
+    @Autowired
+    private AnaliticoService analiticoService;
+
+    @GetMapping("/totais")
+    public ResponseEntity<TotaisAnaliticosDTO> totais(
+            @RequestParam(defaultValue = "TIPO_CREDITO") Agrupamento agrupamento,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String tipoCredito,
+            @RequestParam(required = false) Boolean simplesNacional) {
+        return ResponseEntity.ok(analiticoService.totalizar(agrupamento, dataInicio, dataFim, tipoCredito, simplesNacional));
+    }
+}
@@ -0,0 +1,31 @@
+package com.credit.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.credit.cache.ChavesQuentes;
+import com.credit.dto.ChaveQuenteDTO;
+
+/**
+ * GET /actuator/chavesquentes: NFS-e e números de crédito mais consultados (estimativa recente).
+ */
+@Component
+@Endpoint(id = "chavesquentes")
+public class ChavesQuentesEndpoint {
+
+    @Autowired
+    private ChavesQuentes chavesQuentes;
+
+    @ReadOperation
+    public Map<String, List<ChaveQuenteDTO>> chavesQuentes() {
+        Map<String, List<ChaveQuenteDTO>> resposta = new LinkedHashMap<>();
+        resposta.put("numerosNfse", chavesQuentes.getNumerosNfse());
+        resposta.put("numerosCredito", chavesQuentes.getNumerosCredito());
+        return resposta;
+    }
+}
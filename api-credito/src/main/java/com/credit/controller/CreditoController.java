@@ -1,11 +1,32 @@
 package com.credit.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.credit.cache.ChavesQuentes;
+import com.credit.cache.RespostaSerializada;
+import com.credit.cache.RespostaSerializadaCache;
+import com.credit.dto.ConsultaLoteRequestDTO;
+import com.credit.dto.ConsultaLoteResponseDTO;
 import com.credit.dto.CreditoDTO;
+import com.credit.dto.ImportacaoResultadoDTO;
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.dto.ResumoNfseDTO;
+import com.credit.repository.CampoBusca;
+import com.credit.repository.ModoBusca;
+import com.credit.service.CreditoBuscaService;
+import com.credit.service.CreditoImportacaoService;
 import com.credit.service.CreditoService;
 
 @RestController
@@ -13,18 +34,204 @@ import com.credit.service.CreditoService;
 @CrossOrigin(origins = "*")
 public class CreditoController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String TEXT_CSV = "text/csv";
+    static final String HEADER_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
     @Autowired
     private CreditoService creditoService;
 
+    @Autowired
+    private CreditoImportacaoService creditoImportacaoService;
+
+    @Autowired
+    private CreditoBuscaService creditoBuscaService;
+
+    @Autowired
+    private ChavesQuentes chavesQuentes;
+
+    @Autowired
+    private RespostaSerializadaCache respostaSerializadaCache;
+
+    @Value("${app.http.cache.max-age:60}")
+    private long maxAgeSegundos = 60;
+
+    @Value("${app.http.cache.publico:true}")
+    private boolean cachePublico = true;
+
+    /**
+     * O corpo continua sendo a lista de créditos; quando há mais páginas, o cursor da próxima
+     * vem no header {@value #HEADER_PROXIMO_CURSOR} e deve ser repassado em {@code ?cursor=}.
+     * As consultas GET levam ETag e Cache-Control: com If-None-Match igual, o Spring responde 304
+     * sem serializar o corpo. Para NFS-e quentes a consulta sem cursor nem limite sai dos bytes
+     * prontos do {@link RespostaSerializadaCache}.
+     */
     @GetMapping("/{numeroNfse}")
-    public ResponseEntity<List<CreditoDTO>> buscarPorNumeroNfse(@PathVariable String numeroNfse) {
-        List<CreditoDTO> creditos = creditoService.buscarPorNumeroNfse(numeroNfse);
-        return ResponseEntity.ok(creditos);
+    public ResponseEntity<?> buscarPorNumeroNfse(@PathVariable String numeroNfse,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limite,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                 String acceptEncoding,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
+        PaginaCreditosDTO pagina = creditoService.buscarPaginaPorNumeroNfse(numeroNfse, cursor, limite);
+        String etag = Etags.de(pagina.getCreditos(), pagina.getProximoCursor());
+        if (cursor == null && limite == null && chavesQuentes.isNumeroNfseQuente(numeroNfse)) {
+            RespostaSerializada corpo = respostaSerializadaCache.obterNumeroNfse(numeroNfse, etag, pagina.getCreditos());
+            return corpoPronto(corpo, pagina.getProximoCursor(), acceptEncoding, ifNoneMatch);
+        }
+        if (comprimir(etag, acceptEncoding, ifNoneMatch)) {
+            RespostaSerializada corpo = respostaSerializadaCache.serializar(etag, pagina.getCreditos());
+            return corpoPronto(corpo, pagina.getProximoCursor(), acceptEncoding, ifNoneMatch);
+        }
+        ResponseEntity.BodyBuilder resposta = ok(Etags.paraResposta(etag, false, ifNoneMatch))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (pagina.getProximoCursor() != null) {
+            resposta.header(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+        }
+        return resposta.body(pagina.getCreditos());
+    }
+
+    /**
+     * Busca por prefixo (padrão) ou trecho do número da NFS-e ou do crédito, com os mesmos
+     * cursor/limite e header {@value #HEADER_PROXIMO_CURSOR} da consulta por NFS-e.
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<List<CreditoDTO>> buscar(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "NFSE") CampoBusca campo,
+            @RequestParam(defaultValue = "PREFIXO") ModoBusca modo,
+            @RequestParam(required = false) String tipoCredito,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        PaginaCreditosDTO pagina = creditoBuscaService.buscar(termo, campo, modo, tipoCredito, dataInicio, dataFim,
+                cursor, limite);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            resposta.header(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+        }
+        return resposta.body(pagina.getCreditos());
+    }
+
+    @GetMapping("/resumo/{numeroNfse}")
+    public ResponseEntity<ResumoNfseDTO> buscarResumoPorNumeroNfse(@PathVariable String numeroNfse) {
+        ResumoNfseDTO resumo = creditoService.buscarResumoPorNumeroNfse(numeroNfse);
+        return ok(Etags.de(resumo)).body(resumo);
     }
 
     @GetMapping("/credito/{numeroCredito}")
-    public ResponseEntity<CreditoDTO> buscarPorNumeroCredito(@PathVariable String numeroCredito) {
+    public ResponseEntity<?> buscarPorNumeroCredito(@PathVariable String numeroCredito,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                    String acceptEncoding,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
         CreditoDTO credito = creditoService.buscarPorNumeroCredito(numeroCredito);
-        return ResponseEntity.ok(credito);
+        String etag = Etags.de(credito);
+        if (chavesQuentes.isNumeroCreditoQuente(numeroCredito)) {
+            RespostaSerializada corpo = respostaSerializadaCache.obterNumeroCredito(numeroCredito, etag, credito);
+            return corpoPronto(corpo, null, acceptEncoding, ifNoneMatch);
+        }
+        if (comprimir(etag, acceptEncoding, ifNoneMatch)) {
+            return corpoPronto(respostaSerializadaCache.serializar(etag, credito), null, acceptEncoding, ifNoneMatch);
+        }
+        return ok(Etags.paraResposta(etag, false, ifNoneMatch)).varyBy(HttpHeaders.ACCEPT_ENCODING).body(credito);
+    }
+
+    @PostMapping("/consulta-lote")
+    public ResponseEntity<ConsultaLoteResponseDTO> buscarEmLote(@RequestBody ConsultaLoteRequestDTO request) {
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(request.getNumerosNfse(), request.getNumerosCredito());
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping(value = "/exportacao", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String tipoCredito) {
+        // Validado antes do streaming: depois do primeiro byte não há como responder 400
+        creditoService.validarPeriodoExportacao(dataInicio, dataFim);
+        StreamingResponseBody corpo = saida -> creditoService.exportar(dataInicio, dataFim, tipoCredito, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(corpo);
+    }
+
+    /**
+     * Carga em lote: o corpo é consumido em streaming e gravado por upsert em numero_credito.
+     * Linhas inválidas não interrompem a carga; voltam contadas (e as primeiras, descritas) no resultado.
+     */
+    @PostMapping(value = "/importacao", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<ImportacaoResultadoDTO> importarNdjson(InputStream corpo) {
+        return ResponseEntity.ok(creditoImportacaoService.importarNdjson(corpo));
+    }
+
+    @PostMapping(value = "/importacao", consumes = TEXT_CSV)
+    public ResponseEntity<ImportacaoResultadoDTO> importarCsv(InputStream corpo) {
+        return ResponseEntity.ok(creditoImportacaoService.importarCsv(corpo));
+    }
+
+    /**
+     * Escreve os bytes prontos. Com Content-Encoding já definido o Tomcat não comprime de novo.
+     * A variante gzip tem ETag próprio ({@link Etags#gzip}); o Vary vale para as duas variantes.
+     */
+    private ResponseEntity<byte[]> corpoPronto(RespostaSerializada corpo, String proximoCursor, String acceptEncoding,
+                                               String ifNoneMatch) {
+        boolean gzip = corpo.getGzip() != null && aceitaGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder resposta = ok(Etags.paraResposta(corpo.getEtag(), gzip, ifNoneMatch))
+                .contentType(MediaType.APPLICATION_JSON);
+        if (proximoCursor != null) {
+            resposta.header(HEADER_PROXIMO_CURSOR, proximoCursor);
+        }
+        if (corpo.getGzip() == null) {
+            return resposta.body(corpo.getJson());
+        }
+        resposta.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(corpo.getGzip());
+        }
+        return resposta.body(corpo.getJson());
+    }
+
+    /**
+     * Consultas que não são quentes também saem comprimidas pela aplicação, já que o Tomcat não
+     * comprime respostas com ETag forte. Não vale serializar à parte para um 304 nem para quem
+     * não aceita gzip: esses seguem pelo conversor do Spring, com o ETag de identidade.
+     */
+    private static boolean comprimir(String etag, String acceptEncoding, String ifNoneMatch) {
+        return aceitaGzip(acceptEncoding) && Etags.conhecido(etag, ifNoneMatch) == null;
+    }
+
+    // "gzip" ou "*" sem q=0 (RFC 9110, seção 12.5.3)
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.split(";");
+            String nome = partes[0].trim();
+            if (!nome.equalsIgnoreCase("gzip") && !nome.equals("*")) {
+                continue;
+            }
+            boolean recusada = false;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim().replace(" ", "");
+                if (parametro.matches("(?i)q=0(\\.0{0,3})?")) {
+                    recusada = true;
+                }
+            }
+            if (!recusada) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity.BodyBuilder ok(String etag) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSegundos, TimeUnit.SECONDS);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cachePublico ? cacheControl.cachePublic() : cacheControl.cachePrivate());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.credit.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.credit.dto.ReprocessamentoDlqDTO;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.service.DlqReplayService;
+
+/**
+ * POST /actuator/dlq inicia o reenvio das mensagens da creditos-dlq ao tópico de origem e responde
+ * na hora; GET /actuator/dlq mostra o andamento da última execução. Desligado por padrão
+ * ({@code management.endpoint.dlq.enabled}): fica junto dos demais endpoints de administração.
+ */
+@Component
+@Endpoint(id = "dlq", enableByDefault = false)
+public class DlqEndpoint {
+
+    @Autowired
+    private DlqReplayService dlqReplayService;
+
+    @ReadOperation
+    public ReprocessamentoDlqDTO andamento() {
+        return dlqReplayService.getUltimo();
+    }
+
+    @WriteOperation
+    public ReprocessamentoDlqDTO reprocessar(@Nullable Integer maximo, @Nullable Integer tamanhoLote, @Nullable Long pausaMs) {
+        try {
+            return dlqReplayService.iniciar(maximo != null ? maximo : 1000, tamanhoLote != null ? tamanhoLote : 100,
+                    pausaMs != null ? pausaMs : 200);
+        } catch (RequisicaoInvalidaException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
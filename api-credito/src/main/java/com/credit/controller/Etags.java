@@ -0,0 +1,141 @@
+package com.credit.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.credit.cache.Hash64;
+import com.credit.dto.CreditoDTO;
+import com.credit.dto.ResumoNfseDTO;
+import com.credit.entity.Valor;
+
+/**
+ * ETags fortes das consultas. Listas e créditos usam um hash de 64 bits do conteúdo dos DTOs,
+ * que em geral já estão no cache: responder 304 não exige banco nem serialização. O resumo tem
+ * versão própria ({@code atualizado_em}, mantido pelo trigger de credito_resumo_nfse).
+ * Qualquer mudança no formato da resposta deve trocar {@link #VERSAO}.
+ */
+final class Etags {
+
+    private static final String VERSAO = "1";
+    private static final String SUFIXO_GZIP = "-gzip";
+
+    private long hash = Hash64.FNV_OFFSET;
+
+    private Etags() {
+    }
+
+    static String de(List<CreditoDTO> creditos, String proximoCursor) {
+        Etags etag = new Etags();
+        etag.adicionar(creditos.size());
+        for (CreditoDTO credito : creditos) {
+            etag.adicionar(credito);
+        }
+        etag.adicionar(proximoCursor);
+        return etag.valor();
+    }
+
+    static String de(CreditoDTO credito) {
+        Etags etag = new Etags();
+        etag.adicionar(credito);
+        return etag.valor();
+    }
+
+    static String de(ResumoNfseDTO resumo) {
+        Etags etag = new Etags();
+        etag.adicionar(resumo.getNumeroNfse());
+        etag.adicionar(resumo.getTotalCreditos());
+        etag.adicionar(resumo.getAtualizadoEm());
+        return etag.valor();
+    }
+
+    /**
+     * ETag da variante gzip do mesmo conteúdo: representações com codificações diferentes não
+     * podem dividir um ETag forte (RFC 9110, seção 8.8.3).
+     */
+    static String gzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + SUFIXO_GZIP + "\"";
+    }
+
+    /**
+     * ETag a enviar: o da variante escolhida ou, se o If-None-Match traz a outra forma do mesmo
+     * conteúdo, essa (o Spring então responde 304 com o validador que o cliente já tem).
+     */
+    static String paraResposta(String etag, boolean gzip, String ifNoneMatch) {
+        String conhecido = conhecido(etag, ifNoneMatch);
+        if (conhecido != null) {
+            return conhecido;
+        }
+        return gzip ? gzip(etag) : etag;
+    }
+
+    /**
+     * A forma do ETag (identidade ou gzip) que o If-None-Match traz, ou null: com ela a resposta
+     * será 304 e não há corpo a serializar nem comprimir.
+     */
+    static String conhecido(String etag, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String etagGzip = gzip(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag) || valor.equals(etagGzip)) {
+                return valor;
+            }
+        }
+        return null;
+    }
+
+    private void adicionar(CreditoDTO credito) {
+        adicionar(credito.getNumeroCredito());
+        adicionar(credito.getNumeroNfse());
+        adicionar(credito.getDataConstituicao());
+        adicionar(credito.getValorIssqn());
+        adicionar(credito.getTipoCredito());
+        adicionar(credito.getSimplesNacional());
+        adicionar(credito.getAliquota());
+        adicionar(credito.getValorFaturado());
+        adicionar(credito.getValorDeducao());
+        adicionar(credito.getBaseCalculo());
+    }
+
+    // O tamanho separa campos ("ab","c" de "a","bc") e distingue null de ""
+    private void adicionar(String valor) {
+        if (valor == null) {
+            adicionar(-1L);
+            return;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            hash = Hash64.fnv1a(hash, valor.charAt(i));
+        }
+        adicionar(valor.length());
+    }
+
+    // Valor sai sempre com duas casas no JSON: os centésimos identificam o texto
+    private void adicionar(Valor valor) {
+        adicionar(valor != null ? valor.getCentesimos() : Long.MIN_VALUE);
+    }
+
+    private void adicionar(LocalDate data) {
+        adicionar(data != null ? data.toEpochDay() : Long.MIN_VALUE);
+    }
+
+    private void adicionar(LocalDateTime dataHora) {
+        adicionar(dataHora != null ? dataHora.toString() : null);
+    }
+
+    private void adicionar(long valor) {
+        for (int i = 0; i < 8; i++) {
+            hash = Hash64.fnv1a(hash, (int) (valor & 0xff));
+            valor >>>= 8;
+        }
+    }
+
+    private String valor() {
+        return "\"" + VERSAO + "-" + Long.toHexString(Hash64.fmix64(hash)) + "\"";
+    }
+}
@@ -0,0 +1,14 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChaveQuenteDTO {
+
+    private String chave;
+    private long estimativa;
+}
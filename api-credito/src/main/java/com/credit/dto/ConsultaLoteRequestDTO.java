@@ -0,0 +1,17 @@
+package com.credit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsultaLoteRequestDTO {
+
+    private List<String> numerosNfse = new ArrayList<>();
+    private List<String> numerosCredito = new ArrayList<>();
+}
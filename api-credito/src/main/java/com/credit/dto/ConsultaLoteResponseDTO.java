@@ -0,0 +1,23 @@
+package com.credit.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma consulta em lote, agrupado por chave. Chaves sem créditos aparecem
+ * apenas nas listas de não encontrados.
+ */
+@Data
+@NoArgsConstructor
+public class ConsultaLoteResponseDTO {
+
+    private Map<String, List<CreditoDTO>> creditosPorNfse = new LinkedHashMap<>();
+    private Map<String, CreditoDTO> creditosPorNumero = new LinkedHashMap<>();
+    private List<String> nfseNaoEncontradas = new ArrayList<>();
+    private List<String> creditosNaoEncontrados = new ArrayList<>();
+}
@@ -1,13 +1,14 @@
 package com.credit.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.credit.entity.Valor;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,13 +20,13 @@ public class CreditoDTO {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate dataConstituicao;
 
-    private BigDecimal valorIssqn;
+    private Valor valorIssqn;
     private String tipoCredito;
     private String simplesNacional;
-    private BigDecimal aliquota;
-    private BigDecimal valorFaturado;
-    private BigDecimal valorDeducao;
-    private BigDecimal baseCalculo;
+    private Valor aliquota;
+    private Valor valorFaturado;
+    private Valor valorDeducao;
+    private Valor baseCalculo;
 
 
 }
\ No newline at end of file
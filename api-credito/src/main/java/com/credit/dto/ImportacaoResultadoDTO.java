@@ -0,0 +1,23 @@
+package com.credit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma importação: linhas lidas, créditos enviados ao upsert e linhas rejeitadas.
+ * {@code erros} traz só as primeiras rejeições (linha e motivo); {@code rejeitados} conta todas.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportacaoResultadoDTO {
+
+    private long lidos;
+    private long gravados;
+    private long rejeitados;
+    private List<String> erros = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.credit.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCreditosDTO {
+
+    private List<CreditoDTO> creditos;
+
+    /** Cursor opaco da próxima página; null na última. */
+    private String proximoCursor;
+}
@@ -0,0 +1,22 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReprocessamentoDlqDTO {
+
+    private long lidos;
+    private long reenviados;
+
+    /** Registros sem o header do tópico de origem: não há para onde reenviar. */
+    private long ignorados;
+
+    private boolean emAndamento;
+
+    /** Motivo da interrupção, quando um lote não pôde ser reenviado (os registros ficam na DLQ). */
+    private String erro;
+}
@@ -0,0 +1,30 @@
+package com.credit.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoNfseDTO {
+
+    private String numeroNfse;
+    private long totalCreditos;
+    private BigDecimal totalIssqn;
+    private BigDecimal aliquotaMedia;
+    private BigDecimal totalFaturado;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate primeiraConstituicao;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate ultimaConstituicao;
+
+    private LocalDateTime atualizadoEm;
+}
@@ -0,0 +1,21 @@
+package com.credit.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TotaisAnaliticosDTO {
+
+    private String agrupamento;
+
+    /** Hora do banco na última atualização do snapshot; alterações posteriores ainda não entram. */
+    private LocalDateTime atualizadoEm;
+
+    private List<TotalAnaliticoDTO> totais;
+}
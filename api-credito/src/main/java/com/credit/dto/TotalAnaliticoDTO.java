@@ -0,0 +1,21 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.credit.entity.Valor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TotalAnaliticoDTO {
+
+    /** Valor da chave de agrupamento: tipo de crédito, mês (yyyy-MM) ou Sim/Não. */
+    private String grupo;
+    private long quantidade;
+    private Valor valorIssqn;
+    private Valor valorFaturado;
+    private Valor valorDeducao;
+    private Valor baseCalculo;
+}
@@ -2,7 +2,6 @@ package com.credit.entity;
 
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import lombok.AllArgsConstructor;
@@ -30,7 +29,7 @@ public class Credito {
     private LocalDate dataConstituicao;
 
     @Column(name = "valor_issqn", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valorIssqn;
+    private Valor valorIssqn;
 
     @Column(name = "tipo_credito", nullable = false, length = 50)
     private String tipoCredito;
@@ -39,15 +38,15 @@ public class Credito {
     private boolean simplesNacional;
 
     @Column(name = "aliquota", nullable = false, precision = 5, scale = 2)
-    private BigDecimal aliquota;
+    private Valor aliquota;
 
     @Column(name = "valor_faturado", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valorFaturado;
+    private Valor valorFaturado;
 
     @Column(name = "valor_deducao", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valorDeducao;
+    private Valor valorDeducao;
 
     @Column(name = "base_calculo", nullable = false, precision = 15, scale = 2)
-    private BigDecimal baseCalculo;
+    private Valor baseCalculo;
 
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.credit.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais por NFS-e mantidos incrementalmente pelo trigger {@code credito_resumo_nfse_trigger}
+ * (scripts/init-db.sql). Somente leitura para a aplicação.
+ */
+@Entity
+@Immutable
+@Table(name = "credito_resumo_nfse")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreditoResumoNfse {
+
+    @Id
+    @Column(name = "numero_nfse", length = 50)
+    private String numeroNfse;
+
+    @Column(name = "total_creditos", nullable = false)
+    private long totalCreditos;
+
+    @Column(name = "total_issqn", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalIssqn;
+
+    @Column(name = "soma_aliquota", nullable = false, precision = 19, scale = 2)
+    private BigDecimal somaAliquota;
+
+    @Column(name = "total_faturado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalFaturado;
+
+    @Column(name = "primeira_constituicao")
+    private LocalDate primeiraConstituicao;
+
+    @Column(name = "ultima_constituicao")
+    private LocalDate ultimaConstituicao;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    /** Média guardada como soma + contagem, que são atualizáveis por delta. */
+    public BigDecimal getAliquotaMedia() {
+        if (totalCreditos == 0) {
+            return BigDecimal.ZERO;
+        }
+        return somaAliquota.divide(BigDecimal.valueOf(totalCreditos), 2, RoundingMode.HALF_UP);
+    }
+}
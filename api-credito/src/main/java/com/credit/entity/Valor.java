@@ -0,0 +1,163 @@
+package com.credit.entity;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+/**
+ * Valor das colunas DECIMAL(15, 2) e DECIMAL(5, 2) de credito como um long em centésimos.
+ * Substitui o BigDecimal no caminho de leitura: o JDBC lê um bigint ({@code valor * 100}), o mapper
+ * copia a referência e o JSON é escrito direto do long, sempre com duas casas (como o BigDecimal
+ * lido do banco), sem String nem BigInteger intermediários. Imutável.
+ */
+@JsonSerialize(using = Valor.Serializador.class)
+@JsonDeserialize(using = Valor.Desserializador.class)
+public final class Valor implements Comparable<Valor> {
+
+    public static final int ESCALA = 2;
+
+    public static final Valor ZERO = new Valor(0);
+
+    // Sinal, 19 dígitos e o ponto
+    private static final int TAMANHO_MAXIMO_TEXTO = 21;
+
+    private final long centesimos;
+
+    private Valor(long centesimos) {
+        this.centesimos = centesimos;
+    }
+
+    public static Valor deCentesimos(long centesimos) {
+        return centesimos == 0 ? ZERO : new Valor(centesimos);
+    }
+
+    /**
+     * Valor exato: lança ArithmeticException se houver casas decimais além da segunda diferentes de
+     * zero ou se não couber em um long.
+     */
+    public static Valor de(BigDecimal valor) {
+        return deCentesimos(valor.movePointRight(ESCALA).longValueExact());
+    }
+
+    /**
+     * Texto decimal com ponto ("1500.75"); NumberFormatException se não for um valor exato de duas casas.
+     */
+    public static Valor de(String texto) {
+        try {
+            return de(new BigDecimal(texto.trim()));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("mais de " + ESCALA + " casas decimais ou fora do intervalo: " + texto);
+        }
+    }
+
+    public long getCentesimos() {
+        return centesimos;
+    }
+
+    public int signum() {
+        return Long.signum(centesimos);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centesimos, ESCALA);
+    }
+
+    /**
+     * Escreve o valor em {@code destino} a partir da posição 0 e devolve o tamanho.
+     */
+    int escrever(char[] destino) {
+        // Dígitos da direita para a esquerda no fim do buffer; Long.MIN_VALUE não ocorre em DECIMAL(15, 2)
+        long resto = Math.abs(centesimos);
+        int posicao = TAMANHO_MAXIMO_TEXTO;
+        for (int casa = 0; casa < ESCALA; casa++) {
+            destino[--posicao] = (char) ('0' + resto % 10);
+            resto /= 10;
+        }
+        destino[--posicao] = '.';
+        do {
+            destino[--posicao] = (char) ('0' + resto % 10);
+            resto /= 10;
+        } while (resto > 0);
+        if (centesimos < 0) {
+            destino[--posicao] = '-';
+        }
+        int tamanho = TAMANHO_MAXIMO_TEXTO - posicao;
+        System.arraycopy(destino, posicao, destino, 0, tamanho);
+        return tamanho;
+    }
+
+    @Override
+    public int compareTo(Valor outro) {
+        return Long.compare(centesimos, outro.centesimos);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return this == outro || outro instanceof Valor && ((Valor) outro).centesimos == centesimos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centesimos);
+    }
+
+    @Override
+    public String toString() {
+        char[] texto = new char[TAMANHO_MAXIMO_TEXTO];
+        return new String(texto, 0, escrever(texto));
+    }
+
+    /**
+     * Número JSON com duas casas, igual ao que o Jackson escreve para o BigDecimal de escala 2.
+     * O buffer é por thread; o gerador copia os caracteres para o próprio buffer de saída.
+     */
+    public static class Serializador extends JsonSerializer<Valor> {
+
+        private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[TAMANHO_MAXIMO_TEXTO]);
+
+        @Override
+        public void serialize(Valor valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            char[] buffer = BUFFER.get();
+            gerador.writeNumber(buffer, 0, valor.escrever(buffer));
+        }
+    }
+
+    /**
+     * Aceita número ou texto (como o BigDecimal do Jackson); valores com mais de duas casas são rejeitados.
+     */
+    public static class Desserializador extends JsonDeserializer<Valor> {
+
+        @Override
+        public Valor deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            BigDecimal decimal;
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                decimal = parser.getDecimalValue();
+            } else if (token == JsonToken.VALUE_STRING) {
+                try {
+                    decimal = new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw InvalidFormatException.from(parser, "valor decimal inválido", parser.getText(), Valor.class);
+                }
+            } else {
+                return (Valor) contexto.handleUnexpectedToken(Valor.class, parser);
+            }
+            try {
+                return de(decimal);
+            } catch (ArithmeticException e) {
+                throw InvalidFormatException.from(parser, "valor com mais de " + ESCALA + " casas decimais ou fora do intervalo",
+                        decimal, Valor.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.credit.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Colunas NUMERIC para {@link Valor} nas entidades do Hibernate. O driver ainda cria o BigDecimal;
+ * o caminho quente das consultas lê pelo {@code CreditoJdbcRepository}, que já traz os centésimos em bigint.
+ */
+@Converter(autoApply = true)
+public class ValorConverter implements AttributeConverter<Valor, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Valor valor) {
+        return valor != null ? valor.toBigDecimal() : null;
+    }
+
+    @Override
+    public Valor convertToEntityAttribute(BigDecimal coluna) {
+        return coluna != null ? Valor.de(coluna) : null;
+    }
+}
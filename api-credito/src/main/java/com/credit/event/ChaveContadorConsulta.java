@@ -0,0 +1,14 @@
+package com.credit.event;
+
+import lombok.Value;
+
+/**
+ * Chave dos contadores de consultas: tipo, parâmetro consultado e minuto (epoch / 60s).
+ */
+@Value
+public class ChaveContadorConsulta {
+
+    String tipoConsulta;
+    String parametro;
+    long minuto;
+}
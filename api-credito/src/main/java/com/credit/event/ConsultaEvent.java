@@ -0,0 +1,27 @@
+package com.credit.event;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Evento de consulta publicado no tópico creditos-consultas.
+ * O timestamp é capturado em epoch millis na thread da requisição e só é formatado na publicação.
+ * Consultas em lote publicam um único evento com as chaves consultadas em {@code chaves}
+ * (e {@code parametro} nulo); nas demais {@code chaves} é nulo.
+ */
+@Value
+@AllArgsConstructor
+public class ConsultaEvent {
+
+    String tipoConsulta;
+    String parametro;
+    long timestamp;
+    String usuario;
+    List<String> chaves;
+
+    public ConsultaEvent(String tipoConsulta, String parametro, long timestamp, String usuario) {
+        this(tipoConsulta, parametro, timestamp, usuario, null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.credit.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê eventos de consulta tanto no formato binário quanto no JSON legado,
+ * permitindo trocar o formato do producer sem coordenar o deploy dos consumidores.
+ *
+ * @see ConsultaEventSerializer
+ */
+public class ConsultaEventDeserializer implements Deserializer<ConsultaEvent> {
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    @Override
+    public ConsultaEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == ConsultaEventSerializer.VERSAO_1 || data[0] == ConsultaEventSerializer.VERSAO_2) {
+            return fromBinario(data);
+        }
+        if (data[0] == '{') {
+            return fromJson(data);
+        }
+        throw new SerializationException("Versão de evento de consulta desconhecida: " + data[0]);
+    }
+
+    public static ConsultaEvent fromBinario(byte[] data) {
+        try {
+            Leitor leitor = new Leitor(data, 1);
+            long timestamp = leitor.lerLong();
+            String tipoConsulta = leitor.lerString();
+            String parametro = leitor.lerString();
+            String usuario = leitor.lerString();
+            List<String> chaves = null;
+            if (data[0] == ConsultaEventSerializer.VERSAO_2) {
+                int quantidade = leitor.lerVarint();
+                if (quantidade > data.length) {
+                    throw new ArrayIndexOutOfBoundsException(quantidade);
+                }
+                chaves = new ArrayList<>(quantidade);
+                for (int i = 0; i < quantidade; i++) {
+                    chaves.add(leitor.lerString());
+                }
+            }
+            return new ConsultaEvent(tipoConsulta, parametro, timestamp, usuario, chaves);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Evento de consulta binário truncado", e);
+        }
+    }
+
+    private ConsultaEvent fromJson(byte[] data) {
+        try {
+            JsonNode json = objectMapper.readTree(data);
+            JsonNode timestamp = json.path("timestamp");
+            long epochMillis = timestamp.isNumber()
+                    ? timestamp.asLong()
+                    : LocalDateTime.parse(timestamp.asText()).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            List<String> chaves = null;
+            JsonNode listaChaves = json.get("chaves");
+            if (listaChaves != null && listaChaves.isArray()) {
+                chaves = new ArrayList<>(listaChaves.size());
+                for (JsonNode chave : listaChaves) {
+                    chaves.add(chave.isNull() ? null : chave.asText());
+                }
+            }
+            return new ConsultaEvent(
+                    texto(json, "tipoConsulta"),
+                    texto(json, "parametro"),
+                    epochMillis,
+                    texto(json, "usuario"),
+                    chaves);
+        } catch (Exception e) {
+            throw new SerializationException("Falha ao desserializar evento de consulta JSON", e);
+        }
+    }
+
+    private static String texto(JsonNode json, String campo) {
+        JsonNode valor = json.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText();
+    }
+
+    private static final class Leitor {
+        private final byte[] data;
+        private int posicao;
+
+        private Leitor(byte[] data, int posicao) {
+            this.data = data;
+            this.posicao = posicao;
+        }
+
+        private long lerLong() {
+            long valor = 0;
+            for (int i = 0; i < 8; i++) {
+                valor = (valor << 8) | (data[posicao++] & 0xFF);
+            }
+            return valor;
+        }
+
+        private int lerVarint() {
+            int valor = 0;
+            int deslocamento = 0;
+            byte b;
+            do {
+                b = data[posicao++];
+                valor |= (b & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+
+        private String lerString() {
+            int comprimento = lerVarint();
+            if (comprimento == 0) {
+                return null;
+            }
+            int tamanho = comprimento - 1;
+            if (posicao + tamanho > data.length) {
+                throw new ArrayIndexOutOfBoundsException(posicao + tamanho);
+            }
+            String valor = new String(data, posicao, tamanho, StandardCharsets.UTF_8);
+            posicao += tamanho;
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.credit.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.credit.repository.ConsultaEstatisticaRepository;
+
+/**
+ * Consome o tópico creditos-consultas em lotes e agrega os eventos em contadores por chave e minuto.
+ * Cada poll vira um único flush no banco; o offset só é confirmado no Kafka depois do commit.
+ * Um registro que falha sozinho é reencaminhado para o tópico de retry (ou DLQ) e o lote segue.
+ */
+@Slf4j
+@Component
+public class ConsultaEventListener {
+
+    static final String TOPICO = "creditos-consultas";
+
+    @Autowired
+    private ConsultaEstatisticaRepository consultaEstatisticaRepository;
+
+    @Autowired
+    private DeadLetterPublishingRecoverer recuperadorFalhas;
+
+    @Value("${app.kafka.consultas.consumidor.group-id:creditos-consultas-analytics}")
+    private String grupo;
+
+    @KafkaListener(
+            topics = TOPICO,
+            groupId = "${app.kafka.consultas.consumidor.group-id:creditos-consultas-analytics}",
+            containerFactory = "consultasListenerContainerFactory",
+            autoStartup = "${app.kafka.consultas.consumidor.enabled:true}")
+    public void consumir(List<ConsumerRecord<String, ConsultaEvent>> registros, Acknowledgment ack) {
+        processar(registros);
+        ack.acknowledge();
+    }
+
+    @KafkaListener(
+            topics = TOPICO + RoteamentoFalhas.SUFIXO_RETRY + "1",
+            groupId = "${app.kafka.consultas.consumidor.group-id:creditos-consultas-analytics}",
+            containerFactory = "consultasRetryListenerContainerFactory",
+            autoStartup = "${app.kafka.consultas.consumidor.enabled:true}")
+    public void reprocessarNivel1(ConsumerRecord<String, ConsultaEvent> registro, Acknowledgment ack) {
+        reprocessar(registro, ack);
+    }
+
+    @KafkaListener(
+            topics = TOPICO + RoteamentoFalhas.SUFIXO_RETRY + "2",
+            groupId = "${app.kafka.consultas.consumidor.group-id:creditos-consultas-analytics}",
+            containerFactory = "consultasRetryListenerContainerFactory",
+            autoStartup = "${app.kafka.consultas.consumidor.enabled:true}")
+    public void reprocessarNivel2(ConsumerRecord<String, ConsultaEvent> registro, Acknowledgment ack) {
+        reprocessar(registro, ack);
+    }
+
+    @KafkaListener(
+            topics = TOPICO + RoteamentoFalhas.SUFIXO_RETRY + "3",
+            groupId = "${app.kafka.consultas.consumidor.group-id:creditos-consultas-analytics}",
+            containerFactory = "consultasRetryListenerContainerFactory",
+            autoStartup = "${app.kafka.consultas.consumidor.enabled:true}")
+    public void reprocessarNivel3(ConsumerRecord<String, ConsultaEvent> registro, Acknowledgment ack) {
+        reprocessar(registro, ack);
+    }
+
+    /**
+     * Antes do prazo do nível, devolve o registro com {@code nack}: o consumidor deste tópico de
+     * retry dorme o tempo restante e o recebe de novo, sem afetar o tópico principal.
+     * Uma nova falha sobe para o error handler do container, que o manda para o próximo nível.
+     */
+    void reprocessar(ConsumerRecord<String, ConsultaEvent> registro, Acknowledgment ack) {
+        long espera = RoteamentoFalhas.esperaRestante(registro, System.currentTimeMillis());
+        if (espera > 0) {
+            ack.nack(Duration.ofMillis(espera));
+            return;
+        }
+        if (registro.value() == null) {
+            throw new IllegalArgumentException("Evento de consulta ilegível");
+        }
+        processar(List.of(registro));
+        ack.acknowledge();
+    }
+
+    private void processar(List<ConsumerRecord<String, ConsultaEvent>> registros) {
+        Map<String, List<ConsumerRecord<String, ConsultaEvent>>> porTopico = new LinkedHashMap<>();
+        for (ConsumerRecord<String, ConsultaEvent> registro : registros) {
+            porTopico.computeIfAbsent(registro.topic(), topico -> new ArrayList<>()).add(registro);
+        }
+        porTopico.forEach(this::processarTopico);
+    }
+
+    private void processarTopico(String topico, List<ConsumerRecord<String, ConsultaEvent>> registros) {
+        Map<Integer, Long> processados = consultaEstatisticaRepository.buscarOffsets(grupo, topico);
+        Map<ChaveContadorConsulta, Long> contadores = new HashMap<>();
+        Map<Integer, Long> ultimosOffsets = new HashMap<>();
+        int reentregues = 0;
+
+        for (ConsumerRecord<String, ConsultaEvent> registro : registros) {
+            Long processado = processados.get(registro.partition());
+            if (processado != null && registro.offset() <= processado) {
+                reentregues++;
+                continue;
+            }
+            ultimosOffsets.merge(registro.partition(), registro.offset(), Math::max);
+
+            try {
+                if (registro.value() == null) {
+                    // Payload que o ErrorHandlingDeserializer não conseguiu ler
+                    throw new IllegalArgumentException("Evento de consulta ilegível");
+                }
+                acumular(contadores, registro.value());
+            } catch (RuntimeException e) {
+                // Enviado antes do commit dos contadores: numa reentrega pode ir duas vezes, nunca se perde
+                log.warn("Evento de consulta com falha reencaminhado: {}-{}@{}",
+                        registro.topic(), registro.partition(), registro.offset(), e);
+                recuperadorFalhas.accept(registro, e);
+            }
+        }
+
+        if (!ultimosOffsets.isEmpty()) {
+            consultaEstatisticaRepository.gravarLote(grupo, topico, contadores, ultimosOffsets);
+        }
+        if (reentregues > 0) {
+            log.info("{} eventos de consulta já processados foram ignorados", reentregues);
+        }
+    }
+
+    private static void acumular(Map<ChaveContadorConsulta, Long> contadores, ConsultaEvent evento) {
+        if (evento.getTipoConsulta() == null) {
+            throw new IllegalArgumentException("Evento de consulta sem tipo");
+        }
+        long minuto = TimeUnit.MILLISECONDS.toMinutes(evento.getTimestamp());
+        if (evento.getChaves() != null) {
+            // Consulta em lote: um evento, uma contagem por chave
+            for (String chave : evento.getChaves()) {
+                contadores.merge(new ChaveContadorConsulta(evento.getTipoConsulta(), chave != null ? chave : "", minuto),
+                        1L, Long::sum);
+            }
+            return;
+        }
+        String parametro = evento.getParametro() != null ? evento.getParametro() : "";
+        contadores.merge(new ChaveContadorConsulta(evento.getTipoConsulta(), parametro, minuto), 1L, Long::sum);
+    }
+}
@@ -0,0 +1,154 @@
+package com.credit.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializer de valores do producer. {@link ConsultaEvent} é gravado no formato binário
+ * versionado (ou no JSON legado, conforme {@link FormatoEvento}); {@code byte[]} é enviado como
+ * está (reencaminhamento para retry/DLQ e replay) e demais objetos seguem pelo {@link JsonSerializer}.
+ *
+ * <p>Formato binário v1:
+ * <pre>
+ * byte   versão (0x01)
+ * int64  timestamp em epoch millis (big-endian)
+ * string tipoConsulta
+ * string parametro
+ * string usuario
+ * </pre>
+ * Cada string é um varint com (tamanho + 1) seguido dos bytes UTF-8; 0 representa null.
+ * Eventos de lote usam a versão 2, que é a v1 com versão 0x02 seguida de
+ * <pre>
+ * varint quantidade de chaves
+ * string chave (repetida)
+ * </pre>
+ * Eventos sem chaves continuam saindo em v1, legível por consumidores anteriores ao lote.
+ * Payloads JSON começam com '{', portanto nunca colidem com o byte de versão.
+ */
+public class ConsultaEventSerializer implements Serializer<Object> {
+
+    public static final byte VERSAO_1 = 0x01;
+    public static final byte VERSAO_2 = 0x02;
+
+    private final FormatoEvento formato;
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(objectMapper);
+
+    public ConsultaEventSerializer(FormatoEvento formato) {
+        this.formato = formato;
+        this.jsonSerializer.setAddTypeInfo(false);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof ConsultaEvent) {
+            ConsultaEvent evento = (ConsultaEvent) data;
+            return formato == FormatoEvento.BINARIO ? toBinario(evento) : toJson(evento);
+        }
+        if (data instanceof byte[]) {
+            return (byte[]) data;
+        }
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    public static byte[] toBinario(ConsultaEvent evento) {
+        byte[] tipoConsulta = utf8(evento.getTipoConsulta());
+        byte[] parametro = utf8(evento.getParametro());
+        byte[] usuario = utf8(evento.getUsuario());
+        List<String> chaves = evento.getChaves();
+        byte[][] chavesUtf8 = null;
+        int tamanhoChaves = 0;
+        if (chaves != null) {
+            chavesUtf8 = new byte[chaves.size()][];
+            tamanhoChaves = tamanhoVarint(chaves.size());
+            for (int i = 0; i < chavesUtf8.length; i++) {
+                chavesUtf8[i] = utf8(chaves.get(i));
+                tamanhoChaves += tamanho(chavesUtf8[i]);
+            }
+        }
+
+        byte[] buffer = new byte[1 + 8 + tamanho(tipoConsulta) + tamanho(parametro) + tamanho(usuario) + tamanhoChaves];
+        int posicao = 0;
+        buffer[posicao++] = chavesUtf8 != null ? VERSAO_2 : VERSAO_1;
+        long timestamp = evento.getTimestamp();
+        for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+            buffer[posicao++] = (byte) (timestamp >>> deslocamento);
+        }
+        posicao = escrever(buffer, posicao, tipoConsulta);
+        posicao = escrever(buffer, posicao, parametro);
+        posicao = escrever(buffer, posicao, usuario);
+        if (chavesUtf8 != null) {
+            posicao = escreverVarint(buffer, posicao, chavesUtf8.length);
+            for (byte[] chave : chavesUtf8) {
+                posicao = escrever(buffer, posicao, chave);
+            }
+        }
+        return buffer;
+    }
+
+    private byte[] toJson(ConsultaEvent evento) {
+        // Mesmo formato publicado antes da introdução do ConsultaEvent
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("tipoConsulta", evento.getTipoConsulta());
+        payload.put("parametro", evento.getParametro());
+        payload.put("timestamp", LocalDateTime.ofInstant(Instant.ofEpochMilli(evento.getTimestamp()), ZoneId.systemDefault()).toString());
+        payload.put("usuario", evento.getUsuario());
+        if (evento.getChaves() != null) {
+            payload.put("chaves", evento.getChaves());
+        }
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (Exception e) {
+            throw new SerializationException("Falha ao serializar evento de consulta em JSON", e);
+        }
+    }
+
+    private static byte[] utf8(String valor) {
+        return valor != null ? valor.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int tamanho(byte[] valor) {
+        return tamanhoVarint(valor != null ? valor.length + 1 : 0) + (valor != null ? valor.length : 0);
+    }
+
+    private static int tamanhoVarint(int valor) {
+        int bytesVarint = 1;
+        while ((valor >>>= 7) != 0) {
+            bytesVarint++;
+        }
+        return bytesVarint;
+    }
+
+    private static int escrever(byte[] buffer, int posicao, byte[] valor) {
+        posicao = escreverVarint(buffer, posicao, valor != null ? valor.length + 1 : 0);
+        if (valor != null) {
+            System.arraycopy(valor, 0, buffer, posicao, valor.length);
+            posicao += valor.length;
+        }
+        return posicao;
+    }
+
+    private static int escreverVarint(byte[] buffer, int posicao, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            buffer[posicao++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        buffer[posicao++] = (byte) valor;
+        return posicao;
+    }
+}
@@ -0,0 +1,31 @@
+package com.credit.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento compacto de alteração de crédito publicado no tópico creditos-eventos, com chave numero_nfse.
+ * Traz só o necessário para invalidar caches; os campos "anterior" vêm preenchidos apenas quando
+ * um UPDATE trocou a NFS-e ou o número do crédito.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CreditoAlteradoEvent {
+
+    public static final String INSERT = "INSERT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    private long auditoriaId;
+    private String operacao;
+    private Long creditoId;
+    private String numeroNfse;
+    private String numeroCredito;
+    private String numeroNfseAnterior;
+    private String numeroCreditoAnterior;
+    private long timestamp;
+}
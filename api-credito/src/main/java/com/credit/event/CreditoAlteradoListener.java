@@ -0,0 +1,74 @@
+package com.credit.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+import com.credit.cache.CreditoCache;
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.cache.RespostaSerializadaCache;
+
+/**
+ * Invalida os caches locais a partir de creditos-eventos. Cada instância usa um group-id próprio
+ * (sufixo aleatório) para receber todas as partições, e começa do fim do tópico: na subida os
+ * caches estão vazios e não há nada a invalidar.
+ */
+@Slf4j
+@Component
+public class CreditoAlteradoListener {
+
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private NegativeCreditoCache negativeCreditoCache;
+
+    @Autowired
+    private RespostaSerializadaCache respostaSerializadaCache;
+
+    @KafkaListener(
+            topics = "creditos-eventos",
+            groupId = "${app.kafka.eventos.invalidacao.group-id-prefixo:creditos-cache}-${random.uuid}",
+            containerFactory = "eventosInvalidacaoListenerContainerFactory",
+            autoStartup = "${app.kafka.eventos.invalidacao.enabled:true}")
+    public void invalidar(List<CreditoAlteradoEvent> eventos) {
+        long ultimaAlteracao = 0;
+        long ultimoAuditoriaId = 0;
+        for (CreditoAlteradoEvent evento : eventos) {
+            if (evento == null) {
+                log.warn("Evento ilegível em creditos-eventos ignorado");
+                continue;
+            }
+            invalidar(evento);
+            ultimaAlteracao = Math.max(ultimaAlteracao, evento.getTimestamp());
+            ultimoAuditoriaId = Math.max(ultimoAuditoriaId, evento.getAuditoriaId());
+        }
+        // O filtro de Bloom do cache negativo só é confiável enquanto os eventos chegam em dia
+        if (ultimaAlteracao > 0) {
+            negativeCreditoCache.registrarEventos(ultimoAuditoriaId, System.currentTimeMillis() - ultimaAlteracao);
+        }
+    }
+
+    void invalidar(CreditoAlteradoEvent evento) {
+        for (String numeroNfse : new String[] {evento.getNumeroNfse(), evento.getNumeroNfseAnterior()}) {
+            if (numeroNfse != null) {
+                creditoCache.evictNumeroNfse(numeroNfse);
+                respostaSerializadaCache.evictNumeroNfse(numeroNfse);
+            }
+        }
+        for (String numeroCredito : new String[] {evento.getNumeroCredito(), evento.getNumeroCreditoAnterior()}) {
+            if (numeroCredito != null) {
+                creditoCache.evictNumeroCredito(numeroCredito);
+                respostaSerializadaCache.evictNumeroCredito(numeroCredito);
+            }
+        }
+
+        // A chave passou a existir: sai dos misses recentes e entra no filtro de Bloom
+        if (!CreditoAlteradoEvent.DELETE.equals(evento.getOperacao())
+                && evento.getNumeroNfse() != null && evento.getNumeroCredito() != null) {
+            negativeCreditoCache.registrarCredito(evento.getNumeroNfse(), evento.getNumeroCredito());
+        }
+    }
+}
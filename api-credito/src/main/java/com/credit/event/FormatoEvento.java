@@ -0,0 +1,10 @@
+package com.credit.event;
+
+/**
+ * Formato de serialização dos eventos de consulta no Kafka.
+ * JSON é mantido como fallback durante a migração dos consumidores.
+ */
+public enum FormatoEvento {
+    BINARIO,
+    JSON
+}
@@ -0,0 +1,16 @@
+package com.credit.event;
+
+/**
+ * O que fazer com um evento de consulta quando a fila de publicação está cheia.
+ */
+public enum PoliticaOverflow {
+
+    /** Descarta o evento imediatamente. */
+    DROP,
+
+    /** Acima da marca d'água aceita apenas um a cada N eventos; com a fila cheia, descarta. */
+    SAMPLE,
+
+    /** Aguarda espaço na fila até o timeout configurado e então descarta. */
+    BLOCK
+}
@@ -0,0 +1,93 @@
+package com.credit.event;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * Decide para onde vai um registro que falhou no consumo: o próximo tópico de retry
+ * ({@code <tópico>-retry-1..3}, com espera crescente) ou, esgotadas as tentativas, o creditos-dlq.
+ * Usado pelo {@link org.springframework.kafka.listener.DeadLetterPublishingRecoverer} do {@code KafkaConfig}.
+ */
+@Component
+public class RoteamentoFalhas {
+
+    public static final String TOPICO_DLQ = "creditos-dlq";
+    public static final String SUFIXO_RETRY = "-retry-";
+    public static final int NIVEIS_RETRY = 3;
+
+    public static final String HEADER_TENTATIVA = "x-tentativa";
+    public static final String HEADER_REPROCESSAR_APOS = "x-reprocessar-apos";
+
+    /** Tópicos que têm consumidores nos tópicos de retry; os demais vão direto para a DLQ. */
+    private static final Set<String> TOPICOS_COM_RETRY = Set.of(ConsultaEventListener.TOPICO);
+
+    @Value("${app.kafka.retry.atraso-inicial-ms:1000}")
+    private long atrasoInicialMs = 1000;
+
+    @Value("${app.kafka.retry.multiplicador:5}")
+    private int multiplicador = 5;
+
+    public TopicPartition destino(ConsumerRecord<?, ?> registro, Exception erro) {
+        int proximaTentativa = tentativa(registro) + 1;
+        String base = topicoBase(registro.topic());
+        if (naoRecuperavel(registro, erro) || !TOPICOS_COM_RETRY.contains(base) || proximaTentativa > NIVEIS_RETRY) {
+            return new TopicPartition(TOPICO_DLQ, -1);
+        }
+        return new TopicPartition(topicoRetry(base, proximaTentativa), -1);
+    }
+
+    /**
+     * Headers adicionados ao registro reencaminhado: número da tentativa e o instante a partir
+     * do qual o consumidor do tópico de retry pode processá-lo.
+     */
+    public Headers cabecalhos(ConsumerRecord<?, ?> registro, Exception erro) {
+        int tentativa = tentativa(registro) + 1;
+        long atraso = atrasoInicialMs * (long) Math.pow(multiplicador, tentativa - 1);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(HEADER_TENTATIVA, ByteBuffer.allocate(4).putInt(tentativa).array());
+        headers.add(HEADER_REPROCESSAR_APOS, ByteBuffer.allocate(8).putLong(System.currentTimeMillis() + atraso).array());
+        return headers;
+    }
+
+    public static int tentativa(ConsumerRecord<?, ?> registro) {
+        Header header = registro.headers().lastHeader(HEADER_TENTATIVA);
+        return header != null ? ByteBuffer.wrap(header.value()).getInt() : 0;
+    }
+
+    /** Milissegundos que ainda faltam para o registro poder ser reprocessado (0 se já pode). */
+    public static long esperaRestante(ConsumerRecord<?, ?> registro, long agora) {
+        Header header = registro.headers().lastHeader(HEADER_REPROCESSAR_APOS);
+        return header != null ? Math.max(0, ByteBuffer.wrap(header.value()).getLong() - agora) : 0;
+    }
+
+    public static String topicoRetry(String topicoBase, int tentativa) {
+        return topicoBase + SUFIXO_RETRY + tentativa;
+    }
+
+    public static String topicoBase(String topico) {
+        int sufixo = topico.lastIndexOf(SUFIXO_RETRY);
+        return sufixo > 0 ? topico.substring(0, sufixo) : topico;
+    }
+
+    // Payload ilegível falharia igual em todas as tentativas
+    private static boolean naoRecuperavel(ConsumerRecord<?, ?> registro, Exception erro) {
+        if (registro.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+            return true;
+        }
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
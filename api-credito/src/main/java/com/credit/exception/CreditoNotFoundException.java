@@ -1,7 +1,11 @@
 package com.credit.exception;
 
+/**
+ * Lançada em consultas sem resultado. Não captura stack trace: é um fluxo esperado
+ * e frequente (cerca de um terço das consultas), tratado sempre pelo {@link GlobalExceptionHandler}.
+ */
 public class CreditoNotFoundException extends RuntimeException {
     public CreditoNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,46 @@
 package com.credit.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+
+import com.credit.dto.ErroDTO;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(CreditoNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleCreditoNotFoundException(CreditoNotFoundException ex) {
-        Map<String, Object> error = new HashMap<>();
-        error.put("timestamp", LocalDateTime.now());
-        error.put("status", HttpStatus.NOT_FOUND.value());
-        error.put("error", "Não encontrado");
-        error.put("message", ex.getMessage());
+    public ResponseEntity<ErroDTO> handleCreditoNotFoundException(CreditoNotFoundException ex) {
+        ErroDTO error = new ErroDTO(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(), "Não encontrado", ex.getMessage());
 
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<ErroDTO> handleRequisicaoInvalidaException(RequisicaoInvalidaException ex) {
+        ErroDTO error = new ErroDTO(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(), "Requisição inválida", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(ServicoIndisponivelException.class)
+    public ResponseEntity<ErroDTO> handleServicoIndisponivelException(ServicoIndisponivelException ex) {
+        ErroDTO error = new ErroDTO(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(), "Serviço indisponível", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(error);
+    }
+
+    // Sem conexão no prazo (limitador do banco ou pool esgotado), por JDBC ou ao abrir a transação JPA
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<ErroDTO> handleBancoIndisponivel(RuntimeException ex) {
+        ErroDTO error = new ErroDTO(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(), "Serviço indisponível",
+                "Banco de dados sobrecarregado, tente novamente");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+}
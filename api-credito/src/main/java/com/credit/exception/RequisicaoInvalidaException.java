@@ -0,0 +1,7 @@
+package com.credit.exception;
+
+public class RequisicaoInvalidaException extends RuntimeException {
+    public RequisicaoInvalidaException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.credit.exception;
+
+public class ServicoIndisponivelException extends RuntimeException {
+    public ServicoIndisponivelException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -5,7 +5,9 @@ import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import java.util.List;
 import com.credit.dto.CreditoDTO;
+import com.credit.dto.ResumoNfseDTO;
 import com.credit.entity.Credito;
+import com.credit.entity.CreditoResumoNfse;
 
 @Mapper(componentModel = "spring")
 public interface CreditoMapper {
@@ -15,6 +17,8 @@ public interface CreditoMapper {
 
     List<CreditoDTO> toDTOList(List<Credito> creditos);
 
+    ResumoNfseDTO toResumoDTO(CreditoResumoNfse resumo);
+
     @Named("booleanToString")
     default String booleanToString(boolean value) {
         return value ? "Sim" : "Não";
@@ -0,0 +1,20 @@
+package com.credit.repository;
+
+/**
+ * Coluna pesquisada pela busca por prefixo/trecho. Cada uma tem um índice com collation "C"
+ * (prefixo e ordem do keyset) e um GIN de trigramas (trecho); ver scripts/init-db.sql.
+ */
+public enum CampoBusca {
+    NFSE("numero_nfse"),
+    CREDITO("numero_credito");
+
+    private final String coluna;
+
+    CampoBusca(String coluna) {
+        this.coluna = coluna;
+    }
+
+    public String getColuna() {
+        return coluna;
+    }
+}
@@ -0,0 +1,85 @@
+package com.credit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.credit.event.ChaveContadorConsulta;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Contadores de consultas por chave e minuto (tabela consulta_estatistica) e os offsets do
+ * tópico já aplicados a eles (kafka_offset_processado), gravados na mesma transação.
+ */
+@Repository
+@Timed(value = "creditos.repositorio", histogram = true)
+public class ConsultaEstatisticaRepository {
+
+    private static final int LINHAS_POR_INSERT = 500;
+
+    // Ordem fixa das linhas: consumidores concorrentes travam as mesmas chaves na mesma ordem
+    private static final Comparator<ChaveContadorConsulta> ORDEM_CHAVES = Comparator
+            .comparing(ChaveContadorConsulta::getTipoConsulta)
+            .thenComparing(ChaveContadorConsulta::getParametro)
+            .thenComparingLong(ChaveContadorConsulta::getMinuto);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Map<Integer, Long> buscarOffsets(String grupo, String topico) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT particao, ultimo_offset FROM kafka_offset_processado WHERE grupo = ? AND topico = ?",
+                rs -> {
+                    offsets.put(rs.getInt(1), rs.getLong(2));
+                }, grupo, topico);
+        return offsets;
+    }
+
+    /**
+     * Soma os contadores com upserts de várias linhas por comando e avança os offsets processados.
+     * Como as duas coisas são atômicas, um lote reentregue pelo Kafka é reconhecido e não conta em dobro.
+     */
+    @Transactional
+    public void gravarLote(String grupo, String topico, Map<ChaveContadorConsulta, Long> contadores,
+                           Map<Integer, Long> ultimosOffsets) {
+        List<ChaveContadorConsulta> chaves = new ArrayList<>(contadores.keySet());
+        chaves.sort(ORDEM_CHAVES);
+        for (int inicio = 0; inicio < chaves.size(); inicio += LINHAS_POR_INSERT) {
+            List<ChaveContadorConsulta> bloco = chaves.subList(inicio, Math.min(inicio + LINHAS_POR_INSERT, chaves.size()));
+            somarContadores(bloco, contadores);
+        }
+
+        List<Object[]> offsets = new ArrayList<>();
+        ultimosOffsets.forEach((particao, offset) -> offsets.add(new Object[] {grupo, topico, particao, offset}));
+        jdbcTemplate.batchUpdate("INSERT INTO kafka_offset_processado (grupo, topico, particao, ultimo_offset) "
+                + "VALUES (?, ?, ?, ?) "
+                + "ON CONFLICT (grupo, topico, particao) DO UPDATE "
+                + "SET ultimo_offset = GREATEST(kafka_offset_processado.ultimo_offset, EXCLUDED.ultimo_offset), "
+                + "atualizado_em = CURRENT_TIMESTAMP", offsets);
+    }
+
+    private void somarContadores(List<ChaveContadorConsulta> bloco, Map<ChaveContadorConsulta, Long> contadores) {
+        StringBuilder sql = new StringBuilder("INSERT INTO consulta_estatistica (tipo_consulta, parametro, minuto, total) VALUES ");
+        List<Object> parametros = new ArrayList<>(bloco.size() * 4);
+        for (int i = 0; i < bloco.size(); i++) {
+            ChaveContadorConsulta chave = bloco.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            parametros.add(chave.getTipoConsulta());
+            parametros.add(chave.getParametro());
+            parametros.add(new Timestamp(TimeUnit.MINUTES.toMillis(chave.getMinuto())));
+            parametros.add(contadores.get(chave));
+        }
+        sql.append(" ON CONFLICT (tipo_consulta, parametro, minuto) DO UPDATE "
+                + "SET total = consulta_estatistica.total + EXCLUDED.total");
+        jdbcTemplate.update(sql.toString(), parametros.toArray());
+    }
+}
@@ -0,0 +1,150 @@
+package com.credit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.credit.event.CreditoAlteradoEvent;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Leitura incremental de credito_auditoria (por id), posição do publicador em credito_auditoria_publicacao
+ * e ids pulados por ele em credito_auditoria_lacuna.
+ * Os métodos do publicador devem rodar na transação dele, que é quem segura o advisory lock.
+ */
+@Repository
+@Timed(value = "creditos.repositorio", histogram = true)
+public class CreditoAuditoriaRepository {
+
+    // Chave do pg_try_advisory_xact_lock: uma única instância publica por vez
+    private static final long CHAVE_LOCK_PUBLICADOR = 0x4352454449544FL;
+
+    private static final String SQL_SELECT_ALTERACAO =
+            "SELECT id, credito_id, operacao, data_operacao, "
+            + "dados_novos ->> 'numero_nfse' AS nfse_nova, dados_antigos ->> 'numero_nfse' AS nfse_antiga, "
+            + "dados_novos ->> 'numero_credito' AS credito_novo, dados_antigos ->> 'numero_credito' AS credito_antigo "
+            + "FROM credito_auditoria ";
+
+    private static final String SQL_ALTERACOES = SQL_SELECT_ALTERACAO + "WHERE id > ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public boolean tentarLockPublicador() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, CHAVE_LOCK_PUBLICADOR));
+    }
+
+    /**
+     * Posição do publicador. Um publicador novo começa no fim da auditoria: o histórico anterior
+     * não invalida nada e seria só uma rajada de eventos no tópico.
+     */
+    public long buscarUltimoIdPublicado(String publicador) {
+        jdbcTemplate.update("INSERT INTO credito_auditoria_publicacao (publicador, ultimo_id) "
+                + "SELECT ?, COALESCE(MAX(id), 0) FROM credito_auditoria "
+                + "ON CONFLICT (publicador) DO NOTHING", publicador);
+        return jdbcTemplate.queryForObject(
+                "SELECT ultimo_id FROM credito_auditoria_publicacao WHERE publicador = ?", Long.class, publicador);
+    }
+
+    public void registrarUltimoIdPublicado(String publicador, long ultimoId) {
+        jdbcTemplate.update("INSERT INTO credito_auditoria_publicacao (publicador, ultimo_id) VALUES (?, ?) "
+                + "ON CONFLICT (publicador) DO UPDATE "
+                + "SET ultimo_id = GREATEST(credito_auditoria_publicacao.ultimo_id, EXCLUDED.ultimo_id), "
+                + "atualizado_em = CURRENT_TIMESTAMP", publicador, ultimoId);
+    }
+
+    /**
+     * Ids pulados pelo publicador que seguem pendentes -> quando foram pulados (epoch millis),
+     * o mais antigo primeiro.
+     */
+    public Map<Long, Long> buscarLacunasPendentes(String publicador) {
+        Map<Long, Long> lacunas = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT auditoria_id, pulada_em FROM credito_auditoria_lacuna WHERE publicador = ? "
+                        + "ORDER BY pulada_em, auditoria_id",
+                (RowCallbackHandler) rs -> lacunas.put(rs.getLong("auditoria_id"), rs.getTimestamp("pulada_em").getTime()),
+                publicador);
+        return lacunas;
+    }
+
+    public void registrarLacunas(String publicador, Collection<Long> ids, long puladaEm) {
+        Timestamp momento = new Timestamp(puladaEm);
+        List<Object[]> linhas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            linhas.add(new Object[] {publicador, id, momento});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO credito_auditoria_lacuna (publicador, auditoria_id, pulada_em) "
+                + "VALUES (?, ?, ?) ON CONFLICT (publicador, auditoria_id) DO NOTHING", linhas);
+    }
+
+    public void removerLacunas(String publicador, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> parametros = new ArrayList<>(ids.size() + 1);
+        parametros.add(publicador);
+        parametros.addAll(ids);
+        jdbcTemplate.update("DELETE FROM credito_auditoria_lacuna WHERE publicador = ? AND auditoria_id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", parametros.toArray());
+    }
+
+    /**
+     * Maior id já visível em credito_auditoria: até onde os eventos de creditos-eventos devem chegar.
+     */
+    public long buscarUltimoIdAuditoria() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM credito_auditoria", Long.class);
+    }
+
+    public List<CreditoAlteradoEvent> buscarAlteracoesApos(long ultimoId, int limite) {
+        return jdbcTemplate.query(SQL_ALTERACOES, this::mapearAlteracao, ultimoId, limite);
+    }
+
+    /**
+     * Alterações com os ids informados que já estão visíveis; ids ausentes são ignorados.
+     */
+    public List<CreditoAlteradoEvent> buscarAlteracoesPorIds(Collection<Long> ids) {
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query(SQL_SELECT_ALTERACAO + "WHERE id IN (" + marcadores + ") ORDER BY id",
+                this::mapearAlteracao, ids.toArray());
+    }
+
+    /**
+     * Ids dos créditos excluídos a partir de {@code desde}, para o snapshot analítico.
+     */
+    public List<Long> buscarIdsExcluidosDesde(LocalDateTime desde) {
+        return jdbcTemplate.queryForList("SELECT (dados_antigos ->> 'id')::bigint FROM credito_auditoria "
+                + "WHERE operacao = 'DELETE' AND data_operacao >= ?", Long.class, Timestamp.valueOf(desde));
+    }
+
+    private CreditoAlteradoEvent mapearAlteracao(ResultSet rs, int linha) throws SQLException {
+        String nfseNova = rs.getString("nfse_nova");
+        String nfseAntiga = rs.getString("nfse_antiga");
+        String creditoNovo = rs.getString("credito_novo");
+        String creditoAntigo = rs.getString("credito_antigo");
+        Long creditoId = rs.getObject("credito_id", Long.class);
+        Timestamp dataOperacao = rs.getTimestamp("data_operacao");
+
+        return new CreditoAlteradoEvent(
+                rs.getLong("id"),
+                rs.getString("operacao"),
+                creditoId,
+                nfseNova != null ? nfseNova : nfseAntiga,
+                creditoNovo != null ? creditoNovo : creditoAntigo,
+                nfseNova != null && nfseAntiga != null && !Objects.equals(nfseNova, nfseAntiga) ? nfseAntiga : null,
+                creditoNovo != null && creditoAntigo != null && !Objects.equals(creditoNovo, creditoAntigo) ? creditoAntigo : null,
+                dataOperacao != null ? dataOperacao.getTime() : 0L);
+    }
+}
@@ -0,0 +1,289 @@
+package com.credit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.credit.dto.CreditoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Consultas que não passam pelo Hibernate: varreduras grandes e leituras sem entidades gerenciadas.
+ * Os objetos devolvidos nunca entram em um contexto de persistência (sem snapshot para dirty checking
+ * nem flush), o que importa no caminho quente das consultas, que só lê.
+ * As consultas em transação somente leitura podem ir para a réplica ({@code app.banco.replica});
+ * as demais, fora de transação, ficam no primário.
+ */
+@Repository
+@Timed(value = "creditos.repositorio", histogram = true)
+public class CreditoJdbcRepository {
+
+    private static final int FETCH_SIZE = 5000;
+
+    // Valores já em centésimos (bigint): o driver os lê com getLong, sem criar BigDecimal por coluna
+    private static final String COLUNAS_VALOR = centesimos("valor_issqn") + ", tipo_credito, simples_nacional, "
+            + centesimos("aliquota") + ", " + centesimos("valor_faturado") + ", " + centesimos("valor_deducao") + ", "
+            + centesimos("base_calculo");
+
+    private static final String COLUNAS_CREDITO = "id, numero_credito, numero_nfse, data_constituicao, " + COLUNAS_VALOR;
+
+    private static final String COLUNAS_ATUALIZAVEIS = "numero_nfse, data_constituicao, valor_issqn, tipo_credito, "
+            + "simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo";
+
+    private static final String SQL_UPSERT = "INSERT INTO credito (numero_credito, " + COLUNAS_ATUALIZAVEIS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (numero_credito) DO UPDATE SET (" + COLUNAS_ATUALIZAVEIS + ") = "
+            + "(EXCLUDED.numero_nfse, EXCLUDED.data_constituicao, EXCLUDED.valor_issqn, EXCLUDED.tipo_credito, "
+            + "EXCLUDED.simples_nacional, EXCLUDED.aliquota, EXCLUDED.valor_faturado, EXCLUDED.valor_deducao, "
+            + "EXCLUDED.base_calculo) "
+            + "WHERE (credito." + COLUNAS_ATUALIZAVEIS.replace(", ", ", credito.") + ") IS DISTINCT FROM "
+            + "(EXCLUDED." + COLUNAS_ATUALIZAVEIS.replace(", ", ", EXCLUDED.") + ")";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String COLUNAS_DTO = "numero_credito, numero_nfse, data_constituicao, " + COLUNAS_VALOR;
+
+    @Transactional(readOnly = true)
+    public List<CreditoDTO> buscarPorNumeroNfse(String numeroNfse) {
+        return jdbcTemplate.query("SELECT " + COLUNAS_DTO + " FROM credito WHERE numero_nfse = ? ORDER BY id",
+                (rs, linha) -> mapearCreditoDTO(rs), numeroNfse);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CreditoDTO> buscarPorNumeroCredito(String numeroCredito) {
+        List<CreditoDTO> creditos = jdbcTemplate.query("SELECT " + COLUNAS_DTO + " FROM credito WHERE numero_credito = ?",
+                (rs, linha) -> mapearCreditoDTO(rs), numeroCredito);
+        return creditos.stream().findFirst();
+    }
+
+    /**
+     * Mesma página por keyset de {@link CreditoRepository#findByNumeroNfseAndIdGreaterThanOrderByIdAsc},
+     * com o id necessário para o cursor, mas em objetos não gerenciados.
+     */
+    @Transactional(readOnly = true)
+    public List<Credito> buscarPaginaPorNumeroNfse(String numeroNfse, long aposId, int limite) {
+        return jdbcTemplate.query("SELECT " + COLUNAS_CREDITO + " FROM credito WHERE numero_nfse = ? AND id > ? ORDER BY id LIMIT ?",
+                (rs, linha) -> mapearCredito(rs), numeroNfse, aposId, limite);
+    }
+
+    /**
+     * Créditos de várias NFS-e (consulta em lote), em ordem de (numero_nfse, id): a lista de cada
+     * NFS-e sai na mesma ordem da consulta paginada, que é a que vai para o cache.
+     */
+    @Transactional(readOnly = true)
+    public List<Credito> buscarPorNumerosNfse(Collection<String> numerosNfse) {
+        return jdbcTemplate.query("SELECT " + COLUNAS_CREDITO + " FROM credito WHERE numero_nfse IN ("
+                        + marcadores(numerosNfse.size()) + ") ORDER BY numero_nfse, id",
+                (rs, linha) -> mapearCredito(rs), numerosNfse.toArray());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Credito> buscarPorNumerosCredito(Collection<String> numerosCredito) {
+        return jdbcTemplate.query("SELECT " + COLUNAS_CREDITO + " FROM credito WHERE numero_credito IN ("
+                        + marcadores(numerosCredito.size()) + ")",
+                (rs, linha) -> mapearCredito(rs), numerosCredito.toArray());
+    }
+
+    /**
+     * Página da busca por prefixo ou trecho da coluna, em ordem de (coluna COLLATE "C", id) e
+     * continuando após ({@code aposValor}, {@code aposId}) quando {@code aposValor} não é null.
+     * Com COLLATE "C" a mesma expressão serve ao LIKE de prefixo e ao keyset, no mesmo índice.
+     */
+    @Transactional(readOnly = true)
+    public List<Credito> buscarPorTermo(CampoBusca campo, ModoBusca modo, String termo, String tipoCredito,
+                                        LocalDate dataInicio, LocalDate dataFim, String aposValor, long aposId,
+                                        int limite) {
+        String chave = campo.getColuna() + " COLLATE \"C\"";
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUNAS_CREDITO).append(" FROM credito WHERE ");
+        List<Object> parametros = new ArrayList<>();
+        if (modo == ModoBusca.PREFIXO) {
+            sql.append(chave).append(" LIKE ?");
+            parametros.add(escaparLike(termo) + "%");
+        } else {
+            sql.append(campo.getColuna()).append(" LIKE ?");
+            parametros.add("%" + escaparLike(termo) + "%");
+        }
+        if (tipoCredito != null) {
+            sql.append(" AND tipo_credito = ?");
+            parametros.add(tipoCredito);
+        }
+        if (dataInicio != null) {
+            sql.append(" AND data_constituicao >= ?");
+            parametros.add(Date.valueOf(dataInicio));
+        }
+        if (dataFim != null) {
+            sql.append(" AND data_constituicao <= ?");
+            parametros.add(Date.valueOf(dataFim));
+        }
+        if (aposValor != null) {
+            sql.append(" AND (").append(chave).append(", id) > (?, ?)");
+            parametros.add(aposValor);
+            parametros.add(aposId);
+        }
+        sql.append(" ORDER BY ").append(chave).append(", id LIMIT ?");
+        parametros.add(limite);
+
+        return jdbcTemplate.query(sql.toString(), (rs, linha) -> mapearCredito(rs), parametros.toArray());
+    }
+
+    /**
+     * Upsert de um lote por numero_credito em um único batch JDBC (com reWriteBatchedInserts o driver
+     * monta INSERTs de várias linhas). Linhas idênticas às do banco não são reescritas, o que poupa
+     * os triggers de auditoria e de resumo em recargas. O lote não pode repetir numero_credito.
+     * O modo de auditoria vale só para esta transação (SET LOCAL).
+     */
+    @Transactional
+    public void upsertLote(List<Credito> creditos, ModoAuditoria modoAuditoria) {
+        jdbcTemplate.queryForObject("SELECT set_config('app.audit_mode', ?, true)", String.class, modoAuditoria.getValor());
+        jdbcTemplate.batchUpdate(SQL_UPSERT, creditos, creditos.size(), (ps, credito) -> {
+            ps.setString(1, credito.getNumeroCredito());
+            ps.setString(2, credito.getNumeroNfse());
+            ps.setDate(3, Date.valueOf(credito.getDataConstituicao()));
+            ps.setBigDecimal(4, credito.getValorIssqn().toBigDecimal());
+            ps.setString(5, credito.getTipoCredito());
+            ps.setBoolean(6, credito.isSimplesNacional());
+            ps.setBigDecimal(7, credito.getAliquota().toBigDecimal());
+            ps.setBigDecimal(8, credito.getValorFaturado().toBigDecimal());
+            ps.setBigDecimal(9, credito.getValorDeducao().toBigDecimal());
+            ps.setBigDecimal(10, credito.getBaseCalculo().toBigDecimal());
+        });
+    }
+
+    public long contar() {
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM credito", Long.class);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Fica no primário: o filtro de Bloom montado daqui não pode perder chaves recém-gravadas que a
+     * réplica ainda não recebeu (virariam 404 até a próxima reconstrução).
+     */
+    public void percorrerChaves(BiConsumer<String, String> consumidor) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT numero_nfse, numero_credito FROM credito");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumidor.accept(rs.getString(1), rs.getString(2)));
+    }
+
+    /**
+     * Lê uma página do período em ordem de id, começando após {@code aposId} (paginação por keyset:
+     * cada página é uma busca no índice, sem OFFSET). Retorna quantas linhas foram entregues.
+     */
+    @Transactional(readOnly = true)
+    public int percorrerPorPeriodo(LocalDate dataInicio, LocalDate dataFim, String tipoCredito,
+                                   long aposId, int limite, Consumer<Credito> consumidor) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUNAS_CREDITO)
+                .append(" FROM credito WHERE data_constituicao BETWEEN ? AND ?");
+        if (tipoCredito != null) {
+            sql.append(" AND tipo_credito = ?");
+        }
+        sql.append(" AND id > ? ORDER BY id LIMIT ?");
+
+        int[] lidas = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            int i = 1;
+            statement.setDate(i++, Date.valueOf(dataInicio));
+            statement.setDate(i++, Date.valueOf(dataFim));
+            if (tipoCredito != null) {
+                statement.setString(i++, tipoCredito);
+            }
+            statement.setLong(i++, aposId);
+            statement.setInt(i, limite);
+            statement.setFetchSize(Math.min(limite, FETCH_SIZE));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            consumidor.accept(mapearCredito(rs));
+            lidas[0]++;
+        });
+        return lidas[0];
+    }
+
+    /**
+     * Créditos com updated_at a partir de {@code desde} (todos, se null), em ordem de id.
+     * Alimenta o snapshot analítico; updated_at é a hora de início da transação que gravou.
+     */
+    @Transactional(readOnly = true)
+    public void percorrerAlteradosDesde(LocalDateTime desde, Consumer<Credito> consumidor) {
+        String sql = "SELECT " + COLUNAS_CREDITO + " FROM credito" + (desde != null ? " WHERE updated_at >= ?" : "")
+                + " ORDER BY id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            if (desde != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(desde));
+            }
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumidor.accept(mapearCredito(rs)));
+    }
+
+    public LocalDateTime horaBanco() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+    }
+
+    private static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private static String centesimos(String coluna) {
+        return "CAST(" + coluna + " * 100 AS BIGINT) AS " + coluna;
+    }
+
+    // Curingas digitados pelo usuário são literais (no PostgreSQL o caractere de escape padrão do LIKE é a barra invertida)
+    private static String escaparLike(String termo) {
+        return termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Linha direto para o DTO, no mesmo formato do {@link com.credit.mapper.CreditoMapper} ("Sim"/"Não").
+     */
+    private static CreditoDTO mapearCreditoDTO(ResultSet rs) throws SQLException {
+        return new CreditoDTO(
+                rs.getString("numero_credito"),
+                rs.getString("numero_nfse"),
+                rs.getDate("data_constituicao").toLocalDate(),
+                Valor.deCentesimos(rs.getLong("valor_issqn")),
+                rs.getString("tipo_credito"),
+                rs.getBoolean("simples_nacional") ? "Sim" : "Não",
+                Valor.deCentesimos(rs.getLong("aliquota")),
+                Valor.deCentesimos(rs.getLong("valor_faturado")),
+                Valor.deCentesimos(rs.getLong("valor_deducao")),
+                Valor.deCentesimos(rs.getLong("base_calculo")));
+    }
+
+    private static Credito mapearCredito(ResultSet rs) throws SQLException {
+        return new Credito(
+                rs.getLong("id"),
+                rs.getString("numero_credito"),
+                rs.getString("numero_nfse"),
+                rs.getDate("data_constituicao").toLocalDate(),
+                Valor.deCentesimos(rs.getLong("valor_issqn")),
+                rs.getString("tipo_credito"),
+                rs.getBoolean("simples_nacional"),
+                Valor.deCentesimos(rs.getLong("aliquota")),
+                Valor.deCentesimos(rs.getLong("valor_faturado")),
+                Valor.deCentesimos(rs.getLong("valor_deducao")),
+                Valor.deCentesimos(rs.getLong("base_calculo")));
+    }
+}
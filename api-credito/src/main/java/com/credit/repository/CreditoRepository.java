@@ -1,7 +1,10 @@
 package com.credit.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,7 +13,17 @@ import com.credit.entity.Credito;
 @Repository
 public interface CreditoRepository extends JpaRepository<Credito, Long> {
 
+    // Entidades só leitura: o Hibernate não guarda o snapshot para dirty checking
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
     List<Credito> findByNumeroNfse(String numeroNfse);
 
+    /**
+     * Página por keyset: créditos da NFS-e com id maior que {@code aposId}, em ordem de id.
+     * O tamanho vem do {@link Pageable}; a página é sempre a 0 (sem OFFSET).
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Credito> findByNumeroNfseAndIdGreaterThanOrderByIdAsc(String numeroNfse, Long aposId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Optional<Credito> findByNumeroCredito(String numeroCredito);
 }
@@ -0,0 +1,10 @@
+package com.credit.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.credit.entity.CreditoResumoNfse;
+
+@Repository
+public interface CreditoResumoNfseRepository extends JpaRepository<CreditoResumoNfse, String> {
+}
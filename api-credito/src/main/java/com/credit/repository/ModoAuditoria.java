@@ -0,0 +1,21 @@
+package com.credit.repository;
+
+/**
+ * Modo do trigger de auditoria de credito, escolhido por transação pelo parâmetro app.audit_mode.
+ * LINHA é o trigger FOR EACH ROW de sempre; LOTE grava as mesmas linhas de credito_auditoria com um
+ * INSERT ... SELECT por comando, a partir das tabelas de transição (ver scripts/init-db.sql).
+ */
+public enum ModoAuditoria {
+    LINHA("linha"),
+    LOTE("lote");
+
+    private final String valor;
+
+    ModoAuditoria(String valor) {
+        this.valor = valor;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+}
@@ -0,0 +1,10 @@
+package com.credit.repository;
+
+/**
+ * PREFIXO: {@code LIKE 'termo%'}, resolvido por intervalo no índice btree.
+ * CONTEM: {@code LIKE '%termo%'}, pelo índice de trigramas (exige ao menos 3 caracteres).
+ */
+public enum ModoBusca {
+    PREFIXO,
+    CONTEM
+}
@@ -0,0 +1,129 @@
+package com.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.credit.cache.Agrupamento;
+import com.credit.cache.ColunasCredito;
+import com.credit.dto.TotaisAnaliticosDTO;
+import com.credit.dto.TotalAnaliticoDTO;
+import com.credit.entity.Credito;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.exception.ServicoIndisponivelException;
+import com.credit.repository.CreditoAuditoriaRepository;
+import com.credit.repository.CreditoJdbcRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Totais por tipo de crédito, mês de constituição ou Simples Nacional calculados sobre um snapshot
+ * em colunas da tabela credito ({@link ColunasCredito}), sem ir ao banco. O snapshot é carregado
+ * inteiro na primeira execução e depois atualizado a cada intervalo com os créditos de updated_at
+ * recente e as exclusões registradas em credito_auditoria. A janela de cada atualização recua
+ * {@code margem-s} antes da anterior, para pegar transações longas que gravaram com updated_at antigo;
+ * reaplicar uma linha é inofensivo.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.analitico.snapshot.enabled", havingValue = "true")
+@Timed(value = "creditos.servico", histogram = true)
+public class AnaliticoService {
+
+    @Autowired
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Autowired
+    private CreditoAuditoriaRepository creditoAuditoriaRepository;
+
+    @Value("${app.analitico.snapshot.margem-s:60}")
+    private long margemSegundos = 60;
+
+    /** Fração de linhas excluídas (ainda ocupando espaço) acima da qual o snapshot é recarregado. */
+    @Value("${app.analitico.snapshot.fracao-recarga:0.2}")
+    private double fracaoRecarga = 0.2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile ColunasCredito colunas;
+    private volatile LocalDateTime atualizadoEm;
+
+    @Scheduled(fixedDelayString = "${app.analitico.snapshot.intervalo-ms:10000}")
+    public void atualizar() {
+        if (colunas == null) {
+            recarregar();
+            return;
+        }
+
+        LocalDateTime marca = creditoJdbcRepository.horaBanco();
+        LocalDateTime desde = atualizadoEm.minusSeconds(margemSegundos);
+        List<Credito> alterados = new ArrayList<>();
+        creditoJdbcRepository.percorrerAlteradosDesde(desde, alterados::add);
+        List<Long> excluidos = creditoAuditoriaRepository.buscarIdsExcluidosDesde(desde);
+
+        boolean foraDeOrdem = false;
+        lock.writeLock().lock();
+        try {
+            for (Credito credito : alterados) {
+                foraDeOrdem |= !colunas.gravar(credito);
+            }
+            for (Long id : excluidos) {
+                colunas.remover(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        atualizadoEm = marca;
+
+        if (foraDeOrdem || colunas.getRemovidas() > fracaoRecarga * (colunas.getLinhas() + colunas.getRemovidas())) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Monta um snapshot novo sem bloquear as leituras, que continuam no anterior até a troca.
+     */
+    public void recarregar() {
+        long inicio = System.nanoTime();
+        LocalDateTime marca = creditoJdbcRepository.horaBanco();
+        ColunasCredito novas = new ColunasCredito(colunas != null ? colunas.getLinhas() : 1024);
+        creditoJdbcRepository.percorrerAlteradosDesde(null, novas::gravar);
+
+        lock.writeLock().lock();
+        try {
+            colunas = novas;
+            atualizadoEm = marca;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Snapshot analítico carregado: {} créditos em {} ms", novas.getLinhas(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    public TotaisAnaliticosDTO totalizar(Agrupamento agrupamento, LocalDate dataInicio, LocalDate dataFim,
+                                         String tipoCredito, Boolean simplesNacional) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw new RequisicaoInvalidaException("dataInicio deve ser anterior ou igual a dataFim");
+        }
+        String tipo = tipoCredito != null && !tipoCredito.isBlank() ? tipoCredito.trim() : null;
+
+        lock.readLock().lock();
+        try {
+            if (colunas == null) {
+                throw new ServicoIndisponivelException("Snapshot analítico ainda em carga, tente novamente");
+            }
+            List<TotalAnaliticoDTO> totais = colunas.totalizar(agrupamento, dataInicio, dataFim, tipo, simplesNacional);
+            return new TotaisAnaliticosDTO(agrupamento.name(), atualizadoEm, totais);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.credit.cache.ChavesQuentes;
+import com.credit.cache.SnapshotChavesQuentes;
+import com.credit.dto.ChaveQuenteDTO;
+import com.credit.dto.ConsultaLoteResponseDTO;
+import com.credit.dto.CreditoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.mapper.CreditoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Aquecimento na subida, antes de a instância se declarar pronta: as chaves mais consultadas antes
+ * do restart são carregadas nos caches (do banco, em lote) e o mapper e o serializador JSON são
+ * exercitados até o JIT compilá-los. As chaves vêm do snapshot gravado na parada anterior
+ * ({@link SnapshotChavesQuentes}) e/ou de uma lista capturada de /actuator/chavesquentes de outra
+ * instância; o ranking de {@link ChavesQuentes} também é restaurado com elas.
+ * <p>
+ * Roda como ApplicationRunner, então o readiness só passa a ACCEPTING_TRAFFIC depois dele; o
+ * health "aquecimento" fica OUT_OF_SERVICE até o fim, com o progresso nos detalhes. Falhas e o
+ * timeout não impedem a subida: a instância só começa mais fria.
+ */
+@Slf4j
+@Service("aquecimento")
+public class AquecimentoService implements ApplicationRunner, HealthIndicator {
+
+    enum Estado { PENDENTE, AQUECENDO, PRONTO, DESLIGADO }
+
+    @Autowired
+    private CreditoService creditoService;
+
+    @Autowired
+    private ChavesQuentes chavesQuentes;
+
+    @Autowired
+    private CreditoMapper creditoMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.aquecimento.enabled:true}")
+    private boolean habilitado = true;
+
+    /** JSON no formato de GET /actuator/chavesquentes; vazio para não usar. */
+    @Value("${app.aquecimento.chaves-arquivo:}")
+    private String chavesArquivo = "";
+
+    /** Snapshot do ranking gravado na parada (e a cada intervalo); vazio para não gravar nem ler. */
+    @Value("${app.aquecimento.snapshot.arquivo:}")
+    private String snapshotArquivo = "";
+
+    @Value("${app.aquecimento.max-chaves:1000}")
+    private int maxChaves = 1000;
+
+    @Value("${app.aquecimento.tamanho-bloco:100}")
+    private int tamanhoBloco = 100;
+
+    @Value("${app.aquecimento.timeout-s:60}")
+    private long timeoutSegundos = 60;
+
+    @Value("${app.aquecimento.jit.iteracoes:10000}")
+    private int iteracoesJit = 10000;
+
+    private volatile Estado estado = Estado.PENDENTE;
+    private volatile String fonte = "nenhuma";
+    private volatile int totalChaves;
+    private final AtomicInteger chavesCarregadas = new AtomicInteger();
+    private final AtomicInteger chavesNaoEncontradas = new AtomicInteger();
+    private final AtomicInteger blocosComFalha = new AtomicInteger();
+    private volatile int iteracoesJitConcluidas;
+    private volatile long duracaoMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        aquecer();
+    }
+
+    void aquecer() {
+        if (!habilitado) {
+            estado = Estado.DESLIGADO;
+            return;
+        }
+        estado = Estado.AQUECENDO;
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.SECONDS.toNanos(timeoutSegundos);
+
+        Map<String, Long> numerosNfse = new LinkedHashMap<>();
+        Map<String, Long> numerosCredito = new LinkedHashMap<>();
+        List<String> fontes = new ArrayList<>();
+        if (lerSnapshot(numerosNfse, numerosCredito)) {
+            fontes.add("snapshot");
+        }
+        if (lerChavesCapturadas(numerosNfse, numerosCredito)) {
+            fontes.add("chaves-arquivo");
+        }
+        fonte = fontes.isEmpty() ? "nenhuma" : String.join(",", fontes);
+        List<String> nfses = limitar(numerosNfse);
+        List<String> creditos = limitar(numerosCredito);
+        totalChaves = nfses.size() + creditos.size();
+
+        numerosNfse.forEach(chavesQuentes::restaurarNumeroNfse);
+        numerosCredito.forEach(chavesQuentes::restaurarNumeroCredito);
+
+        List<CreditoDTO> amostra = new ArrayList<>();
+        if (carregar(nfses, true, limite, amostra)) {
+            carregar(creditos, false, limite, amostra);
+        }
+        exercitarJit(amostra, limite);
+
+        duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        estado = Estado.PRONTO;
+        log.info("Aquecimento concluído em {} ms: {} de {} chaves carregadas ({}), {} iterações de JIT",
+                duracaoMs, chavesCarregadas.get(), totalChaves, fonte, iteracoesJitConcluidas);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravarSnapshot();
+    }
+
+    /**
+     * Também grava a cada intervalo, para que uma parada sem shutdown (kill -9, OOM) não perca o ranking.
+     */
+    @Scheduled(fixedDelayString = "${app.aquecimento.snapshot.intervalo-ms:300000}",
+            initialDelayString = "${app.aquecimento.snapshot.intervalo-ms:300000}")
+    public void gravarSnapshot() {
+        if (!habilitado || snapshotArquivo.isBlank() || !chavesQuentes.isHabilitado()) {
+            return;
+        }
+        SnapshotChavesQuentes snapshot = SnapshotChavesQuentes.de(chavesQuentes);
+        // Sem consultas desde a subida: fica o snapshot anterior
+        if (snapshot.isVazio()) {
+            return;
+        }
+        try {
+            snapshot.gravar(Paths.get(snapshotArquivo));
+            log.debug("Snapshot de chaves quentes gravado em {}", snapshotArquivo);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha ao gravar o snapshot de chaves quentes em {}: {}", snapshotArquivo, e.getMessage());
+        }
+    }
+
+    @Override
+    public Health health() {
+        Estado atual = estado;
+        Health.Builder health = atual == Estado.PRONTO || atual == Estado.DESLIGADO ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("estado", atual)
+                .withDetail("fonte", fonte)
+                .withDetail("chaves", totalChaves)
+                .withDetail("carregadas", chavesCarregadas.get())
+                .withDetail("naoEncontradas", chavesNaoEncontradas.get())
+                .withDetail("blocosComFalha", blocosComFalha.get())
+                .withDetail("iteracoesJit", iteracoesJitConcluidas)
+                .withDetail("duracaoMs", duracaoMs)
+                .build();
+    }
+
+    private boolean lerSnapshot(Map<String, Long> numerosNfse, Map<String, Long> numerosCredito) {
+        if (snapshotArquivo.isBlank() || !Files.exists(Paths.get(snapshotArquivo))) {
+            return false;
+        }
+        try {
+            SnapshotChavesQuentes snapshot = SnapshotChavesQuentes.ler(Paths.get(snapshotArquivo));
+            juntar(numerosNfse, snapshot.getNumerosNfse());
+            juntar(numerosCredito, snapshot.getNumerosCredito());
+            log.info("Snapshot de chaves quentes de {} lido de {}", snapshot.getGeradoEm(), snapshotArquivo);
+            return true;
+        } catch (IOException e) {
+            log.warn("Snapshot de chaves quentes ignorado ({}): {}", snapshotArquivo, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean lerChavesCapturadas(Map<String, Long> numerosNfse, Map<String, Long> numerosCredito) {
+        if (chavesArquivo.isBlank()) {
+            return false;
+        }
+        Path arquivo = Paths.get(chavesArquivo);
+        try {
+            Map<String, List<ChaveQuenteDTO>> capturadas = objectMapper.readValue(arquivo.toFile(),
+                    new TypeReference<Map<String, List<ChaveQuenteDTO>>>() {});
+            juntar(numerosNfse, capturadas.getOrDefault("numerosNfse", Collections.emptyList()));
+            juntar(numerosCredito, capturadas.getOrDefault("numerosCredito", Collections.emptyList()));
+            return true;
+        } catch (IOException e) {
+            log.warn("Lista de chaves para aquecimento ignorada ({}): {}", chavesArquivo, e.getMessage());
+            return false;
+        }
+    }
+
+    // A mesma chave nas duas fontes fica com a maior estimativa
+    private static void juntar(Map<String, Long> destino, List<ChaveQuenteDTO> chaves) {
+        for (ChaveQuenteDTO chave : chaves) {
+            if (chave.getChave() != null && !chave.getChave().isBlank()) {
+                destino.merge(chave.getChave().trim(), chave.getEstimativa(), Math::max);
+            }
+        }
+    }
+
+    // As de maior estimativa primeiro: com timeout, as mais consultadas já estão carregadas
+    private List<String> limitar(Map<String, Long> chaves) {
+        List<String> ordenadas = new ArrayList<>(chaves.keySet());
+        ordenadas.sort((a, b) -> Long.compare(chaves.get(b), chaves.get(a)));
+        return ordenadas.size() > maxChaves ? new ArrayList<>(ordenadas.subList(0, maxChaves)) : ordenadas;
+    }
+
+    /**
+     * Devolve false se parou pelo timeout.
+     */
+    private boolean carregar(List<String> chaves, boolean porNfse, long limite, List<CreditoDTO> amostra) {
+        int tamanho = Math.max(1, tamanhoBloco);
+        for (int inicio = 0; inicio < chaves.size(); inicio += tamanho) {
+            if (System.nanoTime() - limite > 0) {
+                log.warn("Aquecimento interrompido pelo timeout de {} s: {} de {} chaves carregadas",
+                        timeoutSegundos, chavesCarregadas.get(), totalChaves);
+                return false;
+            }
+            List<String> bloco = chaves.subList(inicio, Math.min(inicio + tamanho, chaves.size()));
+            try {
+                ConsultaLoteResponseDTO resposta = porNfse
+                        ? creditoService.aquecer(bloco, Collections.emptyList())
+                        : creditoService.aquecer(Collections.emptyList(), bloco);
+                resposta.getCreditosPorNfse().values().forEach(amostra::addAll);
+                amostra.addAll(resposta.getCreditosPorNumero().values());
+                chavesCarregadas.addAndGet(resposta.getCreditosPorNfse().size() + resposta.getCreditosPorNumero().size());
+                chavesNaoEncontradas.addAndGet(resposta.getNfseNaoEncontradas().size()
+                        + resposta.getCreditosNaoEncontrados().size());
+            } catch (RuntimeException e) {
+                blocosComFalha.incrementAndGet();
+                log.warn("Falha ao aquecer um bloco de {} chaves: {}", bloco.size(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mapper e serializador com um crédito de todos os campos preenchidos (sem banco, funciona mesmo
+     * sem chaves) e com os créditos carregados, até o C2 compilar os caminhos das consultas.
+     */
+    private void exercitarJit(List<CreditoDTO> amostra, long limite) {
+        Credito exemplo = new Credito(1L, "AQUECIMENTO", "AQUECIMENTO", LocalDate.of(2024, 1, 1), Valor.de("1500.75"),
+                "ISSQN", true, Valor.de("5.00"), Valor.de("30000.00"), Valor.de("5000.00"), Valor.de("25000.00"));
+        int iteracao = 0;
+        try {
+            for (; iteracao < iteracoesJit; iteracao++) {
+                // Checa o relógio só de vez em quando, para não pesar no laço
+                if ((iteracao & 1023) == 0 && System.nanoTime() - limite > 0) {
+                    break;
+                }
+                objectMapper.writeValueAsBytes(creditoMapper.toDTO(exemplo));
+                if (!amostra.isEmpty()) {
+                    objectMapper.writeValueAsBytes(amostra.get(iteracao % amostra.size()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Aquecimento do serializador interrompido: {}", e.getMessage());
+        }
+        iteracoesJitConcluidas = iteracao;
+    }
+}
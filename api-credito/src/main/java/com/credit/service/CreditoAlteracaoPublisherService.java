@@ -0,0 +1,203 @@
+package com.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import com.credit.event.CreditoAlteradoEvent;
+import com.credit.repository.CreditoAuditoriaRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Acompanha credito_auditoria (preenchida pelo trigger credito_audit) pelo id e publica cada
+ * alteração em creditos-eventos, com chave numero_nfse, para invalidação por push nos consumidores.
+ *
+ * <p>Cada ciclo roda numa transação que segura um advisory lock, então só uma instância publica
+ * por vez. A posição só avança depois que o Kafka confirma o lote inteiro: uma falha no meio
+ * republica o lote no ciclo seguinte (entrega pelo menos uma vez).
+ *
+ * <p>Ids de identity são reservados antes do commit, então uma transação ainda aberta pode deixar
+ * um buraco que só aparece depois. O ciclo para antes de uma lacuna recente e só a pula quando ela
+ * passa de {@code espera-lacuna-ms}. Os ids pulados continuam sendo reconsultados a cada ciclo e
+ * são publicados quando a transação longa enfim confirma; depois de {@code retencao-lacuna-ms}
+ * são dados como descartados (transação desfeita). A lista fica em credito_auditoria_lacuna e é
+ * gravada na mesma transação que a posição, então a instância que assumir o lock continua de onde
+ * a anterior parou.
+ */
+@Slf4j
+@Service
+@Timed(value = "creditos.servico", histogram = true)
+public class CreditoAlteracaoPublisherService {
+
+    static final String TOPICO = "creditos-eventos";
+
+    @Autowired
+    private CreditoAuditoriaRepository creditoAuditoriaRepository;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.eventos.publicador.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${app.kafka.eventos.publicador.nome:creditos-eventos}")
+    private String publicador = "creditos-eventos";
+
+    @Value("${app.kafka.eventos.publicador.tamanho-lote:500}")
+    private int tamanhoLote = 500;
+
+    @Value("${app.kafka.eventos.publicador.espera-lacuna-ms:5000}")
+    private long esperaLacunaMs = 5000;
+
+    @Value("${app.kafka.eventos.publicador.retencao-lacuna-ms:600000}")
+    private long retencaoLacunaMs = 600000;
+
+    @Value("${app.kafka.eventos.publicador.max-lacunas-pendentes:1000}")
+    private int maxLacunasPendentes = 1000;
+
+    @Value("${app.kafka.eventos.publicador.timeout-envio-ms:30000}")
+    private long timeoutEnvioMs = 30000;
+
+    // Só acessados pela thread do agendador
+    private long lacunaId = -1;
+    private long lacunaDesde;
+
+    @Scheduled(initialDelayString = "${app.kafka.eventos.publicador.intervalo-ms:1000}",
+            fixedDelayString = "${app.kafka.eventos.publicador.intervalo-ms:1000}")
+    @Transactional
+    public int publicarPendentes() {
+        if (!habilitado || !creditoAuditoriaRepository.tentarLockPublicador()) {
+            return 0;
+        }
+
+        long agora = System.currentTimeMillis();
+        // Ids pulados -> quando foram pulados, o mais antigo primeiro
+        Map<Long, Long> lacunas = creditoAuditoriaRepository.buscarLacunasPendentes(publicador);
+        List<CreditoAlteradoEvent> atrasadas = buscarLacunasPreenchidas(lacunas, agora);
+        long ultimoId = creditoAuditoriaRepository.buscarUltimoIdPublicado(publicador);
+        List<CreditoAlteradoEvent> alteracoes = creditoAuditoriaRepository.buscarAlteracoesApos(ultimoId, tamanhoLote);
+        List<Long> puladas = new ArrayList<>();
+        int publicaveis = contarAteLacuna(alteracoes, ultimoId, agora, puladas);
+        if (publicaveis == 0 && atrasadas.isEmpty()) {
+            return 0;
+        }
+
+        // A invalidação é idempotente, então a linha atrasada pode sair depois de ids maiores
+        List<ListenableFuture<SendResult<String, Object>>> envios = new ArrayList<>(atrasadas.size() + publicaveis);
+        for (CreditoAlteradoEvent alteracao : atrasadas) {
+            envios.add(kafkaTemplate.send(TOPICO, alteracao.getNumeroNfse(), alteracao));
+        }
+        for (CreditoAlteradoEvent alteracao : alteracoes.subList(0, publicaveis)) {
+            envios.add(kafkaTemplate.send(TOPICO, alteracao.getNumeroNfse(), alteracao));
+        }
+        aguardarEnvios(envios);
+
+        // Só depois da confirmação do Kafka: numa falha, o próximo ciclo refaz tudo a partir do mesmo ponto
+        List<Long> preenchidas = atrasadas.stream().map(CreditoAlteradoEvent::getAuditoriaId).collect(Collectors.toList());
+        lacunas.keySet().removeAll(preenchidas);
+        creditoAuditoriaRepository.removerLacunas(publicador, preenchidas);
+        registrarLacunas(lacunas, puladas, agora);
+        if (publicaveis > 0) {
+            long novoUltimoId = alteracoes.get(publicaveis - 1).getAuditoriaId();
+            creditoAuditoriaRepository.registrarUltimoIdPublicado(publicador, novoUltimoId);
+            log.debug("Publicadas {} alterações de crédito em {} (auditoria até id {})", publicaveis, TOPICO, novoUltimoId);
+        }
+        if (!atrasadas.isEmpty()) {
+            log.info("Publicadas {} alterações de crédito que chegaram depois da lacuna ser pulada", atrasadas.size());
+        }
+        return atrasadas.size() + publicaveis;
+    }
+
+    /**
+     * Quantas alterações, a partir do início, podem ser publicadas sem passar por uma lacuna recente de ids.
+     * Os ids das lacunas puladas no caminho vão para {@code puladas}.
+     */
+    int contarAteLacuna(List<CreditoAlteradoEvent> alteracoes, long ultimoId, long agora, List<Long> puladas) {
+        long esperado = ultimoId + 1;
+        for (int i = 0; i < alteracoes.size(); i++) {
+            long id = alteracoes.get(i).getAuditoriaId();
+            if (id != esperado) {
+                if (lacunaId != esperado) {
+                    lacunaId = esperado;
+                    lacunaDesde = agora;
+                }
+                if (agora - lacunaDesde < esperaLacunaMs) {
+                    return i;
+                }
+                log.debug("Lacuna de ids {}..{} em credito_auditoria pulada após {} ms", esperado, id - 1, agora - lacunaDesde);
+                for (long pulado = esperado; pulado < id; pulado++) {
+                    puladas.add(pulado);
+                }
+            }
+            esperado = id + 1;
+        }
+        return alteracoes.size();
+    }
+
+    /**
+     * Ids pulados que já aparecem em credito_auditoria. Os que passaram da retenção saem da lista.
+     */
+    private List<CreditoAlteradoEvent> buscarLacunasPreenchidas(Map<Long, Long> lacunas, long agora) {
+        List<Long> expiradas = lacunas.entrySet().stream()
+                .filter(lacuna -> agora - lacuna.getValue() > retencaoLacunaMs)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (!expiradas.isEmpty()) {
+            lacunas.keySet().removeAll(expiradas);
+            creditoAuditoriaRepository.removerLacunas(publicador, expiradas);
+        }
+        if (lacunas.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return creditoAuditoriaRepository.buscarAlteracoesPorIds(lacunas.keySet());
+    }
+
+    /**
+     * Grava os ids recém-pulados; acima de {@code max-lacunas-pendentes} os mais antigos deixam de ser reconsultados.
+     */
+    private void registrarLacunas(Map<Long, Long> lacunas, List<Long> puladas, long agora) {
+        List<Long> novas = puladas.stream().filter(id -> !lacunas.containsKey(id)).collect(Collectors.toList());
+        int excesso = lacunas.size() + novas.size() - maxLacunasPendentes;
+        if (excesso > 0) {
+            List<Long> descartadas = new ArrayList<>(lacunas.keySet()).subList(0, Math.min(excesso, lacunas.size()));
+            if (excesso > lacunas.size()) {
+                novas = novas.subList(excesso - lacunas.size(), novas.size());
+            }
+            log.warn("{} ids de credito_auditoria deixam de ser reconsultados: limite de {} lacunas pendentes",
+                    excesso, maxLacunasPendentes);
+            creditoAuditoriaRepository.removerLacunas(publicador, descartadas);
+        }
+        if (!novas.isEmpty()) {
+            creditoAuditoriaRepository.registrarLacunas(publicador, novas, agora);
+        }
+    }
+
+    private void aguardarEnvios(List<ListenableFuture<SendResult<String, Object>>> envios) {
+        try {
+            for (ListenableFuture<SendResult<String, Object>> envio : envios) {
+                envio.get(timeoutEnvioMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Publicação em " + TOPICO + " interrompida", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Desfaz a transação: a posição não avança e o lote é republicado no próximo ciclo
+            throw new IllegalStateException("Falha ao publicar alterações de crédito em " + TOPICO, e);
+        }
+    }
+}
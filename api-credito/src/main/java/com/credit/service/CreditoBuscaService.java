@@ -0,0 +1,114 @@
+package com.credit.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.entity.Credito;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.mapper.CreditoMapper;
+import com.credit.repository.CampoBusca;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoBusca;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Busca parcial por número da NFS-e ou do crédito, paginada por keyset na ordem do índice
+ * (valor da coluna, id). Sem cache: os termos variam demais para valer a pena.
+ */
+@Service
+@Timed(value = "creditos.servico", histogram = true)
+public class CreditoBuscaService {
+
+    private static final int TAMANHO_MAXIMO_TERMO = 50;
+    private static final int TAMANHO_MINIMO_TRECHO = 3;
+
+    @Autowired
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Autowired
+    private CreditoMapper creditoMapper;
+
+    @Autowired
+    private EventPublisherService eventPublisherService;
+
+    @Value("${app.busca.tamanho-pagina:20}")
+    private int tamanhoPagina = 20;
+
+    @Value("${app.busca.tamanho-maximo:100}")
+    private int tamanhoMaximo = 100;
+
+    public PaginaCreditosDTO buscar(String termo, CampoBusca campo, ModoBusca modo, String tipoCredito,
+                                    LocalDate dataInicio, LocalDate dataFim, String cursor, Integer limite) {
+        String termoNormalizado = termo != null ? termo.trim() : "";
+        if (termoNormalizado.isEmpty() || termoNormalizado.length() > TAMANHO_MAXIMO_TERMO) {
+            throw new RequisicaoInvalidaException("termo deve ter entre 1 e " + TAMANHO_MAXIMO_TERMO + " caracteres");
+        }
+        if (modo == ModoBusca.CONTEM && termoNormalizado.length() < TAMANHO_MINIMO_TRECHO) {
+            throw new RequisicaoInvalidaException("A busca por trecho exige ao menos " + TAMANHO_MINIMO_TRECHO + " caracteres");
+        }
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw new RequisicaoInvalidaException("dataInicio deve ser anterior ou igual a dataFim");
+        }
+        int tamanho = limite != null ? limite : tamanhoPagina;
+        if (tamanho < 1 || tamanho > tamanhoMaximo) {
+            throw new RequisicaoInvalidaException("limite deve estar entre 1 e " + tamanhoMaximo);
+        }
+        String tipo = tipoCredito != null && !tipoCredito.isBlank() ? tipoCredito.trim() : null;
+
+        String aposValor = null;
+        long aposId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] posicao = decodificarCursor(cursor);
+            aposValor = posicao[0];
+            aposId = Long.parseLong(posicao[1]);
+        }
+
+        List<Credito> creditos = creditoJdbcRepository.buscarPorTermo(campo, modo, termoNormalizado, tipo,
+                dataInicio, dataFim, aposValor, aposId, tamanho + 1);
+        boolean temProxima = creditos.size() > tamanho;
+        if (temProxima) {
+            creditos = creditos.subList(0, tamanho);
+        }
+        String proximoCursor = null;
+        if (temProxima) {
+            Credito ultimo = creditos.get(tamanho - 1);
+            proximoCursor = codificarCursor(campo == CampoBusca.NFSE ? ultimo.getNumeroNfse() : ultimo.getNumeroCredito(),
+                    ultimo.getId());
+        }
+
+        if (cursor == null || cursor.isBlank()) {
+            eventPublisherService.publishConsultaEvent("BUSCA_" + campo + "_" + modo, termoNormalizado);
+        }
+        return new PaginaCreditosDTO(creditoMapper.toDTOList(creditos), proximoCursor);
+    }
+
+    /**
+     * Posição do keyset: valor da coluna e id do último item entregue.
+     */
+    static String codificarCursor(String ultimoValor, long ultimoId) {
+        byte[] conteudo = (ultimoValor + ":" + ultimoId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo);
+    }
+
+    static String[] decodificarCursor(String cursor) {
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = conteudo.lastIndexOf(':');
+            if (separador < 0) {
+                throw new RequisicaoInvalidaException("Cursor de busca inválido");
+            }
+            String id = conteudo.substring(separador + 1);
+            Long.parseLong(id);
+            return new String[] {conteudo.substring(0, separador), id};
+        } catch (IllegalArgumentException e) {
+            throw new RequisicaoInvalidaException("Cursor de busca inválido");
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.credit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.dto.CreditoDTO;
+import com.credit.dto.ImportacaoResultadoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoAuditoria;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Carga de créditos em NDJSON (mesmo formato da exportação) ou CSV com cabeçalho.
+ * O corpo é lido linha a linha: cada linha é validada ao chegar e as válidas se acumulam em
+ * lotes gravados por {@link CreditoJdbcRepository#upsertLote}, sem passar pelo Hibernate
+ * (o id IDENTITY impede o batch de inserts dele). Cada lote é uma transação; como a gravação é
+ * um upsert por numero_credito, uma carga interrompida pode simplesmente ser reenviada.
+ * Por padrão a auditoria da carga é feita por comando ({@link ModoAuditoria#LOTE}).
+ */
+@Slf4j
+@Service
+@Timed(value = "creditos.servico", histogram = true)
+public class CreditoImportacaoService {
+
+    private static final int TAMANHO_NUMERO = 50;
+
+    // Limites em centésimos: maior DECIMAL(15, 2) e alíquota de 100%
+    private static final long VALOR_MAXIMO = 999_999_999_999_999L;
+    private static final long ALIQUOTA_MAXIMA = 100_00L;
+
+    // Colunas do CSV, aceitas em snake_case (como na tabela) ou camelCase (como no JSON)
+    private static final String[] COLUNAS_CSV = {"numeroCredito", "numeroNfse", "dataConstituicao", "valorIssqn",
+            "tipoCredito", "simplesNacional", "aliquota", "valorFaturado", "valorDeducao", "baseCalculo"};
+
+    @Autowired
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NegativeCreditoCache negativeCreditoCache;
+
+    @Value("${app.importacao.tamanho-lote:1000}")
+    private int tamanhoLote = 1000;
+
+    @Value("${app.importacao.max-erros-reportados:100}")
+    private int maxErrosReportados = 100;
+
+    // LOTE: auditoria por comando (tabelas de transição) em vez de um trigger por linha
+    @Value("${app.importacao.modo-auditoria:LOTE}")
+    private ModoAuditoria modoAuditoria = ModoAuditoria.LOTE;
+
+    public ImportacaoResultadoDTO importarNdjson(InputStream entrada) {
+        ObjectReader leitorJson = objectMapper.readerFor(CreditoDTO.class);
+        Importacao importacao = new Importacao();
+        try (BufferedReader leitor = abrir(entrada)) {
+            String linha;
+            long numeroLinha = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                try {
+                    importacao.aceitar(numeroLinha, leitorJson.readValue(linha));
+                } catch (JsonProcessingException e) {
+                    importacao.rejeitar(numeroLinha, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o corpo da importação", e);
+        }
+        return importacao.concluir();
+    }
+
+    /**
+     * CSV separado por vírgula ou ponto e vírgula (detectado no cabeçalho), sem aspas: nenhum campo
+     * de crédito contém o separador. Decimais usam ponto; datas, ISO (yyyy-MM-dd).
+     */
+    public ImportacaoResultadoDTO importarCsv(InputStream entrada) {
+        Importacao importacao = new Importacao();
+        try (BufferedReader leitor = abrir(entrada)) {
+            String cabecalho = leitor.readLine();
+            if (cabecalho == null || cabecalho.isBlank()) {
+                throw new RequisicaoInvalidaException("CSV sem cabeçalho");
+            }
+            String separador = cabecalho.indexOf(';') >= 0 ? ";" : ",";
+            int[] posicoes = mapearCabecalho(cabecalho.split(separador, -1));
+
+            String linha;
+            long numeroLinha = 1;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                try {
+                    importacao.aceitar(numeroLinha, lerCsv(linha.split(separador, -1), posicoes));
+                } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    importacao.rejeitar(numeroLinha, "valor inválido: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o corpo da importação", e);
+        }
+        return importacao.concluir();
+    }
+
+    /**
+     * Motivo da rejeição de uma linha, ou null quando ela pode ser gravada.
+     */
+    static String validar(CreditoDTO dto) {
+        String numeroCredito = texto(dto.getNumeroCredito());
+        String numeroNfse = texto(dto.getNumeroNfse());
+        String tipoCredito = texto(dto.getTipoCredito());
+
+        if (numeroCredito == null || numeroNfse == null || tipoCredito == null || dto.getDataConstituicao() == null
+                || dto.getValorIssqn() == null || dto.getAliquota() == null || dto.getValorFaturado() == null
+                || dto.getValorDeducao() == null || dto.getBaseCalculo() == null) {
+            return "campos obrigatórios ausentes";
+        }
+        if (numeroCredito.length() > TAMANHO_NUMERO || numeroNfse.length() > TAMANHO_NUMERO
+                || tipoCredito.length() > TAMANHO_NUMERO) {
+            return "numeroCredito, numeroNfse e tipoCredito aceitam até " + TAMANHO_NUMERO + " caracteres";
+        }
+        if (simNao(dto.getSimplesNacional()) == null) {
+            return "simplesNacional deve ser Sim/Não (ou true/false)";
+        }
+        if (!valorValido(dto.getValorIssqn(), VALOR_MAXIMO) || !valorValido(dto.getValorFaturado(), VALOR_MAXIMO)
+                || !valorValido(dto.getValorDeducao(), VALOR_MAXIMO) || !valorValido(dto.getBaseCalculo(), VALOR_MAXIMO)) {
+            return "valores devem ser não negativos, com até 13 dígitos inteiros e 2 casas decimais";
+        }
+        if (!valorValido(dto.getAliquota(), ALIQUOTA_MAXIMA)) {
+            return "aliquota deve estar entre 0 e 100, com até 2 casas decimais";
+        }
+        return null;
+    }
+
+    private static Credito toCredito(CreditoDTO dto) {
+        return new Credito(null, texto(dto.getNumeroCredito()), texto(dto.getNumeroNfse()), dto.getDataConstituicao(),
+                dto.getValorIssqn(), texto(dto.getTipoCredito()), simNao(dto.getSimplesNacional()), dto.getAliquota(),
+                dto.getValorFaturado(), dto.getValorDeducao(), dto.getBaseCalculo());
+    }
+
+    private static BufferedReader abrir(InputStream entrada) {
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    private static int[] mapearCabecalho(String[] cabecalho) {
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < cabecalho.length; i++) {
+            indices.put(normalizar(cabecalho[i]), i);
+        }
+        int[] posicoes = new int[COLUNAS_CSV.length];
+        for (int i = 0; i < COLUNAS_CSV.length; i++) {
+            Integer indice = indices.get(normalizar(COLUNAS_CSV[i]));
+            if (indice == null) {
+                throw new RequisicaoInvalidaException("Coluna obrigatória ausente no cabeçalho do CSV: " + COLUNAS_CSV[i]);
+            }
+            posicoes[i] = indice;
+        }
+        return posicoes;
+    }
+
+    private static CreditoDTO lerCsv(String[] campos, int[] posicoes) {
+        return new CreditoDTO(
+                campos[posicoes[0]],
+                campos[posicoes[1]],
+                vazio(campos[posicoes[2]]) ? null : LocalDate.parse(campos[posicoes[2]].trim()),
+                decimal(campos[posicoes[3]]),
+                campos[posicoes[4]],
+                campos[posicoes[5]],
+                decimal(campos[posicoes[6]]),
+                decimal(campos[posicoes[7]]),
+                decimal(campos[posicoes[8]]),
+                decimal(campos[posicoes[9]]));
+    }
+
+    private static String normalizar(String coluna) {
+        return coluna.trim().replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Valor decimal(String valor) {
+        return vazio(valor) ? null : Valor.de(valor);
+    }
+
+    private static boolean vazio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    private static String texto(String valor) {
+        return vazio(valor) ? null : valor.trim();
+    }
+
+    private static Boolean simNao(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        switch (valor.trim().toLowerCase(Locale.ROOT)) {
+            case "sim":
+            case "s":
+            case "true":
+                return Boolean.TRUE;
+            case "não":
+            case "nao":
+            case "n":
+            case "false":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    // Mais de duas casas decimais já é rejeitado na leitura (Valor.de)
+    private static boolean valorValido(Valor valor, long maximo) {
+        return valor.signum() >= 0 && valor.getCentesimos() <= maximo;
+    }
+
+    /**
+     * Estado de uma importação: lote pendente (sem numero_credito repetido, a última linha vence)
+     * e contadores do resultado.
+     */
+    private class Importacao {
+
+        private final ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO();
+        private final Map<String, Credito> lote = new LinkedHashMap<>();
+
+        void aceitar(long numeroLinha, CreditoDTO dto) {
+            String motivo = validar(dto);
+            if (motivo != null) {
+                rejeitar(numeroLinha, motivo);
+                return;
+            }
+            resultado.setLidos(resultado.getLidos() + 1);
+            Credito credito = toCredito(dto);
+            lote.put(credito.getNumeroCredito(), credito);
+            if (lote.size() >= tamanhoLote) {
+                gravar();
+            }
+        }
+
+        void rejeitar(long numeroLinha, String motivo) {
+            resultado.setLidos(resultado.getLidos() + 1);
+            resultado.setRejeitados(resultado.getRejeitados() + 1);
+            if (resultado.getErros().size() < maxErrosReportados) {
+                resultado.getErros().add("linha " + numeroLinha + ": " + motivo);
+            }
+        }
+
+        ImportacaoResultadoDTO concluir() {
+            gravar();
+            log.info("Importação de créditos: {} lidos, {} gravados, {} rejeitados",
+                    resultado.getLidos(), resultado.getGravados(), resultado.getRejeitados());
+            return resultado;
+        }
+
+        private void gravar() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            creditoJdbcRepository.upsertLote(new ArrayList<>(lote.values()), modoAuditoria);
+            // Sem esperar pelos eventos: as chaves gravadas deixam de ser respondidas como ausentes
+            for (Credito credito : lote.values()) {
+                negativeCreditoCache.registrarCredito(credito.getNumeroNfse(), credito.getNumeroCredito());
+            }
+            resultado.setGravados(resultado.getGravados() + lote.size());
+            lote.clear();
+        }
+    }
+}
@@ -1,16 +1,51 @@
 package com.credit.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import com.credit.cache.ChavesQuentes;
+import com.credit.cache.CreditoCache;
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.cache.SingleFlight;
+import com.credit.config.RoteamentoLeitura;
+import com.credit.dto.ConsultaLoteResponseDTO;
 import com.credit.dto.CreditoDTO;
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.dto.ResumoNfseDTO;
 import com.credit.entity.Credito;
 import com.credit.exception.CreditoNotFoundException;
+import com.credit.exception.RequisicaoInvalidaException;
 import com.credit.mapper.CreditoMapper;
+import com.credit.repository.CreditoJdbcRepository;
 import com.credit.repository.CreditoRepository;
+import com.credit.repository.CreditoResumoNfseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "creditos.servico", histogram = true)
 public class CreditoService {
 
     @Autowired
@@ -22,26 +57,424 @@ public class CreditoService {
     @Autowired
     private EventPublisherService eventPublisherService;
 
-    public List<CreditoDTO> buscarPorNumeroNfse(String numeroNfse) {
-        List<Credito> creditos = creditoRepository.findByNumeroNfse(numeroNfse);
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private NegativeCreditoCache negativeCreditoCache;
 
-        if (creditos.isEmpty()) {
-            throw new CreditoNotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse);
+    @Autowired
+    private ChavesQuentes chavesQuentes;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Autowired
+    private CreditoResumoNfseRepository creditoResumoNfseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Consultas por JDBC direto no DTO em vez de entidades JPA + MapStruct. */
+    @Value("${app.leitura.projecao.enabled:true}")
+    private boolean leituraProjecao;
+
+    @Value("${app.consulta-lote.max-chaves:1000}")
+    private int maxChavesLote = 1000;
+
+    @Value("${app.consulta-lote.tamanho-bloco:500}")
+    private int tamanhoBlocoLote = 500;
+
+    @Value("${app.paginacao.nfse.tamanho-maximo:1000}")
+    private int tamanhoMaximoPaginaNfse = 1000;
+
+    @Value("${app.exportacao.tamanho-pagina:5000}")
+    private int tamanhoPaginaExportacao = 5000;
+
+    /**
+     * Créditos da NFS-e paginados, para NFS-e com muitos créditos.
+     * Sem cursor, resultados que cabem em uma página saem do cache; o restante é lido
+     * do banco por keyset no id ({@code limite + 1} linhas para saber se há próxima página).
+     */
+    public PaginaCreditosDTO buscarPaginaPorNumeroNfse(String numeroNfse, String cursor, Integer limite) {
+        int tamanho = limite != null ? limite : tamanhoMaximoPaginaNfse;
+        if (tamanho < 1 || tamanho > tamanhoMaximoPaginaNfse) {
+            throw new RequisicaoInvalidaException("limite deve estar entre 1 e " + tamanhoMaximoPaginaNfse);
         }
+        boolean primeiraPagina = cursor == null || cursor.isBlank();
+        long aposId = primeiraPagina ? Long.MIN_VALUE : decodificarCursor(numeroNfse, cursor);
 
-        // Publicar evento de consulta
-        eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+        if (primeiraPagina) {
+            chavesQuentes.registrarNumeroNfse(numeroNfse);
+            if (negativeCreditoCache.isAusenteNumeroNfse(numeroNfse)) {
+                throw nfseNaoEncontrada(numeroNfse);
+            }
+            List<CreditoDTO> emCache = creditoCache.getNumeroNfse(numeroNfse);
+            if (emCache != null && emCache.size() <= tamanho) {
+                eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+                return new PaginaCreditosDTO(emCache, null);
+            }
+        }
+
+        PaginaCreditosDTO resultado;
+        if (primeiraPagina && tamanho == tamanhoMaximoPaginaNfse) {
+            // Primeira página com o limite padrão é a consulta quente: chamadas simultâneas da mesma
+            // NFS-e compartilham uma ida ao banco, e quem chega depois encontra o resultado no cache
+            resultado = singleFlight.executar("nfse:" + numeroNfse, () -> {
+                List<CreditoDTO> carregado = creditoCache.getNumeroNfse(numeroNfse);
+                return carregado != null
+                        ? new PaginaCreditosDTO(carregado, null)
+                        : carregarPaginaPorNumeroNfse(numeroNfse, aposId, tamanho, true);
+            });
+        } else {
+            resultado = carregarPaginaPorNumeroNfse(numeroNfse, aposId, tamanho, primeiraPagina);
+        }
+
+        if (primeiraPagina) {
+            if (resultado.getCreditos().isEmpty()) {
+                negativeCreditoCache.registrarMissNumeroNfse(numeroNfse);
+                throw nfseNaoEncontrada(numeroNfse);
+            }
+            eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+        }
+        return resultado;
+    }
+
+    /**
+     * Lê uma página do banco por keyset no id ({@code limite + 1} linhas para saber se há próxima).
+     * Uma primeira página que traz a NFS-e inteira vai para o cache.
+     */
+    private PaginaCreditosDTO carregarPaginaPorNumeroNfse(String numeroNfse, long aposId, int tamanho, boolean primeiraPagina) {
+        Function<List<String>, List<Credito>> leitura = chaves -> leituraProjecao
+                ? creditoJdbcRepository.buscarPaginaPorNumeroNfse(numeroNfse, aposId, tamanho + 1)
+                : creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, aposId, PageRequest.of(0, tamanho + 1));
+        // Só a primeira página alimenta o cache e o cache negativo
+        List<Credito> creditos = primeiraPagina
+                ? lerParaCache(List.of(numeroNfse), creditoCache::isInvalidadaRecentementeNfse, leitura, Credito::getNumeroNfse)
+                : leitura.apply(List.of(numeroNfse));
+        boolean temProxima = creditos.size() > tamanho;
+        if (temProxima) {
+            creditos = creditos.subList(0, tamanho);
+        }
+        List<CreditoDTO> pagina = creditoMapper.toDTOList(creditos);
+
+        if (primeiraPagina && !temProxima && !pagina.isEmpty()) {
+            // Resultado completo: pode ir para o cache
+            creditoCache.putNumeroNfse(numeroNfse, pagina);
+        }
+
+        String proximoCursor = temProxima ? codificarCursor(numeroNfse, creditos.get(tamanho - 1).getId()) : null;
+        return new PaginaCreditosDTO(pagina, proximoCursor);
+    }
 
-        return creditoMapper.toDTOList(creditos);
+    /**
+     * Totais da NFS-e lidos da tabela de resumo (uma busca por chave primária), em vez de
+     * agregar a tabela credito a cada chamada como a view vw_creditos_resumo.
+     */
+    public ResumoNfseDTO buscarResumoPorNumeroNfse(String numeroNfse) {
+        chavesQuentes.registrarNumeroNfse(numeroNfse);
+        return creditoResumoNfseRepository.findById(numeroNfse)
+                .map(creditoMapper::toResumoDTO)
+                .orElseThrow(() -> nfseNaoEncontrada(numeroNfse));
     }
 
     public CreditoDTO buscarPorNumeroCredito(String numeroCredito) {
-        Credito credito = creditoRepository.findByNumeroCredito(numeroCredito)
-                .orElseThrow(() -> new CreditoNotFoundException("Crédito não encontrado: " + numeroCredito));
+        chavesQuentes.registrarNumeroCredito(numeroCredito);
+        if (negativeCreditoCache.isAusenteNumeroCredito(numeroCredito)) {
+            throw creditoNaoEncontrado(numeroCredito);
+        }
+
+        CreditoDTO credito = creditoCache.getNumeroCredito(numeroCredito);
+        if (credito == null) {
+            credito = singleFlight.executar("credito:" + numeroCredito,
+                    () -> creditoCache.buscarPorNumeroCredito(numeroCredito, this::carregarPorNumeroCredito));
+        }
+
+        if (credito == null) {
+            negativeCreditoCache.registrarMissNumeroCredito(numeroCredito);
+            throw creditoNaoEncontrado(numeroCredito);
+        }
 
         // Publicar evento de consulta
         eventPublisherService.publishConsultaEvent("CONSULTA_POR_CREDITO", numeroCredito);
 
-        return creditoMapper.toDTO(credito);
+        return credito;
+    }
+
+    /**
+     * Resolve várias NFS-e e números de crédito de uma vez: chaves em cache (positivo ou negativo)
+     * não vão ao banco e as demais são buscadas com consultas IN em blocos.
+     * Publica um único evento de consulta por tipo de chave, com a lista de chaves pedidas.
+     */
+    public ConsultaLoteResponseDTO buscarEmLote(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        Set<String> nfses = normalizar(numerosNfse);
+        Set<String> creditos = normalizar(numerosCredito);
+        if (nfses.isEmpty() && creditos.isEmpty()) {
+            throw new RequisicaoInvalidaException("Informe ao menos uma NFS-e ou número de crédito");
+        }
+        if (nfses.size() + creditos.size() > maxChavesLote) {
+            throw new RequisicaoInvalidaException("Consulta em lote limitada a " + maxChavesLote + " chaves");
+        }
+
+        nfses.forEach(chavesQuentes::registrarNumeroNfse);
+        creditos.forEach(chavesQuentes::registrarNumeroCredito);
+
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+        resolverNfsesEmLote(nfses, resposta);
+        resolverCreditosEmLote(creditos, resposta);
+
+        // Um evento por chave: as chaves podem conter qualquer caractere, então não vão concatenadas
+        if (!nfses.isEmpty()) {
+            eventPublisherService.publishConsultaEvent("CONSULTA_LOTE_POR_NFSE", List.copyOf(nfses));
+        }
+        if (!creditos.isEmpty()) {
+            eventPublisherService.publishConsultaEvent("CONSULTA_LOTE_POR_CREDITO", List.copyOf(creditos));
+        }
+
+        return resposta;
+    }
+
+    /**
+     * Carrega as chaves nos caches como a consulta em lote, para o aquecimento da subida: sem limite
+     * de chaves, sem contar no ranking de chaves quentes e sem publicar eventos de consulta.
+     */
+    public ConsultaLoteResponseDTO aquecer(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+        resolverNfsesEmLote(normalizar(numerosNfse), resposta);
+        resolverCreditosEmLote(normalizar(numerosCredito), resposta);
+        return resposta;
+    }
+
+    private void resolverNfsesEmLote(Set<String> nfses, ConsultaLoteResponseDTO resposta) {
+        Map<String, List<CreditoDTO>> resolvidas = new HashMap<>();
+        List<String> pendentes = new ArrayList<>();
+        for (String numeroNfse : nfses) {
+            if (negativeCreditoCache.isAusenteNumeroNfse(numeroNfse)) {
+                continue;
+            }
+            List<CreditoDTO> emCache = creditoCache.getNumeroNfse(numeroNfse);
+            if (emCache != null) {
+                resolvidas.put(numeroNfse, emCache);
+            } else {
+                pendentes.add(numeroNfse);
+            }
+        }
+
+        for (List<String> bloco : blocos(pendentes)) {
+            // Em ordem de (numero_nfse, id): cada lista entra no cache na ordem da consulta paginada
+            Map<String, List<CreditoDTO>> encontrados = lerParaCache(bloco, creditoCache::isInvalidadaRecentementeNfse,
+                            creditoJdbcRepository::buscarPorNumerosNfse, Credito::getNumeroNfse).stream()
+                    .collect(Collectors.groupingBy(Credito::getNumeroNfse,
+                            Collectors.mapping(creditoMapper::toDTO, Collectors.toList())));
+            for (String numeroNfse : bloco) {
+                List<CreditoDTO> creditosNfse = encontrados.get(numeroNfse);
+                if (creditosNfse != null) {
+                    creditoCache.putNumeroNfse(numeroNfse, creditosNfse);
+                    resolvidas.put(numeroNfse, creditosNfse);
+                } else {
+                    negativeCreditoCache.registrarMissNumeroNfse(numeroNfse);
+                }
+            }
+        }
+
+        // Resposta na ordem do pedido
+        for (String numeroNfse : nfses) {
+            List<CreditoDTO> creditosNfse = resolvidas.get(numeroNfse);
+            if (creditosNfse != null) {
+                resposta.getCreditosPorNfse().put(numeroNfse, creditosNfse);
+            } else {
+                resposta.getNfseNaoEncontradas().add(numeroNfse);
+            }
+        }
+    }
+
+    private void resolverCreditosEmLote(Set<String> creditos, ConsultaLoteResponseDTO resposta) {
+        Map<String, CreditoDTO> resolvidos = new HashMap<>();
+        List<String> pendentes = new ArrayList<>();
+        for (String numeroCredito : creditos) {
+            if (negativeCreditoCache.isAusenteNumeroCredito(numeroCredito)) {
+                continue;
+            }
+            CreditoDTO emCache = creditoCache.getNumeroCredito(numeroCredito);
+            if (emCache != null) {
+                resolvidos.put(numeroCredito, emCache);
+            } else {
+                pendentes.add(numeroCredito);
+            }
+        }
+
+        for (List<String> bloco : blocos(pendentes)) {
+            Map<String, CreditoDTO> encontrados = lerParaCache(bloco, creditoCache::isInvalidadoRecentementeCredito,
+                            creditoJdbcRepository::buscarPorNumerosCredito, Credito::getNumeroCredito).stream()
+                    .collect(Collectors.toMap(Credito::getNumeroCredito, creditoMapper::toDTO));
+            for (String numeroCredito : bloco) {
+                CreditoDTO credito = encontrados.get(numeroCredito);
+                if (credito != null) {
+                    creditoCache.putNumeroCredito(numeroCredito, credito);
+                    resolvidos.put(numeroCredito, credito);
+                } else {
+                    negativeCreditoCache.registrarMissNumeroCredito(numeroCredito);
+                }
+            }
+        }
+
+        for (String numeroCredito : creditos) {
+            CreditoDTO credito = resolvidos.get(numeroCredito);
+            if (credito != null) {
+                resposta.getCreditosPorNumero().put(numeroCredito, credito);
+            } else {
+                resposta.getCreditosNaoEncontrados().add(numeroCredito);
+            }
+        }
+    }
+
+    public void validarPeriodoExportacao(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio == null || dataFim == null) {
+            throw new RequisicaoInvalidaException("Informe dataInicio e dataFim");
+        }
+        if (dataInicio.isAfter(dataFim)) {
+            throw new RequisicaoInvalidaException("dataInicio deve ser anterior ou igual a dataFim");
+        }
+    }
+
+    /**
+     * Escreve os créditos do período em NDJSON (um objeto por linha) direto na saída.
+     * Lê em páginas por keyset no id, mapeando e serializando linha a linha: a memória usada
+     * é de uma linha por vez, independente do tamanho do resultado.
+     */
+    public long exportar(LocalDate dataInicio, LocalDate dataFim, String tipoCredito, OutputStream saida) throws IOException {
+        validarPeriodoExportacao(dataInicio, dataFim);
+        String tipo = tipoCredito == null || tipoCredito.isBlank() ? null : tipoCredito.trim();
+
+        ObjectWriter writer = objectMapper.writerFor(CreditoDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+        gerador.setRootValueSeparator(null);
+
+        long[] ultimoId = {Long.MIN_VALUE};
+        long total = 0;
+        int lidas;
+        try {
+            do {
+                lidas = creditoJdbcRepository.percorrerPorPeriodo(dataInicio, dataFim, tipo, ultimoId[0],
+                        tamanhoPaginaExportacao, credito -> {
+                            escreverLinha(writer, gerador, creditoMapper.toDTO(credito));
+                            ultimoId[0] = credito.getId();
+                        });
+                total += lidas;
+                gerador.flush();
+            } while (lidas == tamanhoPaginaExportacao);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        eventPublisherService.publishConsultaEvent("EXPORTACAO_POR_PERIODO",
+                dataInicio + ".." + dataFim + (tipo != null ? ":" + tipo : ""));
+        return total;
+    }
+
+    private static void escreverLinha(ObjectWriter writer, JsonGenerator gerador, CreditoDTO credito) {
+        try {
+            writer.writeValue(gerador, credito);
+            gerador.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<List<String>> blocos(List<String> chaves) {
+        List<List<String>> blocos = new ArrayList<>();
+        for (int inicio = 0; inicio < chaves.size(); inicio += tamanhoBlocoLote) {
+            blocos.add(chaves.subList(inicio, Math.min(inicio + tamanhoBlocoLote, chaves.size())));
+        }
+        return blocos;
+    }
+
+    private static Set<String> normalizar(Collection<String> chaves) {
+        Set<String> normalizadas = new LinkedHashSet<>();
+        if (chaves != null) {
+            for (String chave : chaves) {
+                if (chave != null && !chave.isBlank()) {
+                    normalizadas.add(chave.trim());
+                }
+            }
+        }
+        return normalizadas;
+    }
+
+    private CreditoDTO carregarPorNumeroCredito(String numeroCredito) {
+        Function<List<String>, List<CreditoDTO>> leitura = chaves -> (leituraProjecao
+                ? creditoJdbcRepository.buscarPorNumeroCredito(numeroCredito)
+                : creditoRepository.findByNumeroCredito(numeroCredito).map(creditoMapper::toDTO))
+                .map(List::of)
+                .orElse(List.of());
+        List<CreditoDTO> credito = lerParaCache(List.of(numeroCredito), creditoCache::isInvalidadoRecentementeCredito,
+                leitura, CreditoDTO::getNumeroCredito);
+        return credito.isEmpty() ? null : credito.get(0);
+    }
+
+    /**
+     * Leitura que alimenta o cache quando há réplica de leitura. Chaves invalidadas há pouco vão ao
+     * primário, porque a réplica ainda pode devolver a linha antiga; as chaves que a réplica não
+     * encontrou são conferidas no primário antes de virarem miss no cache negativo, porque podem ter
+     * acabado de ser importadas.
+     */
+    private <T> List<T> lerParaCache(List<String> chaves, Predicate<String> invalidadaRecentemente,
+                                     Function<List<String>, List<T>> leitura, Function<T, String> chave) {
+        if (chaves.stream().anyMatch(invalidadaRecentemente)) {
+            return RoteamentoLeitura.noPrimario(() -> leitura.apply(chaves));
+        }
+
+        List<List<T>> lido = new ArrayList<>(1);
+        if (!RoteamentoLeitura.usouReplica(() -> lido.add(leitura.apply(chaves)))) {
+            return lido.get(0);
+        }
+        List<T> resultado = lido.get(0);
+        Set<String> encontradas = resultado.stream().map(chave).collect(Collectors.toSet());
+        List<String> ausentes = chaves.stream()
+                .filter(c -> !encontradas.contains(c))
+                .collect(Collectors.toList());
+        if (ausentes.isEmpty()) {
+            return resultado;
+        }
+        List<T> doPrimario = RoteamentoLeitura.noPrimario(() -> leitura.apply(ausentes));
+        if (doPrimario.isEmpty()) {
+            return resultado;
+        }
+        List<T> combinado = new ArrayList<>(resultado);
+        combinado.addAll(doPrimario);
+        return combinado;
+    }
+
+    /**
+     * O cursor carrega a NFS-e junto com o último id, para que não seja reaproveitado em outra NFS-e.
+     */
+    static String codificarCursor(String numeroNfse, long ultimoId) {
+        byte[] conteudo = (numeroNfse + ":" + ultimoId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo);
+    }
+
+    static long decodificarCursor(String numeroNfse, String cursor) {
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = conteudo.lastIndexOf(':');
+            if (separador < 0 || !conteudo.substring(0, separador).equals(numeroNfse)) {
+                throw new RequisicaoInvalidaException("Cursor inválido para a NFS-e: " + numeroNfse);
+            }
+            return Long.parseLong(conteudo.substring(separador + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RequisicaoInvalidaException("Cursor inválido para a NFS-e: " + numeroNfse);
+        }
+    }
+
+    private static CreditoNotFoundException nfseNaoEncontrada(String numeroNfse) {
+        return new CreditoNotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse);
+    }
+
+    private static CreditoNotFoundException creditoNaoEncontrado(String numeroCredito) {
+        return new CreditoNotFoundException("Crédito não encontrado: " + numeroCredito);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package com.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.credit.dto.ReprocessamentoDlqDTO;
+import com.credit.event.RoteamentoFalhas;
+import com.credit.exception.RequisicaoInvalidaException;
+
+/**
+ * Reenvia registros do creditos-dlq para o tópico de origem em lotes com pausa entre eles,
+ * para não despejar de uma vez um volume que o consumidor não acompanha.
+ * Os offsets do grupo de replay só avançam depois que o lote inteiro foi confirmado pelo broker.
+ * Cada execução roda em uma thread própria, uma por vez, e lê no máximo {@code maximo-por-chamada}
+ * registros; o andamento fica em {@link #getUltimo()}.
+ */
+@Slf4j
+@Service
+public class DlqReplayService {
+
+    static final String GRUPO_REPLAY = "creditos-dlq-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    @Autowired
+    @Qualifier("dlqConsumerFactory")
+    private ConsumerFactory<String, byte[]> dlqConsumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.dlq.reprocessamento.maximo-por-chamada:10000}")
+    private int maximoPorChamada = 10000;
+
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    // Cópia publicada a cada lote; a thread do reprocessamento altera só o próprio objeto
+    private volatile ReprocessamentoDlqDTO ultimo = new ReprocessamentoDlqDTO();
+
+    /**
+     * Inicia o reprocessamento e retorna sem esperar; {@code maximo} acima do limite por chamada é reduzido a ele.
+     */
+    public ReprocessamentoDlqDTO iniciar(int maximo, int tamanhoLote, long pausaMs) {
+        if (maximo < 1 || tamanhoLote < 1 || pausaMs < 0) {
+            throw new RequisicaoInvalidaException("maximo e tamanhoLote devem ser positivos e pausaMs não negativo");
+        }
+        if (!emAndamento.compareAndSet(false, true)) {
+            throw new RequisicaoInvalidaException("Já existe um reprocessamento da DLQ em andamento");
+        }
+
+        int limite = Math.min(maximo, maximoPorChamada);
+        ReprocessamentoDlqDTO resultado = new ReprocessamentoDlqDTO();
+        resultado.setEmAndamento(true);
+        ReprocessamentoDlqDTO inicio = copia(resultado);
+        ultimo = inicio;
+        Thread execucao = new Thread(() -> {
+            try {
+                reprocessar(limite, tamanhoLote, pausaMs, resultado);
+            } finally {
+                emAndamento.set(false);
+            }
+        }, "dlq-replay");
+        execucao.setDaemon(true);
+        execucao.start();
+        return inicio;
+    }
+
+    public ReprocessamentoDlqDTO getUltimo() {
+        return ultimo;
+    }
+
+    void reprocessar(int maximo, int tamanhoLote, long pausaMs, ReprocessamentoDlqDTO resultado) {
+        Properties propriedades = new Properties();
+        propriedades.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, tamanhoLote);
+        try (Consumer<String, byte[]> consumer = dlqConsumerFactory.createConsumer(GRUPO_REPLAY, null, null, propriedades)) {
+            consumer.subscribe(List.of(RoteamentoFalhas.TOPICO_DLQ));
+            while (resultado.getLidos() < maximo) {
+                ConsumerRecords<String, byte[]> registros = consumer.poll(POLL_TIMEOUT);
+                if (registros.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = reenviarLote(registros, maximo, resultado);
+                consumer.commitSync(offsets);
+                ultimo = copia(resultado);
+                if (resultado.getLidos() < maximo) {
+                    Thread.sleep(pausaMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Reprocessamento da DLQ interrompido", e);
+            resultado.setErro(e.getMessage());
+        }
+
+        resultado.setEmAndamento(false);
+        ultimo = copia(resultado);
+        log.info("Reprocessamento da DLQ: {}", resultado);
+    }
+
+    private static ReprocessamentoDlqDTO copia(ReprocessamentoDlqDTO resultado) {
+        return new ReprocessamentoDlqDTO(resultado.getLidos(), resultado.getReenviados(), resultado.getIgnorados(),
+                resultado.isEmAndamento(), resultado.getErro());
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> reenviarLote(ConsumerRecords<String, byte[]> registros, int maximo,
+                                                                ReprocessamentoDlqDTO resultado) throws InterruptedException {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        List<ListenableFuture<SendResult<String, Object>>> envios = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> registro : registros) {
+            if (resultado.getLidos() >= maximo) {
+                break;
+            }
+            resultado.setLidos(resultado.getLidos() + 1);
+            offsets.put(new TopicPartition(registro.topic(), registro.partition()), new OffsetAndMetadata(registro.offset() + 1));
+
+            Header origem = registro.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+            if (origem == null) {
+                log.warn("Registro da DLQ sem tópico de origem ignorado: partição {} offset {}", registro.partition(), registro.offset());
+                resultado.setIgnorados(resultado.getIgnorados() + 1);
+                continue;
+            }
+            String topico = RoteamentoFalhas.topicoBase(new String(origem.value(), StandardCharsets.UTF_8));
+            // Headers de falha e de tentativa ficam para trás: o registro volta como novo
+            envios.add(kafkaTemplate.send(new ProducerRecord<>(topico, null, registro.key(), registro.value(), new RecordHeaders())));
+        }
+
+        for (ListenableFuture<SendResult<String, Object>> envio : envios) {
+            try {
+                envio.get(30, TimeUnit.SECONDS);
+                resultado.setReenviados(resultado.getReenviados() + 1);
+            } catch (ExecutionException | TimeoutException e) {
+                // Sem commit do lote: os registros continuam na DLQ para a próxima execução
+                throw new IllegalStateException("Falha ao reenviar registros da DLQ", e);
+            }
+        }
+        return offsets;
+    }
+}
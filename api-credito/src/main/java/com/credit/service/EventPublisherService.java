@@ -1,27 +1,234 @@
 package com.credit.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.credit.event.ConsultaEvent;
+import com.credit.event.PoliticaOverflow;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publica os eventos de consulta no Kafka.
+ * No modo assíncrono (padrão) a thread da requisição apenas enfileira o evento em um buffer
+ * circular limitado; uma thread dedicada drena a fila em lotes e chama o {@link KafkaTemplate},
+ * de modo que backpressure do producer nunca aparece na latência das consultas.
+ * A serialização do evento fica a cargo do {@link com.credit.event.ConsultaEventSerializer}.
+ * Fila e contadores são expostos como {@code creditos.consultas.fila} e {@code creditos.consultas.eventos}.
+ */
+@Slf4j
 @Service
 public class EventPublisherService {
 
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    // Não é MeterBinder: o registry, ao ser criado, dependeria deste serviço e do KafkaTemplate,
+    // cujo ProducerFactory por sua vez depende do registry
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     private static final String TOPIC_CONSULTAS = "creditos-consultas";
+    private static final String USUARIO_PADRAO = "sistema";
+
+    @Value("${app.kafka.consultas.async.enabled:true}")
+    private boolean async;
+
+    @Value("${app.kafka.consultas.async.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${app.kafka.consultas.async.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.kafka.consultas.async.overflow:DROP}")
+    private PoliticaOverflow politicaOverflow;
+
+    @Value("${app.kafka.consultas.async.taxa-amostragem:10}")
+    private int taxaAmostragem;
+
+    @Value("${app.kafka.consultas.async.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    private BlockingQueue<ConsultaEvent> fila;
+    private Thread drenador;
+    private volatile boolean executando;
+    private int marcaDagua;
+
+    private final AtomicLong enfileirados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong amostrados = new AtomicLong();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
 
+    @PostConstruct
+    public void iniciar() {
+        if (meterRegistry != null) {
+            registrarMetricas(meterRegistry);
+        }
+        if (!async) {
+            return;
+        }
+
+        fila = new ArrayBlockingQueue<>(capacidade);
+        marcaDagua = (int) (capacidade * 0.8);
+        taxaAmostragem = Math.max(1, taxaAmostragem);
+        executando = true;
+        drenador = new Thread(this::drenar, "consultas-publisher");
+        drenador.setDaemon(true);
+        drenador.start();
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (drenador == null) {
+            return;
+        }
+
+        executando = false;
+        drenador.interrupt();
+        drenador.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Eventos ainda na fila são enviados na thread de shutdown
+        List<ConsultaEvent> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        enviarLote(restantes);
+    }
+
+    // Custo na thread da requisição: enfileirar (ou esperar a fila, com BLOCK)
+    @Timed(value = "creditos.consultas.publicacao", histogram = true)
     public void publishConsultaEvent(String tipoConsulta, String parametro) {
-        Map<String, Object> evento = new HashMap<>();
-        evento.put("tipoConsulta", tipoConsulta);
-        evento.put("parametro", parametro);
-        evento.put("timestamp", LocalDateTime.now().toString());
-        evento.put("usuario", "sistema");
+        publicar(new ConsultaEvent(tipoConsulta, parametro, System.currentTimeMillis(), USUARIO_PADRAO));
+    }
+
+    /**
+     * Um único evento para uma consulta em lote, com todas as chaves consultadas.
+     */
+    @Timed(value = "creditos.consultas.publicacao", histogram = true)
+    public void publishConsultaEvent(String tipoConsulta, List<String> chaves) {
+        publicar(new ConsultaEvent(tipoConsulta, null, System.currentTimeMillis(), USUARIO_PADRAO, List.copyOf(chaves)));
+    }
+
+    private void publicar(ConsultaEvent evento) {
+        if (fila == null) {
+            enviar(evento);
+            return;
+        }
+
+        if (enfileirar(evento)) {
+            enfileirados.incrementAndGet();
+        } else {
+            descartados.incrementAndGet();
+        }
+    }
+
+    private void registrarMetricas(MeterRegistry registry) {
+        Gauge.builder("creditos.consultas.fila", this, EventPublisherService::getProfundidadeFila)
+                .description("Eventos de consulta aguardando envio ao Kafka")
+                .register(registry);
+        contador(registry, "enfileirado", enfileirados);
+        contador(registry, "descartado", descartados);
+        contador(registry, "enviado", enviados);
+        contador(registry, "falha", falhas);
+    }
+
+    private static void contador(MeterRegistry registry, String resultado, AtomicLong valor) {
+        FunctionCounter.builder("creditos.consultas.eventos", valor, AtomicLong::get)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    public int getProfundidadeFila() {
+        return fila != null ? fila.size() : 0;
+    }
+
+    public long getEnfileirados() {
+        return enfileirados.get();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    public long getEnviados() {
+        return enviados.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    private boolean enfileirar(ConsultaEvent evento) {
+        switch (politicaOverflow) {
+            case BLOCK:
+                try {
+                    return fila.offer(evento, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case SAMPLE:
+                if (fila.size() >= marcaDagua && amostrados.incrementAndGet() % taxaAmostragem != 0) {
+                    return false;
+                }
+                return fila.offer(evento);
+            case DROP:
+            default:
+                return fila.offer(evento);
+        }
+    }
+
+    private void drenar() {
+        List<ConsultaEvent> lote = new ArrayList<>(tamanhoLote);
+        while (executando) {
+            try {
+                ConsultaEvent primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                enviarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void enviarLote(List<ConsultaEvent> lote) {
+        for (ConsultaEvent evento : lote) {
+            try {
+                enviar(evento);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao publicar evento de consulta {}", evento, e);
+            }
+        }
+    }
 
-        kafkaTemplate.send(TOPIC_CONSULTAS, evento);
+    private void enviar(ConsultaEvent evento) {
+        try {
+            kafkaTemplate.send(TOPIC_CONSULTAS, evento).addCallback(
+                    resultado -> enviados.incrementAndGet(),
+                    erro -> falhas.incrementAndGet());
+        } catch (RuntimeException e) {
+            falhas.incrementAndGet();
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
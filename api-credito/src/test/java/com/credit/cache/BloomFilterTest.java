@@ -0,0 +1,37 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_DeveRetornarVerdadeiro_ParaTodasAsChavesInseridas() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.put("NFSE-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.mightContain("NFSE-" + i));
+        }
+    }
+
+    @Test
+    void mightContain_DeveRespeitarTaxaDeFalsoPositivo() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.put("NFSE-" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filtro.mightContain("AUSENTE-" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        assertTrue(falsosPositivos < 300, "Falsos positivos: " + falsosPositivos);
+    }
+}
@@ -0,0 +1,75 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.credit.dto.ChaveQuenteDTO;
+
+class ChavesQuentesTest {
+
+    @Test
+    void incrementar_NuncaDeveSubestimarAFrequencia() {
+        CountMinSketch sketch = new CountMinSketch(256, 4);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.incrementar("NFSE-" + (i % 1_000));
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(sketch.estimar("NFSE-" + i) >= 5);
+        }
+    }
+
+    @Test
+    void getNumerosNfse_DeveManterAsChavesMaisConsultadas_EmOrdem() {
+        ChavesQuentes chavesQuentes = new ChavesQuentes(true, 3, 4096, 4);
+        for (int i = 0; i < 10_000; i++) {
+            chavesQuentes.registrarNumeroNfse("FRIA-" + i);
+        }
+        for (int i = 0; i < 50; i++) {
+            chavesQuentes.registrarNumeroNfse("QUENTE-1");
+            if (i < 40) {
+                chavesQuentes.registrarNumeroNfse("QUENTE-2");
+            }
+            if (i < 30) {
+                chavesQuentes.registrarNumeroNfse("QUENTE-3");
+            }
+        }
+
+        List<ChaveQuenteDTO> ranking = chavesQuentes.getNumerosNfse();
+
+        assertEquals(List.of("QUENTE-1", "QUENTE-2", "QUENTE-3"),
+                ranking.stream().map(ChaveQuenteDTO::getChave).collect(Collectors.toList()));
+        assertTrue(ranking.get(0).getEstimativa() >= 50);
+        assertTrue(chavesQuentes.getNumerosCredito().isEmpty());
+        assertTrue(chavesQuentes.isNumeroNfseQuente("QUENTE-3"));
+        assertFalse(chavesQuentes.isNumeroNfseQuente("FRIA-1"));
+        assertFalse(chavesQuentes.isNumeroCreditoQuente("QUENTE-1"));
+    }
+
+    @Test
+    void envelhecer_DeveReduzirEstimativas_EDescartarChavesSemConsultas() {
+        ChavesQuentes chavesQuentes = new ChavesQuentes(true, 10, 4096, 4);
+        for (int i = 0; i < 8; i++) {
+            chavesQuentes.registrarNumeroCredito("CRED-1");
+        }
+        chavesQuentes.registrarNumeroCredito("CRED-2");
+
+        chavesQuentes.envelhecer();
+
+        assertEquals(List.of(new ChaveQuenteDTO("CRED-1", 4)), chavesQuentes.getNumerosCredito());
+    }
+
+    @Test
+    void registrar_NaoDeveContar_QuandoDesabilitado() {
+        ChavesQuentes chavesQuentes = new ChavesQuentes(false, 10, 4096, 4);
+        chavesQuentes.registrarNumeroNfse("NFSE-1");
+
+        assertTrue(chavesQuentes.getNumerosNfse().isEmpty());
+    }
+}
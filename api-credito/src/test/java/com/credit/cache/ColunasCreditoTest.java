@@ -0,0 +1,115 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.credit.dto.TotalAnaliticoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+
+class ColunasCreditoTest {
+
+    private static final String[] TIPOS = {"ISSQN", "Outros", "Taxa"};
+
+    @Test
+    void totalizar_DeveBaterComSomaEmBigDecimal_EmTodosOsAgrupamentosEFiltros() {
+        Random aleatorio = new Random(42);
+        List<Credito> creditos = new ArrayList<>();
+        ColunasCredito colunas = new ColunasCredito(16);
+        // Mais de um bloco da totalização paralela
+        for (long id = 1; id <= 150_000; id++) {
+            Credito credito = credito(id, TIPOS[aleatorio.nextInt(TIPOS.length)], aleatorio.nextBoolean(),
+                    LocalDate.of(2023, 1, 1).plusDays(aleatorio.nextInt(730)),
+                    BigDecimal.valueOf(aleatorio.nextInt(10_000_000), 2));
+            creditos.add(credito);
+            assertTrue(colunas.gravar(credito));
+        }
+
+        LocalDate inicio = LocalDate.of(2023, 6, 15);
+        LocalDate fim = LocalDate.of(2024, 3, 10);
+        verificar(colunas, creditos, Agrupamento.TIPO_CREDITO, null, null, null, null);
+        verificar(colunas, creditos, Agrupamento.MES, inicio, fim, "ISSQN", null);
+        verificar(colunas, creditos, Agrupamento.SIMPLES_NACIONAL, inicio, null, null, null);
+        verificar(colunas, creditos, Agrupamento.TIPO_CREDITO, null, fim, null, true);
+        assertTrue(colunas.totalizar(Agrupamento.TIPO_CREDITO, null, null, "Inexistente", null).isEmpty());
+    }
+
+    @Test
+    void gravarERemover_DevemAtualizarPorId_ERecusarIdNovoForaDeOrdem() {
+        ColunasCredito colunas = new ColunasCredito(16);
+        colunas.gravar(credito(10L, "ISSQN", true, LocalDate.of(2024, 2, 25), new BigDecimal("1500.75")));
+        colunas.gravar(credito(20L, "ISSQN", false, LocalDate.of(2024, 3, 1), new BigDecimal("100.00")));
+        colunas.gravar(credito(30L, "Outros", false, LocalDate.of(2024, 3, 2), new BigDecimal("1.00")));
+
+        assertTrue(colunas.gravar(credito(20L, "Outros", false, LocalDate.of(2024, 3, 1), new BigDecimal("200.00"))));
+        assertFalse(colunas.gravar(credito(15L, "ISSQN", false, LocalDate.of(2024, 3, 1), BigDecimal.ONE)));
+        assertTrue(colunas.remover(30L));
+        assertFalse(colunas.remover(30L));
+        assertFalse(colunas.remover(99L));
+
+        List<TotalAnaliticoDTO> totais = colunas.totalizar(Agrupamento.TIPO_CREDITO, null, null, null, null);
+        assertEquals(2, totais.size());
+        assertEquals("ISSQN", totais.get(0).getGrupo());
+        assertEquals(Valor.de("1500.75"), totais.get(0).getValorIssqn());
+        assertEquals("Outros", totais.get(1).getGrupo());
+        assertEquals(1, totais.get(1).getQuantidade());
+        assertEquals(Valor.de("200.00"), totais.get(1).getValorIssqn());
+        assertEquals(2, colunas.getLinhas());
+        assertEquals(1, colunas.getRemovidas());
+
+        List<TotalAnaliticoDTO> porMes = colunas.totalizar(Agrupamento.MES, null, null, null, null);
+        assertEquals("2024-02", porMes.get(0).getGrupo());
+        assertEquals("2024-03", porMes.get(1).getGrupo());
+    }
+
+    private static void verificar(ColunasCredito colunas, List<Credito> creditos, Agrupamento agrupamento,
+                                  LocalDate inicio, LocalDate fim, String tipo, Boolean simples) {
+        Predicate<Credito> filtro = c -> (inicio == null || !c.getDataConstituicao().isBefore(inicio))
+                && (fim == null || !c.getDataConstituicao().isAfter(fim))
+                && (tipo == null || tipo.equals(c.getTipoCredito()))
+                && (simples == null || simples == c.isSimplesNacional());
+        Function<Credito, String> chave = agrupamento == Agrupamento.TIPO_CREDITO ? Credito::getTipoCredito
+                : agrupamento == Agrupamento.SIMPLES_NACIONAL ? c -> c.isSimplesNacional() ? "Sim" : "Não"
+                : c -> c.getDataConstituicao().toString().substring(0, 7);
+
+        Map<String, BigDecimal[]> esperado = new TreeMap<>();
+        for (Credito credito : creditos) {
+            if (filtro.test(credito)) {
+                BigDecimal[] soma = esperado.computeIfAbsent(chave.apply(credito),
+                        k -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+                soma[0] = soma[0].add(BigDecimal.ONE);
+                soma[1] = soma[1].add(credito.getValorIssqn().toBigDecimal());
+                soma[2] = soma[2].add(credito.getBaseCalculo().toBigDecimal());
+            }
+        }
+
+        List<TotalAnaliticoDTO> totais = colunas.totalizar(agrupamento, inicio, fim, tipo, simples);
+        Map<String, TotalAnaliticoDTO> obtido = new TreeMap<>();
+        totais.forEach(total -> obtido.put(total.getGrupo(), total));
+        assertEquals(esperado.keySet(), obtido.keySet());
+        esperado.forEach((grupo, soma) -> {
+            assertEquals(soma[0].longValue(), obtido.get(grupo).getQuantidade());
+            assertEquals(soma[1], obtido.get(grupo).getValorIssqn().toBigDecimal());
+            assertEquals(soma[2], obtido.get(grupo).getBaseCalculo().toBigDecimal());
+        });
+    }
+
+    private static Credito credito(Long id, String tipo, boolean simples, LocalDate data, BigDecimal valorIssqn) {
+        Valor faturado = Valor.de(valorIssqn.multiply(BigDecimal.valueOf(20)));
+        return new Credito(id, "C" + id, "NF" + id / 10, data, Valor.de(valorIssqn), tipo, simples, Valor.de("5.00"),
+                faturado, Valor.ZERO, faturado);
+    }
+}
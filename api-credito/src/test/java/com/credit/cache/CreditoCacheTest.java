@@ -0,0 +1,111 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.credit.dto.CreditoDTO;
+
+class CreditoCacheTest {
+
+    private InMemoryCacheStore segundoNivel;
+    private CreditoCache creditoCache;
+    private AtomicInteger carregamentos;
+
+    @BeforeEach
+    void setUp() {
+        segundoNivel = new InMemoryCacheStore();
+        creditoCache = new CreditoCache(300, 1000, 1800, 5000, Optional.of(segundoNivel));
+        carregamentos = new AtomicInteger();
+    }
+
+    @Test
+    void putNumeroNfse_DeveGravarNosDoisNiveis() {
+        creditoCache.putNumeroNfse("7891011", carregar("7891011"));
+        List<CreditoDTO> creditos = creditoCache.getNumeroNfse("7891011");
+
+        assertEquals(2, creditos.size());
+        assertTrue(segundoNivel.get("creditos:nfse:7891011").isPresent());
+    }
+
+    @Test
+    void getNumeroNfse_DeveUsarSegundoNivel_QuandoPrimeiroNivelExpirado() {
+        creditoCache.putNumeroNfse("7891011", carregar("7891011"));
+        List<CreditoDTO> original = creditoCache.getNumeroNfse("7891011");
+        creditoCache.getCacheNumeroNfse().invalidateAll();
+
+        List<CreditoDTO> creditos = creditoCache.getNumeroNfse("7891011");
+
+        assertSame(original, creditos);
+    }
+
+    @Test
+    void buscarPorNumeroCredito_NaoDeveArmazenarResultadoNulo() {
+        assertNull(creditoCache.buscarPorNumeroCredito("999999", chave -> {
+            carregamentos.incrementAndGet();
+            return null;
+        }));
+        assertNull(creditoCache.buscarPorNumeroCredito("999999", chave -> {
+            carregamentos.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, carregamentos.get());
+        assertEquals(0, segundoNivel.size());
+    }
+
+    @Test
+    void evictNumeroNfse_DeveRemoverDosDoisNiveis() {
+        creditoCache.putNumeroNfse("7891011", carregar("7891011"));
+
+        creditoCache.evictNumeroNfse("7891011");
+
+        assertNull(creditoCache.getNumeroNfse("7891011"));
+        assertTrue(segundoNivel.get("creditos:nfse:7891011").isEmpty());
+    }
+
+    @Test
+    void maxEntries_DeveLimitarPrimeiroNivel() {
+        CreditoCache cacheLimitado = new CreditoCache(300, 2, 1800, 5000, Optional.empty());
+        for (int i = 0; i < 50; i++) {
+            cacheLimitado.putNumeroNfse("nfse-" + i, carregar("nfse-" + i));
+        }
+        // A manutenção do Caffeine roda no ForkJoinPool; cleanUp pode encontrar uma rodada em andamento
+        for (int i = 0; i < 100 && cacheLimitado.getCacheNumeroNfse().estimatedSize() > 2; i++) {
+            cacheLimitado.getCacheNumeroNfse().cleanUp();
+            Thread.yield();
+        }
+
+        assertTrue(cacheLimitado.getCacheNumeroNfse().estimatedSize() <= 2);
+    }
+
+    @Test
+    void segundoNivel_DeveExpirarPeloTtl() {
+        segundoNivel.put("valida", "a", Duration.ofHours(1));
+        segundoNivel.put("expirada", "b", Duration.ofNanos(-1));
+
+        assertTrue(segundoNivel.get("valida").isPresent());
+        assertTrue(segundoNivel.get("expirada").isEmpty());
+    }
+
+    private List<CreditoDTO> carregar(String numeroNfse) {
+        carregamentos.incrementAndGet();
+        CreditoDTO primeiro = new CreditoDTO();
+        primeiro.setNumeroCredito("123456");
+        primeiro.setNumeroNfse(numeroNfse);
+        CreditoDTO segundo = new CreditoDTO();
+        segundo.setNumeroCredito("789012");
+        segundo.setNumeroNfse(numeroNfse);
+        return Arrays.asList(primeiro, segundo);
+    }
+}
@@ -0,0 +1,96 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.repository.CreditoAuditoriaRepository;
+import com.credit.repository.CreditoJdbcRepository;
+
+class NegativeCreditoCacheTest {
+
+    private final CreditoJdbcRepository creditoJdbcRepository = mock(CreditoJdbcRepository.class);
+    private final CreditoAuditoriaRepository creditoAuditoriaRepository = mock(CreditoAuditoriaRepository.class);
+    private NegativeCreditoCache negativeCreditoCache;
+
+    @BeforeEach
+    void setUp() {
+        negativeCreditoCache = new NegativeCreditoCache(30, 10000, true);
+        ReflectionTestUtils.setField(negativeCreditoCache, "creditoJdbcRepository", creditoJdbcRepository);
+        ReflectionTestUtils.setField(negativeCreditoCache, "creditoAuditoriaRepository", creditoAuditoriaRepository);
+        when(creditoJdbcRepository.contar()).thenReturn(1L);
+    }
+
+    @Test
+    void reconstruirBloom_NaoDevePerderCreditoRegistradoDuranteAVarredura() {
+        doAnswer(invocacao -> {
+            BiConsumer<String, String> consumidor = invocacao.getArgument(0);
+            consumidor.accept("7891011", "123456");
+            // Evento de um crédito criado depois do início da varredura
+            negativeCreditoCache.registrarCredito("1122334", "654321");
+            return null;
+        }).when(creditoJdbcRepository).percorrerChaves(any());
+
+        negativeCreditoCache.reconstruirBloom();
+
+        assertFalse(negativeCreditoCache.isAusenteNumeroCredito("123456"));
+        assertFalse(negativeCreditoCache.isAusenteNumeroCredito("654321"));
+        assertFalse(negativeCreditoCache.isAusenteNumeroNfse("1122334"));
+        assertTrue(negativeCreditoCache.isAusenteNumeroCredito("999999"));
+    }
+
+    @Test
+    void isAusente_DeveIrAoBanco_QuandoEventosAtrasadosOuDesligados() {
+        negativeCreditoCache.reconstruirBloom();
+        negativeCreditoCache.verificarFluxoEventos();
+        assertTrue(negativeCreditoCache.isAusenteNumeroCredito("999999"));
+
+        negativeCreditoCache.registrarEventos(1, 60_000);
+        assertFalse(negativeCreditoCache.isAusenteNumeroCredito("999999"));
+        negativeCreditoCache.registrarEventos(2, 100);
+        assertTrue(negativeCreditoCache.isAusenteNumeroCredito("999999"));
+
+        // Sem eventos, o filtro só vale por atraso-maximo-ms depois da varredura
+        ReflectionTestUtils.setField(negativeCreditoCache, "invalidacaoPorEventos", false);
+        long montadoEm = (long) ReflectionTestUtils.getField(negativeCreditoCache, "bloomMontadoEm");
+        assertTrue(negativeCreditoCache.isBloomConfiavel(montadoEm + 30_000));
+        assertFalse(negativeCreditoCache.isBloomConfiavel(montadoEm + 30_001));
+    }
+
+    @Test
+    void isBloomConfiavel_DeveVoltarARegraSemEventos_QuandoOsEventosParam() {
+        when(creditoAuditoriaRepository.buscarUltimoIdAuditoria()).thenReturn(40L);
+        negativeCreditoCache.reconstruirBloom();
+        long montadoEm = (long) ReflectionTestUtils.getField(negativeCreditoCache, "bloomMontadoEm");
+
+        // A varredura cobre a auditoria até o id 40: sem alterações depois dela, vale o intervalo inteiro
+        negativeCreditoCache.verificarFluxoEventos(montadoEm + 60_000);
+        assertTrue(negativeCreditoCache.isBloomConfiavel(montadoEm + 60_000));
+
+        // A auditoria avança e nenhum evento chega
+        when(creditoAuditoriaRepository.buscarUltimoIdAuditoria()).thenReturn(42L);
+        negativeCreditoCache.verificarFluxoEventos(montadoEm + 65_000);
+        negativeCreditoCache.verificarFluxoEventos(montadoEm + 95_000);
+        assertTrue(negativeCreditoCache.isBloomConfiavel(montadoEm + 95_000));
+        negativeCreditoCache.verificarFluxoEventos(montadoEm + 95_001);
+        assertFalse(negativeCreditoCache.isBloomConfiavel(montadoEm + 95_001));
+
+        // Os eventos voltam
+        negativeCreditoCache.registrarEventos(42, 100);
+        negativeCreditoCache.verificarFluxoEventos(montadoEm + 100_000);
+        assertTrue(negativeCreditoCache.isBloomConfiavel(montadoEm + 100_000));
+
+        // Sem verificação recente também não há como saber se o fluxo está em dia
+        assertTrue(negativeCreditoCache.isBloomConfiavel(montadoEm + 135_000));
+        assertFalse(negativeCreditoCache.isBloomConfiavel(montadoEm + 135_001));
+    }
+}
@@ -0,0 +1,74 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.credit.dto.CreditoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RespostaSerializadaCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final RespostaSerializadaCache cache = new RespostaSerializadaCache(objectMapper, 300, 1 << 20, true, 256,
+            Optional.empty());
+
+    @Test
+    void obter_DeveReaproveitarComMesmoEtag_ESerializarQuandoMuda() throws Exception {
+        List<CreditoDTO> creditos = creditos(1);
+
+        RespostaSerializada primeira = cache.obterNumeroNfse("7891011", "\"a\"", creditos);
+        RespostaSerializada mesma = cache.obterNumeroNfse("7891011", "\"a\"", creditos);
+        RespostaSerializada nova = cache.obterNumeroNfse("7891011", "\"b\"", creditos(2));
+
+        assertSame(primeira, mesma);
+        assertNotSame(primeira, nova);
+        assertArrayEquals(objectMapper.writeValueAsBytes(creditos), primeira.getJson());
+        assertNull(primeira.getGzip());
+    }
+
+    @Test
+    void obter_DeveComprimirAcimaDoMinimo() throws Exception {
+        List<CreditoDTO> creditos = creditos(20);
+
+        RespostaSerializada resposta = cache.obterNumeroNfse("7891011", "\"a\"", creditos);
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(resposta.getGzip()))) {
+            assertArrayEquals(resposta.getJson(), entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    void evict_DeveDescartarSoAChaveDoTipo() {
+        CreditoDTO credito = creditos(1).get(0);
+        RespostaSerializada porCredito = cache.obterNumeroCredito("123456", "\"a\"", credito);
+        RespostaSerializada porNfse = cache.obterNumeroNfse("123456", "\"a\"", Collections.singletonList(credito));
+
+        cache.evictNumeroCredito("123456");
+
+        assertNotSame(porCredito, cache.obterNumeroCredito("123456", "\"a\"", credito));
+        assertSame(porNfse, cache.obterNumeroNfse("123456", "\"a\"", Collections.singletonList(credito)));
+    }
+
+    private static List<CreditoDTO> creditos(int quantidade) {
+        CreditoDTO[] creditos = new CreditoDTO[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            CreditoDTO credito = new CreditoDTO();
+            credito.setNumeroCredito("CRED-" + i);
+            credito.setNumeroNfse("7891011");
+            credito.setTipoCredito("ISSQN");
+            creditos[i] = credito;
+        }
+        return List.of(creditos);
+    }
+}
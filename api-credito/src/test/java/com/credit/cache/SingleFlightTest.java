@@ -0,0 +1,89 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class SingleFlightTest {
+
+    @Test
+    void executar_DevePropagarExcecaoDaCarga_ParaQuemAguarda() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(100, 5000);
+        CountDownLatch liberar = new CountDownLatch(1);
+        IllegalStateException falha = new IllegalStateException("banco fora");
+
+        CompletableFuture<Object> lider = CompletableFuture.supplyAsync(() -> singleFlight.executar("chave", () -> {
+            aguardar(liberar);
+            throw falha;
+        }));
+        aguardarEmAndamento(singleFlight, 1);
+        CompletableFuture<Object> seguidor = CompletableFuture.supplyAsync(() -> singleFlight.executar("chave", () -> "outra carga"));
+        TimeUnit.MILLISECONDS.sleep(100);
+        liberar.countDown();
+
+        ExecutionException erroLider = assertThrows(ExecutionException.class, () -> lider.get(5, TimeUnit.SECONDS));
+        assertSame(falha, erroLider.getCause());
+        ExecutionException erroSeguidor = assertThrows(ExecutionException.class, () -> seguidor.get(5, TimeUnit.SECONDS));
+        assertSame(falha, erroSeguidor.getCause());
+        assertEquals(0, singleFlight.getEmAndamento());
+    }
+
+    @Test
+    void executar_DeveDesistirAposTimeout_SemCancelarACarga() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(100, 50);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> lider = CompletableFuture.supplyAsync(() -> singleFlight.executar("chave", () -> {
+            aguardar(liberar);
+            return "resultado";
+        }));
+        aguardarEmAndamento(singleFlight, 1);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> singleFlight.executar("chave", () -> "outra carga"));
+
+        liberar.countDown();
+        assertEquals("resultado", lider.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void executar_DeveCarregarSemCoalescer_QuandoLimiteDeChavesAtingido() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(1, 5000);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger cargas = new AtomicInteger();
+        CompletableFuture<Integer> lider = CompletableFuture.supplyAsync(() -> singleFlight.executar("chave-1", () -> {
+            aguardar(liberar);
+            return cargas.incrementAndGet();
+        }));
+        aguardarEmAndamento(singleFlight, 1);
+
+        singleFlight.executar("chave-2", cargas::incrementAndGet);
+
+        assertEquals(1, singleFlight.getEmAndamento());
+        liberar.countDown();
+        lider.get(5, TimeUnit.SECONDS);
+        assertEquals(2, cargas.get());
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void aguardarEmAndamento(SingleFlight singleFlight, int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getEmAndamento() < quantidade && System.nanoTime() < limite) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.credit.dto.ChaveQuenteDTO;
+
+class SnapshotChavesQuentesTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void gravar_DeveSerLidoDeVolta() throws IOException {
+        Path arquivo = diretorio.resolve("sub/chaves.snap");
+        List<ChaveQuenteDTO> nfses = Arrays.asList(new ChaveQuenteDTO("7891011", 42), new ChaveQuenteDTO("NFSE-ção", 7));
+        List<ChaveQuenteDTO> creditos = Collections.singletonList(new ChaveQuenteDTO("123456", 3));
+        Instant geradoEm = Instant.ofEpochMilli(1_700_000_000_123L);
+
+        new SnapshotChavesQuentes(geradoEm, nfses, creditos).gravar(arquivo);
+        SnapshotChavesQuentes lido = SnapshotChavesQuentes.ler(arquivo);
+
+        assertEquals(geradoEm, lido.getGeradoEm());
+        assertEquals(nfses, lido.getNumerosNfse());
+        assertEquals(creditos, lido.getNumerosCredito());
+        assertFalse(Files.exists(arquivo.resolveSibling("chaves.snap.tmp")));
+    }
+
+    @Test
+    void ler_DeveRejeitarArquivoCorrompidoOuTruncado() throws IOException {
+        Path arquivo = diretorio.resolve("chaves.snap");
+        new SnapshotChavesQuentes(Instant.now(), Collections.singletonList(new ChaveQuenteDTO("7891011", 42)),
+                Collections.emptyList()).gravar(arquivo);
+        byte[] conteudo = Files.readAllBytes(arquivo);
+
+        conteudo[30] ^= 1;
+        Files.write(arquivo, conteudo);
+        assertThrows(IOException.class, () -> SnapshotChavesQuentes.ler(arquivo));
+
+        Files.write(arquivo, Arrays.copyOf(conteudo, 10));
+        assertThrows(IOException.class, () -> SnapshotChavesQuentes.ler(arquivo));
+    }
+}
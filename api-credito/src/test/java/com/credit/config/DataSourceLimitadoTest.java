@@ -0,0 +1,45 @@
+package com.credit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class DataSourceLimitadoTest {
+
+    @Test
+    void getConnection_DeveRecusar_QuandoLimiteAtingido_ELiberarNoClose() throws SQLException {
+        DataSource alvo = mock(DataSource.class);
+        Connection conexao = mock(Connection.class);
+        when(alvo.getConnection()).thenReturn(conexao);
+        DataSourceLimitado dataSource = new DataSourceLimitado(alvo, 1, 10);
+
+        Connection primeira = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        primeira.close();
+        primeira.close();
+        verify(conexao).close();
+        assertEquals(1, dataSource.getPermissoesDisponiveis());
+        dataSource.getConnection().close();
+    }
+
+    @Test
+    void getConnection_DeveDevolverPermissao_QuandoPoolFalha() throws SQLException {
+        DataSource alvo = mock(DataSource.class);
+        when(alvo.getConnection()).thenThrow(new SQLTransientConnectionException("pool esgotado"));
+        DataSourceLimitado dataSource = new DataSourceLimitado(alvo, 2, 10);
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertEquals(2, dataSource.getPermissoesDisponiveis());
+    }
+}
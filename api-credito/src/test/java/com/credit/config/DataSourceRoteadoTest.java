@@ -0,0 +1,119 @@
+package com.credit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Dois H2 em memória fazendo o papel de primário e réplica; o "atraso" da réplica é lido de uma tabela.
+ */
+class DataSourceRoteadoTest {
+
+    private JdbcTemplate primario;
+    private JdbcTemplate replica;
+    private MonitorAtrasoReplica monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate leitura;
+    private TransactionTemplate escrita;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primarioDataSource = banco("primario");
+        DataSource replicaDataSource = banco("replica");
+        primario = new JdbcTemplate(primarioDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE atraso (ms BIGINT)");
+        replica.update("INSERT INTO atraso VALUES (0)");
+
+        monitor = new MonitorAtrasoReplica(replicaDataSource, "SELECT ms FROM atraso", 1000, 1);
+        DataSourceRoteado roteado = new DataSourceRoteado(primarioDataSource, replicaDataSource, monitor);
+        roteado.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(roteado);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transacoes = new DataSourceTransactionManager(dataSource);
+        leitura = new TransactionTemplate(transacoes);
+        leitura.setReadOnly(true);
+        escrita = new TransactionTemplate(transacoes);
+    }
+
+    @Test
+    void deveLerDaReplica_SoEmTransacaoSomenteLeitura_DepoisDaPrimeiraMedicao() {
+        assertEquals("primario", origem(leitura));
+
+        monitor.verificar();
+
+        assertTrue(monitor.isReplicaUtilizavel());
+        assertEquals("replica", origem(leitura));
+        assertEquals("primario", origem(escrita));
+        assertEquals("primario", jdbcTemplate.queryForObject("SELECT nome FROM origem", String.class));
+    }
+
+    @Test
+    void deveVoltarAoPrimario_ComAtrasoAcimaDoLimite_OuReplicaIndisponivel() {
+        monitor.verificar();
+        replica.update("UPDATE atraso SET ms = 5000");
+        monitor.verificar();
+
+        assertFalse(monitor.isReplicaUtilizavel());
+        assertEquals(5000, monitor.getAtrasoMs());
+        assertEquals("primario", origem(leitura));
+
+        replica.update("UPDATE atraso SET ms = 200");
+        monitor.verificar();
+        assertEquals("replica", origem(leitura));
+
+        replica.execute("DROP TABLE atraso");
+        monitor.verificar();
+        assertFalse(monitor.isReplicaUtilizavel());
+        assertEquals(-1, monitor.getAtrasoMs());
+        assertEquals("primario", origem(leitura));
+    }
+
+    @Test
+    void deveConferirNoPrimario_LinhaQueAReplicaAindaNaoTem() {
+        monitor.verificar();
+        primario.update("INSERT INTO origem VALUES (?)", "importado");
+
+        List<Integer> lidas = new ArrayList<>();
+        assertTrue(RoteamentoLeitura.usouReplica(() -> lidas.add(contar(leitura, "importado"))));
+        assertEquals(0, lidas.get(0));
+
+        assertFalse(RoteamentoLeitura.usouReplica(
+                () -> lidas.add(RoteamentoLeitura.noPrimario(() -> contar(leitura, "importado")))));
+        assertEquals(1, lidas.get(1));
+
+        // Fora do bloco o roteamento volta ao normal
+        assertEquals("replica", origem(leitura));
+    }
+
+    private Integer contar(TransactionTemplate transacao, String nome) {
+        return transacao.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM origem WHERE nome = ?", Integer.class, nome));
+    }
+
+    private String origem(TransactionTemplate transacao) {
+        return transacao.execute(status -> jdbcTemplate.queryForObject("SELECT nome FROM origem", String.class));
+    }
+
+    private static DataSource banco(String nome) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:roteamento-" + nome + "-" + System.nanoTime()
+                + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE origem (nome VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO origem VALUES (?)", nome);
+        return dataSource;
+    }
+}
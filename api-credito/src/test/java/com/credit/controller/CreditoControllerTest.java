@@ -1,18 +1,38 @@
 package com.credit.controller;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,9 +40,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.credit.cache.ChavesQuentes;
+import com.credit.cache.RespostaSerializada;
+import com.credit.cache.RespostaSerializadaCache;
+import com.credit.dto.ConsultaLoteRequestDTO;
+import com.credit.dto.ConsultaLoteResponseDTO;
 import com.credit.dto.CreditoDTO;
+import com.credit.dto.ImportacaoResultadoDTO;
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.dto.ResumoNfseDTO;
+import com.credit.entity.Valor;
 import com.credit.exception.CreditoNotFoundException;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.repository.CampoBusca;
+import com.credit.repository.ModoBusca;
+import com.credit.service.CreditoBuscaService;
+import com.credit.service.CreditoImportacaoService;
 import com.credit.service.CreditoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -35,6 +70,18 @@ public class CreditoControllerTest {
     @MockBean
     private CreditoService creditoService;
 
+    @MockBean
+    private CreditoImportacaoService creditoImportacaoService;
+
+    @MockBean
+    private CreditoBuscaService creditoBuscaService;
+
+    @MockBean
+    private ChavesQuentes chavesQuentes;
+
+    @MockBean
+    private RespostaSerializadaCache respostaSerializadaCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,7 +91,7 @@ public class CreditoControllerTest {
                 criarCreditoDTO("123456", "7891011"),
                 criarCreditoDTO("789012", "7891011")
         );
-        when(creditoService.buscarPorNumeroNfse("7891011")).thenReturn(creditos);
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", null, null)).thenReturn(new PaginaCreditosDTO(creditos, null));
 
         mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011"))
                 .andDo(print())
@@ -59,9 +106,137 @@ public class CreditoControllerTest {
                 .andExpect(jsonPath("$[0].valorIssqn").value(1500.75));
     }
 
+    @Test
+    public void buscarPorNumeroNfse_chaveQuente_retornaCorpoProntoComGzip() throws Exception {
+        List<CreditoDTO> creditos = Arrays.asList(criarCreditoDTO("123456", "7891011"));
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", null, null)).thenReturn(new PaginaCreditosDTO(creditos, null));
+        when(chavesQuentes.isNumeroNfseQuente("7891011")).thenReturn(true);
+        byte[] json = objectMapper.writeValueAsBytes(creditos);
+        byte[] gzip = new byte[] {0x1f, (byte) 0x8b, 1, 2, 3};
+        when(respostaSerializadaCache.obterNumeroNfse(eq("7891011"), anyString(), eq(creditos)))
+                .thenReturn(new RespostaSerializada("\"x\"", json, gzip));
+
+        MvcResult comprimida = mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andExpect(header().string("ETag", "\"x-gzip\""))
+                .andReturn();
+        assertArrayEquals(gzip, comprimida.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", "\"x\""))
+                .andExpect(content().bytes(json))
+                .andExpect(jsonPath("$[0].numeroCredito").value("123456"));
+
+        // O mesmo conteúdo em qualquer das variantes revalida com 304
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", "\"x\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"x\""));
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("If-None-Match", "\"y\", W/\"x-gzip\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"x-gzip\""));
+    }
+
+    @Test
+    public void buscarPorNumeroNfse_chaveFriaGrande_retornaGzipComEtagProprio() throws Exception {
+        List<CreditoDTO> creditos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            creditos.add(criarCreditoDTO("1234" + i, "7891011"));
+        }
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", null, null)).thenReturn(new PaginaCreditosDTO(creditos, null));
+        RespostaSerializadaCache serializador = new RespostaSerializadaCache(objectMapper, 300, 1 << 20, true, 2048, Optional.empty());
+        when(respostaSerializadaCache.serializar(anyString(), eq(creditos)))
+                .thenAnswer(chamada -> serializador.serializar(chamada.getArgument(0), creditos));
+        String etag = Etags.de(creditos, null);
+        byte[] json = objectMapper.writeValueAsBytes(creditos);
+
+        MvcResult comprimida = mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andExpect(header().string("ETag", Etags.gzip(etag)))
+                .andReturn();
+        byte[] corpo = comprimida.getResponse().getContentAsByteArray();
+        assertTrue(corpo.length * 4 < json.length, corpo.length + " x " + json.length);
+        try (GZIPInputStream descomprimido = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            assertArrayEquals(json, descomprimido.readAllBytes());
+        }
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", Etags.gzip(etag)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", Etags.gzip(etag)));
+    }
+
+    @Test
+    public void aceitaGzip_deveRespeitarQZero() {
+        assertTrue(CreditoController.aceitaGzip("gzip, deflate, br"));
+        assertTrue(CreditoController.aceitaGzip("*"));
+        assertTrue(CreditoController.aceitaGzip("GZIP;q=0.5"));
+        assertFalse(CreditoController.aceitaGzip(null));
+        assertFalse(CreditoController.aceitaGzip("identity"));
+        assertFalse(CreditoController.aceitaGzip("gzip; q=0.000, br"));
+    }
+
+    @Test
+    public void buscarPorNumeroNfse_comMaisPaginas_retornaCursorNoHeader() throws Exception {
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", "Y3Vyc29y", 1))
+                .thenReturn(new PaginaCreditosDTO(Arrays.asList(criarCreditoDTO("789012", "7891011")), "cHJveGltbw"));
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011")
+                        .param("cursor", "Y3Vyc29y")
+                        .param("limite", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(CreditoController.HEADER_PROXIMO_CURSOR, "cHJveGltbw"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].numeroCredito").value("789012"));
+    }
+
+    @Test
+    public void buscar_porPrefixo_retornaPaginaComCursor() throws Exception {
+        when(creditoBuscaService.buscar("789", CampoBusca.NFSE, ModoBusca.PREFIXO, "ISSQN", LocalDate.of(2024, 1, 1),
+                null, null, 1))
+                .thenReturn(new PaginaCreditosDTO(Collections.singletonList(criarCreditoDTO("123456", "7891011")), "cursor-2"));
+
+        mockMvc.perform(get("/api/creditos/busca").param("termo", "789").param("tipoCredito", "ISSQN")
+                        .param("dataInicio", "2024-01-01").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CreditoController.HEADER_PROXIMO_CURSOR, "cursor-2"))
+                .andExpect(jsonPath("$[0].numeroNfse").value("7891011"));
+    }
+
+    @Test
+    public void buscarResumoPorNumeroNfse_retornaTotais() throws Exception {
+        ResumoNfseDTO resumo = new ResumoNfseDTO("7891011", 2, new BigDecimal("2701.25"), new BigDecimal("4.75"),
+                new BigDecimal("55000.00"), LocalDate.of(2024, 2, 25), LocalDate.of(2024, 2, 26), null);
+        when(creditoService.buscarResumoPorNumeroNfse("7891011")).thenReturn(resumo);
+
+        mockMvc.perform(get("/api/creditos/resumo/{numeroNfse}", "7891011"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCreditos").value(2))
+                .andExpect(jsonPath("$.totalIssqn").value(2701.25))
+                .andExpect(jsonPath("$.aliquotaMedia").value(4.75))
+                .andExpect(jsonPath("$.primeiraConstituicao").value("2024-02-25"));
+    }
+
     @Test
     public void buscarPorNumeroNfse_quandoNaoEncontrado_retornaListaVazia() throws Exception {
-        when(creditoService.buscarPorNumeroNfse("999999")).thenReturn(Collections.emptyList());
+        when(creditoService.buscarPaginaPorNumeroNfse("999999", null, null))
+                .thenReturn(new PaginaCreditosDTO(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/creditos/{numeroNfse}", "999999"))
                 .andDo(print())
@@ -88,6 +263,37 @@ public class CreditoControllerTest {
                 .andExpect(jsonPath("$.tipoCredito").value("ISSQN"));
     }
 
+    @Test
+    public void buscarPorNumeroCredito_comIfNoneMatchIgual_retorna304SemCorpo() throws Exception {
+        when(creditoService.buscarPorNumeroCredito("123456")).thenReturn(criarCreditoDTO("123456", "7891011"));
+
+        String etag = mockMvc.perform(get("/api/creditos/credito/{numeroCredito}", "123456"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/creditos/credito/{numeroCredito}", "123456").header("If-None-Match", etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void buscarPorNumeroNfse_quandoConteudoMuda_etagMuda() throws Exception {
+        CreditoDTO credito = criarCreditoDTO("123456", "7891011");
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", null, null))
+                .thenReturn(new PaginaCreditosDTO(Collections.singletonList(credito), null));
+        String etag = mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        credito.setValorIssqn(Valor.de("1500.76"));
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "7891011").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].valorIssqn").value(1500.76));
+    }
+
     @Test
     public void buscarPorNumeroCredito_quandoNaoEncontrado_retorna404() throws Exception {
         when(creditoService.buscarPorNumeroCredito("999999"))
@@ -117,7 +323,8 @@ public class CreditoControllerTest {
 
     @Test
     public void verificarCorsHeaders() throws Exception {
-        when(creditoService.buscarPorNumeroNfse("7891011")).thenReturn(Collections.emptyList());
+        when(creditoService.buscarPaginaPorNumeroNfse("7891011", null, null))
+                .thenReturn(new PaginaCreditosDTO(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/creditos/7891011")
                         .header("Origin", "http://localhost:3000"))
@@ -126,17 +333,113 @@ public class CreditoControllerTest {
                 .andExpect(header().string("Access-Control-Allow-Origin", "*"));
     }
 
+    @Test
+    public void buscarEmLote_retornaResultadosAgrupadosPorChave() throws Exception {
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+        resposta.getCreditosPorNfse().put("7891011", Arrays.asList(criarCreditoDTO("123456", "7891011")));
+        resposta.getNfseNaoEncontradas().add("999999");
+        resposta.getCreditosPorNumero().put("123456", criarCreditoDTO("123456", "7891011"));
+        when(creditoService.buscarEmLote(Arrays.asList("7891011", "999999"), Arrays.asList("123456")))
+                .thenReturn(resposta);
+
+        ConsultaLoteRequestDTO request = new ConsultaLoteRequestDTO(
+                Arrays.asList("7891011", "999999"), Arrays.asList("123456"));
+
+        mockMvc.perform(post("/api/creditos/consulta-lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creditosPorNfse.7891011[0].numeroCredito").value("123456"))
+                .andExpect(jsonPath("$.creditosPorNumero.123456.numeroNfse").value("7891011"))
+                .andExpect(jsonPath("$.nfseNaoEncontradas[0]").value("999999"))
+                .andExpect(jsonPath("$.creditosNaoEncontrados").isEmpty());
+    }
+
+    @Test
+    public void buscarEmLote_quandoPedidoInvalido_retorna400() throws Exception {
+        when(creditoService.buscarEmLote(any(), any()))
+                .thenThrow(new RequisicaoInvalidaException("Consulta em lote limitada a 1000 chaves"));
+
+        mockMvc.perform(post("/api/creditos/consulta-lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numerosNfse\": []}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Consulta em lote limitada a 1000 chaves"));
+    }
+
+    @Test
+    public void exportar_retornaNdjsonEmStreaming() throws Exception {
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fim = LocalDate.of(2024, 3, 31);
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(3);
+            saida.write("{\"numeroCredito\":\"123456\"}\n{\"numeroCredito\":\"654321\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(creditoService).exportar(eq(inicio), eq(fim), isNull(), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/creditos/exportacao")
+                        .param("dataInicio", "2024-01-01")
+                        .param("dataFim", "2024-03-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"numeroCredito\":\"123456\"}\n{\"numeroCredito\":\"654321\"}\n"));
+    }
+
+    @Test
+    public void exportar_quandoPeriodoInvalido_retorna400() throws Exception {
+        doThrow(new RequisicaoInvalidaException("dataInicio deve ser anterior ou igual a dataFim"))
+                .when(creditoService).validarPeriodoExportacao(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 1, 1));
+
+        mockMvc.perform(get("/api/creditos/exportacao")
+                        .param("dataInicio", "2024-03-31")
+                        .param("dataFim", "2024-01-01"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("dataInicio deve ser anterior ou igual a dataFim"));
+    }
+
+    @Test
+    public void importar_csv_retornaResultado() throws Exception {
+        when(creditoImportacaoService.importarCsv(any(InputStream.class)))
+                .thenReturn(new ImportacaoResultadoDTO(2, 1, 1, List.of("linha 3: campos obrigatórios ausentes")));
+
+        mockMvc.perform(post("/api/creditos/importacao")
+                        .contentType("text/csv")
+                        .content("numero_credito;numero_nfse\n123456;7891011\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gravados").value(1))
+                .andExpect(jsonPath("$.rejeitados").value(1))
+                .andExpect(jsonPath("$.erros[0]").value("linha 3: campos obrigatórios ausentes"));
+    }
+
+    @Test
+    public void importar_tipoNaoSuportado_retorna415() throws Exception {
+        mockMvc.perform(post("/api/creditos/importacao")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<creditos/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     private CreditoDTO criarCreditoDTO(String numeroCredito, String numeroNfse) {
         CreditoDTO dto = new CreditoDTO();
         dto.setNumeroCredito(numeroCredito);
         dto.setNumeroNfse(numeroNfse);
         dto.setDataConstituicao(LocalDate.of(2024, 2, 25));
-        dto.setValorIssqn(new BigDecimal("1500.75"));
+        dto.setValorIssqn(Valor.de("1500.75"));
         dto.setTipoCredito("ISSQN");
-        dto.setAliquota(new BigDecimal("5.0"));
-        dto.setValorFaturado(new BigDecimal("30000.00"));
-        dto.setValorDeducao(new BigDecimal("5000.00"));
-        dto.setBaseCalculo(new BigDecimal("25000.00"));
+        dto.setAliquota(Valor.de("5.0"));
+        dto.setValorFaturado(Valor.de("30000.00"));
+        dto.setValorDeducao(Valor.de("5000.00"));
+        dto.setBaseCalculo(Valor.de("25000.00"));
         return dto;
     }
 
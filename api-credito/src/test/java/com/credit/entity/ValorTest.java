@@ -0,0 +1,61 @@
+package com.credit.entity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+class ValorTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void json_DeveSerIgualAoDoBigDecimalDeEscala2() throws Exception {
+        List<Valor> valores = new ArrayList<>();
+        List<BigDecimal> decimais = new ArrayList<>();
+        for (String texto : Arrays.asList("0.00", "0.05", "0.50", "5.00", "1500.75", "-1.50", "9999999999999.99")) {
+            valores.add(Valor.de(texto));
+            decimais.add(new BigDecimal(texto));
+        }
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long centesimos = aleatorio.nextLong() % 1_000_000_000_000_000L;
+            valores.add(Valor.deCentesimos(centesimos));
+            decimais.add(BigDecimal.valueOf(centesimos, 2));
+        }
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(decimais), objectMapper.writeValueAsBytes(valores));
+        assertEquals(objectMapper.writeValueAsString(decimais), objectMapper.writeValueAsString(valores));
+        assertEquals(decimais.get(4).toString(), valores.get(4).toString());
+    }
+
+    @Test
+    void json_DeveLerNumeroOuTexto_ERejeitarMaisDeDuasCasas() throws Exception {
+        assertEquals(Valor.deCentesimos(150075), objectMapper.readValue("1500.75", Valor.class));
+        assertEquals(Valor.deCentesimos(500), objectMapper.readValue("\"5\"", Valor.class));
+        assertEquals(Valor.deCentesimos(1012), objectMapper.readValue("10.120", Valor.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("10.123", Valor.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"abc\"", Valor.class));
+    }
+
+    @Test
+    void de_DeveSerExato() {
+        assertEquals(new BigDecimal("1500.75"), Valor.de(new BigDecimal("1500.75")).toBigDecimal());
+        assertEquals(Valor.ZERO, Valor.de(BigDecimal.ZERO));
+        assertThrows(ArithmeticException.class, () -> Valor.de(new BigDecimal("0.001")));
+        assertThrows(ArithmeticException.class, () -> Valor.de(new BigDecimal("1e30")));
+        assertThrows(NumberFormatException.class, () -> Valor.de("1,50"));
+        assertThrows(NumberFormatException.class, () -> Valor.de("1.505"));
+    }
+}
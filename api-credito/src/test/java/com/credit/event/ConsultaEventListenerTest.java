@@ -0,0 +1,172 @@
+package com.credit.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.repository.ConsultaEstatisticaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultaEventListenerTest {
+
+    private static final String GRUPO = "creditos-consultas-analytics";
+    private static final long MINUTO = 28_000_000L;
+
+    @Mock
+    private ConsultaEstatisticaRepository consultaEstatisticaRepository;
+
+    @Mock
+    private DeadLetterPublishingRecoverer recuperadorFalhas;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private ConsultaEventListener listener;
+
+    @Captor
+    private ArgumentCaptor<Map<ChaveContadorConsulta, Long>> contadores;
+
+    @Captor
+    private ArgumentCaptor<Map<Integer, Long>> offsets;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "grupo", GRUPO);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumir_DeveAgregarPorChaveEMinuto_EConfirmarDepoisDeGravar() {
+        when(consultaEstatisticaRepository.buscarOffsets(GRUPO, "creditos-consultas")).thenReturn(Collections.emptyMap());
+
+        listener.consumir(Arrays.asList(
+                registro(0, 10, evento("CONSULTA_POR_NFSE", "7891011", 5)),
+                registro(0, 11, evento("CONSULTA_POR_NFSE", "7891011", 50)),
+                registro(1, 3, evento("CONSULTA_POR_NFSE", "7891011", 65)),
+                registro(1, 4, eventoLote("CONSULTA_LOTE_POR_CREDITO", List.of("654321,A", "123456", "123456"), 1)),
+                registro(1, 5, null)), ack);
+
+        verify(consultaEstatisticaRepository).gravarLote(eq(GRUPO), eq("creditos-consultas"),
+                contadores.capture(), offsets.capture());
+        assertEquals(4, contadores.getValue().size());
+        assertEquals(2L, contadores.getValue().get(new ChaveContadorConsulta("CONSULTA_POR_NFSE", "7891011", MINUTO)));
+        assertEquals(1L, contadores.getValue().get(new ChaveContadorConsulta("CONSULTA_POR_NFSE", "7891011", MINUTO + 1)));
+        assertEquals(1L, contadores.getValue().get(new ChaveContadorConsulta("CONSULTA_LOTE_POR_CREDITO", "654321,A", MINUTO)));
+        assertEquals(2L, contadores.getValue().get(new ChaveContadorConsulta("CONSULTA_LOTE_POR_CREDITO", "123456", MINUTO)));
+        assertEquals(Map.of(0, 11L, 1, 5L), offsets.getValue());
+        verify(recuperadorFalhas).accept(argThat(registro -> registro.offset() == 5), any(IllegalArgumentException.class));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consumir_DeveReencaminharRegistroComFalha_SemPararOLote() {
+        when(consultaEstatisticaRepository.buscarOffsets(GRUPO, "creditos-consultas")).thenReturn(Collections.emptyMap());
+
+        listener.consumir(Arrays.asList(
+                registro(0, 1, evento(null, "7891011", 5)),
+                registro(0, 2, evento("CONSULTA_POR_NFSE", "7891011", 5))), ack);
+
+        verify(recuperadorFalhas).accept(argThat(registro -> registro.offset() == 1), any(IllegalArgumentException.class));
+        verify(consultaEstatisticaRepository).gravarLote(eq(GRUPO), eq("creditos-consultas"),
+                contadores.capture(), offsets.capture());
+        assertEquals(1, contadores.getValue().size());
+        assertEquals(Map.of(0, 2L), offsets.getValue());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void reprocessar_DeveDevolverComNack_AntesDoPrazoDoNivel() {
+        ConsumerRecord<String, ConsultaEvent> registro =
+                new ConsumerRecord<>("creditos-consultas-retry-1", 0, 7, null, evento("CONSULTA_POR_NFSE", "7891011", 5));
+        registro.headers().add(RoteamentoFalhas.HEADER_REPROCESSAR_APOS,
+                ByteBuffer.allocate(8).putLong(System.currentTimeMillis() + 60_000).array());
+
+        listener.reprocessar(registro, ack);
+
+        verify(ack).nack(argThat((Duration espera) -> espera.toMillis() > 50_000));
+        verify(consultaEstatisticaRepository, never()).gravarLote(anyString(), anyString(), anyMap(), anyMap());
+    }
+
+    @Test
+    void reprocessar_DeveGravarComOffsetsDoTopicoDeRetry() {
+        when(consultaEstatisticaRepository.buscarOffsets(GRUPO, "creditos-consultas-retry-2")).thenReturn(Collections.emptyMap());
+        ConsumerRecord<String, ConsultaEvent> registro =
+                new ConsumerRecord<>("creditos-consultas-retry-2", 0, 7, null, evento("CONSULTA_POR_NFSE", "7891011", 5));
+
+        listener.reprocessar(registro, ack);
+
+        verify(consultaEstatisticaRepository).gravarLote(eq(GRUPO), eq("creditos-consultas-retry-2"), anyMap(), eq(Map.of(0, 7L)));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consumir_DeveIgnorarOffsetsJaProcessados() {
+        when(consultaEstatisticaRepository.buscarOffsets(GRUPO, "creditos-consultas")).thenReturn(Map.of(0, 11L));
+
+        listener.consumir(Arrays.asList(
+                registro(0, 10, evento("CONSULTA_POR_NFSE", "7891011", 5)),
+                registro(0, 11, evento("CONSULTA_POR_NFSE", "7891011", 5))), ack);
+
+        verify(consultaEstatisticaRepository, never()).gravarLote(anyString(), anyString(), anyMap(), anyMap());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consumir_NaoDeveConfirmar_QuandoGravacaoFalha() {
+        when(consultaEstatisticaRepository.buscarOffsets(GRUPO, "creditos-consultas")).thenReturn(Collections.emptyMap());
+        doThrow(new DataAccessResourceFailureException("banco fora"))
+                .when(consultaEstatisticaRepository).gravarLote(anyString(), anyString(), anyMap(), anyMap());
+
+        List<ConsumerRecord<String, ConsultaEvent>> registros =
+                Arrays.asList(registro(0, 1, evento("CONSULTA_POR_CREDITO", "123456", 5)));
+
+        // A exceção sobe para o DefaultErrorHandler do container, que reentrega o lote
+        assertThrows(DataAccessResourceFailureException.class, () -> listener.consumir(registros, ack));
+        verify(ack, never()).acknowledge();
+    }
+
+    private static ConsumerRecord<String, ConsultaEvent> registro(int particao, long offset, ConsultaEvent evento) {
+        return new ConsumerRecord<>("creditos-consultas", particao, offset, null, evento);
+    }
+
+    private static ConsultaEvent evento(String tipo, String parametro, int segundos) {
+        long timestamp = TimeUnit.MINUTES.toMillis(MINUTO) + TimeUnit.SECONDS.toMillis(segundos);
+        return new ConsultaEvent(tipo, parametro, timestamp, "sistema");
+    }
+
+    private static ConsultaEvent eventoLote(String tipo, List<String> chaves, int segundos) {
+        long timestamp = TimeUnit.MINUTES.toMillis(MINUTO) + TimeUnit.SECONDS.toMillis(segundos);
+        return new ConsultaEvent(tipo, null, timestamp, "sistema", chaves);
+    }
+}
@@ -0,0 +1,106 @@
+package com.credit.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class ConsultaEventSerializerTest {
+
+    private static final String TOPICO = "creditos-consultas";
+
+    private final ConsultaEventDeserializer deserializer = new ConsultaEventDeserializer();
+
+    @Test
+    void binario_DeveFazerIdaEVolta() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_POR_NFSE", "7891011", 1708819200123L, "sistema");
+
+        byte[] payload = new ConsultaEventSerializer(FormatoEvento.BINARIO).serialize(TOPICO, evento);
+
+        assertEquals(ConsultaEventSerializer.VERSAO_1, payload[0]);
+        assertEquals(evento, deserializer.deserialize(TOPICO, payload));
+    }
+
+    @Test
+    void binario_DevePreservarNulosEUnicode() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_POR_CREDITO", null, 0L, "usuário-çã" + "x".repeat(200));
+
+        byte[] payload = new ConsultaEventSerializer(FormatoEvento.BINARIO).serialize(TOPICO, evento);
+
+        assertEquals(evento, deserializer.deserialize(TOPICO, payload));
+    }
+
+    @Test
+    void binario_DeveGravarChavesDoLote_NaVersao2() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_LOTE_POR_CREDITO", null, 1708819200123L, "sistema",
+                List.of("654321,A", "", "crédito-" + "x".repeat(200)));
+
+        byte[] payload = new ConsultaEventSerializer(FormatoEvento.BINARIO).serialize(TOPICO, evento);
+
+        assertEquals(ConsultaEventSerializer.VERSAO_2, payload[0]);
+        assertEquals(evento, deserializer.deserialize(TOPICO, payload));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(TOPICO, Arrays.copyOf(payload, payload.length - 1)));
+    }
+
+    @Test
+    void json_DeveGravarChavesDoLote() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_LOTE_POR_NFSE", null, 1708819200123L, "sistema",
+                List.of("7891011", "inexistente"));
+
+        byte[] json = new ConsultaEventSerializer(FormatoEvento.JSON).serialize(TOPICO, evento);
+
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"chaves\":[\"7891011\",\"inexistente\"]"));
+        assertEquals(evento, deserializer.deserialize(TOPICO, json));
+    }
+
+    @Test
+    void binario_DeveSerMenorQueJson() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_POR_NFSE", "7891011", 1708819200123L, "sistema");
+
+        byte[] binario = new ConsultaEventSerializer(FormatoEvento.BINARIO).serialize(TOPICO, evento);
+        byte[] json = new ConsultaEventSerializer(FormatoEvento.JSON).serialize(TOPICO, evento);
+
+        assertTrue(binario.length * 2 < json.length, binario.length + " x " + json.length);
+    }
+
+    @Test
+    void json_DeveManterFormatoLegado() {
+        ConsultaEvent evento = new ConsultaEvent("CONSULTA_POR_NFSE", "7891011", 1708819200123L, "sistema");
+
+        byte[] json = new ConsultaEventSerializer(FormatoEvento.JSON).serialize(TOPICO, evento);
+        String texto = new String(json, StandardCharsets.UTF_8);
+
+        assertTrue(texto.startsWith("{\"tipoConsulta\":\"CONSULTA_POR_NFSE\""));
+        assertTrue(texto.contains("\"timestamp\":\""));
+        assertEquals(evento, deserializer.deserialize(TOPICO, json));
+    }
+
+    @Test
+    void outrosPayloads_DevemSerSerializadosEmJson() {
+        byte[] json = new ConsultaEventSerializer(FormatoEvento.BINARIO).serialize(TOPICO, Map.of("chave", "valor"));
+
+        assertEquals("{\"chave\":\"valor\"}", new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deserialize_DeveRejeitarVersaoDesconhecida() {
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPICO, new byte[] {0x7F, 0x00}));
+    }
+
+    @Test
+    void deserialize_DeveRejeitarPayloadTruncado() {
+        byte[] payload = new ConsultaEventSerializer(FormatoEvento.BINARIO)
+                .serialize(TOPICO, new ConsultaEvent("CONSULTA_POR_NFSE", "7891011", 1L, "sistema"));
+        byte[] truncado = Arrays.copyOf(payload, payload.length - 3);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPICO, truncado));
+    }
+}
@@ -0,0 +1,72 @@
+package com.credit.event;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.credit.cache.CreditoCache;
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.cache.RespostaSerializadaCache;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoAlteradoListenerTest {
+
+    @Mock
+    private CreditoCache creditoCache;
+
+    @Mock
+    private NegativeCreditoCache negativeCreditoCache;
+
+    @Mock
+    private RespostaSerializadaCache respostaSerializadaCache;
+
+    @InjectMocks
+    private CreditoAlteradoListener listener;
+
+    @Test
+    void invalidar_DeveRemoverChavesNovasEAnteriores_ERegistrarCredito() {
+        CreditoAlteradoEvent troca = new CreditoAlteradoEvent(5, CreditoAlteradoEvent.UPDATE, 1L,
+                "7891011", "123456", "1122334", null, 0L);
+
+        listener.invalidar(Arrays.asList(troca, null));
+
+        verify(creditoCache).evictNumeroNfse("7891011");
+        verify(creditoCache).evictNumeroNfse("1122334");
+        verify(creditoCache).evictNumeroCredito("123456");
+        verify(respostaSerializadaCache).evictNumeroNfse("1122334");
+        verify(respostaSerializadaCache).evictNumeroCredito("123456");
+        verify(negativeCreditoCache).registrarCredito("7891011", "123456");
+    }
+
+    @Test
+    void invalidar_NaoDeveRegistrarCredito_EmDelete() {
+        CreditoAlteradoEvent exclusao = new CreditoAlteradoEvent(6, CreditoAlteradoEvent.DELETE, null,
+                "7891011", "123456", null, null, 0L);
+
+        listener.invalidar(Arrays.asList(exclusao));
+
+        verify(creditoCache).evictNumeroNfse("7891011");
+        verify(creditoCache).evictNumeroCredito("123456");
+        verifyNoInteractions(negativeCreditoCache);
+    }
+
+    @Test
+    void invalidar_DeveInformarAtrasoDosEventosAoCacheNegativo() {
+        long alteradoEm = System.currentTimeMillis() - 60_000;
+        CreditoAlteradoEvent insercao = new CreditoAlteradoEvent(7, CreditoAlteradoEvent.INSERT, 2L,
+                "7891011", "654321", null, null, alteradoEm);
+
+        listener.invalidar(Arrays.asList(insercao));
+
+        verify(negativeCreditoCache).registrarEventos(eq(7L), longThat(atraso -> atraso >= 60_000));
+    }
+}
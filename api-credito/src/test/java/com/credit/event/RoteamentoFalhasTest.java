@@ -0,0 +1,60 @@
+package com.credit.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+class RoteamentoFalhasTest {
+
+    private final RoteamentoFalhas roteamento = new RoteamentoFalhas();
+
+    @Test
+    void destino_DeveAvancarPelosNiveis_EDepoisIrParaDlq() {
+        ConsumerRecord<String, Object> registro = new ConsumerRecord<>("creditos-consultas", 0, 1, null, "valor");
+        RuntimeException erro = new IllegalStateException("falha");
+
+        for (int nivel = 1; nivel <= RoteamentoFalhas.NIVEIS_RETRY; nivel++) {
+            TopicPartition destino = roteamento.destino(registro, erro);
+            assertEquals("creditos-consultas-retry-" + nivel, destino.topic());
+
+            Headers headers = roteamento.cabecalhos(registro, erro);
+            registro = new ConsumerRecord<>(destino.topic(), 0, 1, null, "valor");
+            headers.forEach(registro.headers()::add);
+            assertEquals(nivel, RoteamentoFalhas.tentativa(registro));
+        }
+
+        assertEquals(RoteamentoFalhas.TOPICO_DLQ, roteamento.destino(registro, erro).topic());
+    }
+
+    @Test
+    void cabecalhos_DevemAgendarEsperaExponencial() {
+        ConsumerRecord<String, Object> registro = new ConsumerRecord<>("creditos-consultas-retry-2", 0, 1, null, "valor");
+        registro.headers().add(RoteamentoFalhas.HEADER_TENTATIVA, new byte[] {0, 0, 0, 2});
+        long agora = System.currentTimeMillis();
+
+        ConsumerRecord<String, Object> proximo = new ConsumerRecord<>("creditos-consultas-retry-3", 0, 1, null, "valor");
+        roteamento.cabecalhos(registro, new IllegalStateException()).forEach(proximo.headers()::add);
+
+        long espera = RoteamentoFalhas.esperaRestante(proximo, agora);
+        assertTrue(espera >= 25_000 && espera < 26_000, "espera do terceiro nível: " + espera);
+    }
+
+    @Test
+    void destino_DeveIrDiretoParaDlq_QuandoNaoRecuperavel() {
+        ConsumerRecord<String, Object> ilegivel = new ConsumerRecord<>("creditos-consultas", 0, 1, null, null);
+        ilegivel.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]);
+        ConsumerRecord<String, Object> outroTopico = new ConsumerRecord<>("creditos-eventos", 0, 1, null, "valor");
+
+        assertEquals(RoteamentoFalhas.TOPICO_DLQ, roteamento.destino(ilegivel, new IllegalStateException()).topic());
+        assertEquals(RoteamentoFalhas.TOPICO_DLQ, roteamento.destino(
+                new ConsumerRecord<>("creditos-consultas", 0, 1, null, "valor"),
+                new IllegalStateException(new DeserializationException("ilegível", new byte[0], false, null))).topic());
+        assertEquals(RoteamentoFalhas.TOPICO_DLQ, roteamento.destino(outroTopico, new IllegalStateException()).topic());
+    }
+}
@@ -0,0 +1,101 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.cache.Agrupamento;
+import com.credit.dto.TotaisAnaliticosDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.exception.ServicoIndisponivelException;
+import com.credit.repository.CreditoAuditoriaRepository;
+import com.credit.repository.CreditoJdbcRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AnaliticoServiceTest {
+
+    private static final LocalDateTime CARGA = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime ATUALIZACAO = CARGA.plusSeconds(10);
+
+    @Mock
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Mock
+    private CreditoAuditoriaRepository creditoAuditoriaRepository;
+
+    @InjectMocks
+    private AnaliticoService analiticoService;
+
+    @Test
+    void atualizar_DeveCarregarTudo_EDepoisAplicarAlteracoesEExclusoesDaJanela() {
+        assertThrows(ServicoIndisponivelException.class,
+                () -> analiticoService.totalizar(Agrupamento.TIPO_CREDITO, null, null, null, null));
+
+        // Uma exclusão em quatro linhas ainda não pede recarga
+        ReflectionTestUtils.setField(analiticoService, "fracaoRecarga", 0.5);
+        when(creditoJdbcRepository.horaBanco()).thenReturn(CARGA, ATUALIZACAO);
+        entregar(null, credito(1L, "ISSQN", "100.00"), credito(2L, "ISSQN", "50.00"), credito(3L, "Outros", "7.00"));
+        analiticoService.atualizar();
+
+        LocalDateTime janela = CARGA.minusSeconds(60);
+        entregar(janela, credito(2L, "Outros", "60.00"), credito(4L, "ISSQN", "1.00"));
+        when(creditoAuditoriaRepository.buscarIdsExcluidosDesde(janela)).thenReturn(Collections.singletonList(3L));
+        analiticoService.atualizar();
+
+        TotaisAnaliticosDTO totais = analiticoService.totalizar(Agrupamento.TIPO_CREDITO, null, null, null, null);
+        assertEquals(ATUALIZACAO, totais.getAtualizadoEm());
+        assertEquals(2, totais.getTotais().size());
+        assertEquals(Valor.de("101.00"), totais.getTotais().get(0).getValorIssqn());
+        assertEquals(Valor.de("60.00"), totais.getTotais().get(1).getValorIssqn());
+        assertEquals(1, totais.getTotais().get(1).getQuantidade());
+        verify(creditoJdbcRepository, times(1)).percorrerAlteradosDesde(isNull(), any());
+    }
+
+    @Test
+    void atualizar_DeveRecarregar_QuandoChegaIdNovoForaDeOrdem() {
+        when(creditoJdbcRepository.horaBanco()).thenReturn(CARGA, ATUALIZACAO, ATUALIZACAO);
+        entregar(null, credito(1L, "ISSQN", "1.00"), credito(5L, "ISSQN", "1.00"));
+        analiticoService.atualizar();
+
+        entregar(CARGA.minusSeconds(60), credito(3L, "ISSQN", "1.00"));
+        analiticoService.atualizar();
+
+        verify(creditoJdbcRepository, times(2)).percorrerAlteradosDesde(isNull(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void entregar(LocalDateTime desde, Credito... creditos) {
+        List<Credito> lista = Arrays.asList(creditos);
+        doAnswer(invocacao -> {
+            lista.forEach(invocacao.<Consumer<Credito>>getArgument(1));
+            return null;
+        }).when(creditoJdbcRepository).percorrerAlteradosDesde(desde == null ? isNull() : eq(desde), any(Consumer.class));
+    }
+
+    private static Credito credito(Long id, String tipo, String valorIssqn) {
+        Valor valor = Valor.de(valorIssqn);
+        return new Credito(id, "C" + id, "NF", LocalDate.of(2024, 2, 25), valor, tipo, false, Valor.de("5.00"),
+                valor, Valor.ZERO, valor);
+    }
+}
@@ -0,0 +1,120 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.cache.ChavesQuentes;
+import com.credit.dto.ChaveQuenteDTO;
+import com.credit.dto.ConsultaLoteResponseDTO;
+import com.credit.dto.CreditoDTO;
+import com.credit.mapper.CreditoMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class AquecimentoServiceTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Mock
+    private CreditoService creditoService;
+
+    @Mock
+    private CreditoMapper creditoMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Spy
+    private ChavesQuentes chavesQuentes = new ChavesQuentes(true, 10, 4096, 4);
+
+    @InjectMocks
+    private AquecimentoService aquecimentoService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aquecimentoService, "snapshotArquivo", diretorio.resolve("chaves.snap").toString());
+        ReflectionTestUtils.setField(aquecimentoService, "iteracoesJit", 100);
+    }
+
+    @Test
+    void aquecer_DeveCarregarChavesDoSnapshotEDaListaCapturada_ERestaurarRanking() throws Exception {
+        ChavesQuentes anterior = new ChavesQuentes(true, 10, 4096, 4);
+        anterior.restaurarNumeroNfse("7891011", 5);
+        anterior.restaurarNumeroCredito("123456", 9);
+        ReflectionTestUtils.setField(aquecimentoService, "chavesQuentes", anterior);
+        aquecimentoService.gravarSnapshot();
+        ReflectionTestUtils.setField(aquecimentoService, "chavesQuentes", chavesQuentes);
+
+        Path capturadas = diretorio.resolve("capturadas.json");
+        Files.writeString(capturadas, "{\"numerosNfse\":[{\"chave\":\"1122334\",\"estimativa\":50},"
+                + "{\"chave\":\"7891011\",\"estimativa\":2}],\"numerosCredito\":[]}");
+        ReflectionTestUtils.setField(aquecimentoService, "chavesArquivo", capturadas.toString());
+
+        ConsultaLoteResponseDTO nfses = new ConsultaLoteResponseDTO();
+        nfses.getCreditosPorNfse().put("1122334", Collections.singletonList(new CreditoDTO()));
+        nfses.getNfseNaoEncontradas().add("7891011");
+        when(creditoService.aquecer(eq(Arrays.asList("1122334", "7891011")), anyList())).thenReturn(nfses);
+        ConsultaLoteResponseDTO creditos = new ConsultaLoteResponseDTO();
+        creditos.getCreditosPorNumero().put("123456", new CreditoDTO());
+        when(creditoService.aquecer(eq(Collections.emptyList()), eq(Collections.singletonList("123456")))).thenReturn(creditos);
+
+        assertEquals(Status.OUT_OF_SERVICE, aquecimentoService.health().getStatus());
+        aquecimentoService.aquecer();
+
+        assertEquals(Status.UP, aquecimentoService.health().getStatus());
+        assertEquals("snapshot,chaves-arquivo", aquecimentoService.health().getDetails().get("fonte"));
+        assertEquals(2, aquecimentoService.health().getDetails().get("carregadas"));
+        assertEquals(1, aquecimentoService.health().getDetails().get("naoEncontradas"));
+        assertEquals(100, aquecimentoService.health().getDetails().get("iteracoesJit"));
+        assertEquals(Arrays.asList(new ChaveQuenteDTO("1122334", 50), new ChaveQuenteDTO("7891011", 5)),
+                chavesQuentes.getNumerosNfse());
+        assertTrue(chavesQuentes.isNumeroCreditoQuente("123456"));
+    }
+
+    @Test
+    void aquecer_DeveSubirMesmoComFalhaNoBanco() {
+        chavesQuentes.restaurarNumeroNfse("7891011", 5);
+        aquecimentoService.gravarSnapshot();
+        when(creditoService.aquecer(anyList(), anyList())).thenThrow(new IllegalStateException("sem conexão"));
+
+        aquecimentoService.aquecer();
+
+        assertEquals(Status.UP, aquecimentoService.health().getStatus());
+        assertEquals(1, aquecimentoService.health().getDetails().get("blocosComFalha"));
+    }
+
+    @Test
+    void aquecer_SemChaves_SoExercitaOJit() {
+        aquecimentoService.aquecer();
+
+        verify(creditoService, never()).aquecer(any(), any());
+        verify(creditoMapper, times(100)).toDTO(any());
+        assertEquals("nenhuma", aquecimentoService.health().getDetails().get("fonte"));
+        assertEquals(Status.UP, aquecimentoService.health().getStatus());
+    }
+}
@@ -0,0 +1,205 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.credit.event.CreditoAlteradoEvent;
+import com.credit.repository.CreditoAuditoriaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoAlteracaoPublisherServiceTest {
+
+    private static final String PUBLICADOR = "creditos-eventos";
+
+    @Mock
+    private CreditoAuditoriaRepository creditoAuditoriaRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @InjectMocks
+    private CreditoAlteracaoPublisherService publisherService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(publisherService, "habilitado", true);
+    }
+
+    @Test
+    void publicarPendentes_DevePublicarComChaveNfse_EAvancarPosicao() {
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(true);
+        when(creditoAuditoriaRepository.buscarUltimoIdPublicado(PUBLICADOR)).thenReturn(10L);
+        CreditoAlteradoEvent primeiro = alteracao(11, "7891011");
+        CreditoAlteradoEvent segundo = alteracao(12, "1122334");
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(10L, 500)).thenReturn(Arrays.asList(primeiro, segundo));
+        when(kafkaTemplate.send(eq("creditos-eventos"), anyString(), any())).thenReturn(enviado());
+
+        assertEquals(2, publisherService.publicarPendentes());
+
+        verify(kafkaTemplate).send("creditos-eventos", "7891011", primeiro);
+        verify(kafkaTemplate).send("creditos-eventos", "1122334", segundo);
+        verify(creditoAuditoriaRepository).registrarUltimoIdPublicado(PUBLICADOR, 12L);
+    }
+
+    @Test
+    void publicarPendentes_NaoDeveFazerNada_SemOLock() {
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(false);
+
+        assertEquals(0, publisherService.publicarPendentes());
+
+        verify(creditoAuditoriaRepository, never()).buscarUltimoIdPublicado(anyString());
+    }
+
+    @Test
+    void publicarPendentes_NaoDeveAvancarPosicao_QuandoEnvioFalha() {
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(true);
+        when(creditoAuditoriaRepository.buscarUltimoIdPublicado(PUBLICADOR)).thenReturn(0L);
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(0L, 500)).thenReturn(List.of(alteracao(1, "7891011")));
+        SettableListenableFuture<SendResult<String, Object>> falha = new SettableListenableFuture<>();
+        falha.setException(new IllegalStateException("broker indisponível"));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(falha);
+
+        assertThrows(IllegalStateException.class, () -> publisherService.publicarPendentes());
+
+        verify(creditoAuditoriaRepository, never()).registrarUltimoIdPublicado(anyString(), anyLong());
+    }
+
+    @Test
+    void contarAteLacuna_DeveParar_EmLacunaRecente_EPularDepoisDaEspera() {
+        List<CreditoAlteradoEvent> alteracoes = Arrays.asList(alteracao(11, "a"), alteracao(13, "b"), alteracao(14, "c"));
+        List<Long> puladas = new ArrayList<>();
+
+        assertEquals(1, publisherService.contarAteLacuna(alteracoes, 10L, 1_000L, puladas));
+        assertEquals(1, publisherService.contarAteLacuna(alteracoes, 10L, 5_999L, puladas));
+        assertEquals(List.of(), puladas);
+        assertEquals(3, publisherService.contarAteLacuna(alteracoes, 10L, 6_000L, puladas));
+        assertEquals(List.of(12L), puladas);
+    }
+
+    @Test
+    void publicarPendentes_DevePublicarIdPulado_QuandoTransacaoLongaConfirmar() {
+        ReflectionTestUtils.setField(publisherService, "esperaLacunaMs", 0L);
+        Map<Long, Long> tabelaLacunas = simularTabelaLacunas();
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(true);
+        when(creditoAuditoriaRepository.buscarUltimoIdPublicado(PUBLICADOR)).thenReturn(10L, 13L);
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(10L, 500)).thenReturn(Arrays.asList(alteracao(11, "a"), alteracao(13, "c")));
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(13L, 500)).thenReturn(List.of());
+        CreditoAlteradoEvent atrasada = alteracao(12, "b");
+        when(creditoAuditoriaRepository.buscarAlteracoesPorIds(Set.of(12L))).thenReturn(List.of(atrasada));
+        when(kafkaTemplate.send(eq("creditos-eventos"), anyString(), any())).thenReturn(enviado());
+
+        assertEquals(2, publisherService.publicarPendentes());
+        verify(creditoAuditoriaRepository).registrarUltimoIdPublicado(PUBLICADOR, 13L);
+        assertEquals(Set.of(12L), tabelaLacunas.keySet());
+
+        assertEquals(1, publisherService.publicarPendentes());
+        verify(kafkaTemplate).send("creditos-eventos", "b", atrasada);
+        // Publicada, sai da lista: o próximo ciclo não reconsulta
+        assertTrue(tabelaLacunas.isEmpty());
+        assertEquals(0, publisherService.publicarPendentes());
+        verify(creditoAuditoriaRepository, times(1)).buscarAlteracoesPorIds(any());
+    }
+
+    @Test
+    void publicarPendentes_DeveEsquecerIdPulado_AposRetencao() {
+        ReflectionTestUtils.setField(publisherService, "esperaLacunaMs", 0L);
+        ReflectionTestUtils.setField(publisherService, "retencaoLacunaMs", -1L);
+        Map<Long, Long> tabelaLacunas = simularTabelaLacunas();
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(true);
+        when(creditoAuditoriaRepository.buscarUltimoIdPublicado(PUBLICADOR)).thenReturn(10L, 13L);
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(10L, 500)).thenReturn(Arrays.asList(alteracao(11, "a"), alteracao(13, "c")));
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(13L, 500)).thenReturn(List.of());
+        when(kafkaTemplate.send(eq("creditos-eventos"), anyString(), any())).thenReturn(enviado());
+
+        publisherService.publicarPendentes();
+
+        assertEquals(0, publisherService.publicarPendentes());
+        verify(creditoAuditoriaRepository, never()).buscarAlteracoesPorIds(any());
+        assertTrue(tabelaLacunas.isEmpty());
+    }
+
+    @Test
+    void publicarPendentes_OutraInstancia_DevePublicarIdPulado_AoAssumirOLock() {
+        Map<Long, Long> tabelaLacunas = simularTabelaLacunas();
+        ReflectionTestUtils.setField(publisherService, "esperaLacunaMs", 0L);
+        when(creditoAuditoriaRepository.tentarLockPublicador()).thenReturn(true, false, true);
+        when(creditoAuditoriaRepository.buscarUltimoIdPublicado(PUBLICADOR)).thenReturn(10L, 13L);
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(10L, 500)).thenReturn(Arrays.asList(alteracao(11, "a"), alteracao(13, "c")));
+        when(creditoAuditoriaRepository.buscarAlteracoesApos(13L, 500)).thenReturn(List.of());
+        CreditoAlteradoEvent atrasada = alteracao(12, "b");
+        when(creditoAuditoriaRepository.buscarAlteracoesPorIds(Set.of(12L))).thenReturn(List.of(atrasada));
+        when(kafkaTemplate.send(eq("creditos-eventos"), anyString(), any())).thenReturn(enviado());
+
+        assertEquals(2, publisherService.publicarPendentes());
+        // Esta instância perde o lock; a lacuna continua pendente na tabela
+        assertEquals(0, publisherService.publicarPendentes());
+        assertEquals(Set.of(12L), tabelaLacunas.keySet());
+
+        CreditoAlteracaoPublisherService outraInstancia = new CreditoAlteracaoPublisherService();
+        ReflectionTestUtils.setField(outraInstancia, "creditoAuditoriaRepository", creditoAuditoriaRepository);
+        ReflectionTestUtils.setField(outraInstancia, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(outraInstancia, "habilitado", true);
+
+        assertEquals(1, outraInstancia.publicarPendentes());
+        verify(kafkaTemplate).send("creditos-eventos", "b", atrasada);
+        assertTrue(tabelaLacunas.isEmpty());
+    }
+
+    /**
+     * credito_auditoria_lacuna em memória, compartilhada entre instâncias do serviço.
+     */
+    private Map<Long, Long> simularTabelaLacunas() {
+        Map<Long, Long> tabela = new LinkedHashMap<>();
+        when(creditoAuditoriaRepository.buscarLacunasPendentes(PUBLICADOR)).thenAnswer(chamada -> new LinkedHashMap<>(tabela));
+        doAnswer(chamada -> {
+            Collection<Long> ids = chamada.getArgument(1);
+            ids.forEach(id -> tabela.putIfAbsent(id, chamada.getArgument(2)));
+            return null;
+        }).when(creditoAuditoriaRepository).registrarLacunas(eq(PUBLICADOR), any(), anyLong());
+        doAnswer(chamada -> {
+            Collection<Long> ids = chamada.getArgument(1);
+            tabela.keySet().removeAll(ids);
+            return null;
+        }).when(creditoAuditoriaRepository).removerLacunas(eq(PUBLICADOR), any());
+        return tabela;
+    }
+
+    private static CreditoAlteradoEvent alteracao(long id, String numeroNfse) {
+        return new CreditoAlteradoEvent(id, CreditoAlteradoEvent.INSERT, id, numeroNfse, "CR" + id, null, null, 0L);
+    }
+
+    private static SettableListenableFuture<SendResult<String, Object>> enviado() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        return futuro;
+    }
+}
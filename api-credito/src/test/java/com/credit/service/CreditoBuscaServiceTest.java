@@ -0,0 +1,104 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.mapper.CreditoMapper;
+import com.credit.mapper.CreditoMapperImpl;
+import com.credit.repository.CampoBusca;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoBusca;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoBuscaServiceTest {
+
+    @Mock
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Spy
+    private CreditoMapper creditoMapper = new CreditoMapperImpl();
+
+    @Mock
+    private EventPublisherService eventPublisherService;
+
+    @InjectMocks
+    private CreditoBuscaService creditoBuscaService;
+
+    @Test
+    void buscar_DevePedirUmaLinhaAMais_EDevolverCursorDaUltimaEntregue() {
+        when(creditoJdbcRepository.buscarPorTermo(CampoBusca.CREDITO, ModoBusca.PREFIXO, "12", null, null, null,
+                null, 0L, 3))
+                .thenReturn(Arrays.asList(credito(5L, "120"), credito(2L, "121"), credito(9L, "122")));
+
+        PaginaCreditosDTO pagina = creditoBuscaService.buscar(" 12 ", CampoBusca.CREDITO, ModoBusca.PREFIXO, " ",
+                null, null, null, 2);
+
+        assertEquals(2, pagina.getCreditos().size());
+        assertEquals("121", pagina.getCreditos().get(1).getNumeroCredito());
+        assertEquals(CreditoBuscaService.codificarCursor("121", 2L), pagina.getProximoCursor());
+        verify(eventPublisherService).publishConsultaEvent("BUSCA_CREDITO_PREFIXO", "12");
+    }
+
+    @Test
+    void buscar_ComCursor_DeveContinuarDoValorEIdDecodificados() {
+        String cursor = CreditoBuscaService.codificarCursor("NF:2024:01", 42L);
+        when(creditoJdbcRepository.buscarPorTermo(CampoBusca.NFSE, ModoBusca.CONTEM, "2024", "ISSQN",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), "NF:2024:01", 42L, 21))
+                .thenReturn(Collections.singletonList(credito(43L, "999")));
+
+        PaginaCreditosDTO pagina = creditoBuscaService.buscar("2024", CampoBusca.NFSE, ModoBusca.CONTEM, "ISSQN",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), cursor, null);
+
+        assertEquals(1, pagina.getCreditos().size());
+        assertNull(pagina.getProximoCursor());
+        verify(eventPublisherService, never()).publishConsultaEvent(anyString(), anyString());
+    }
+
+    @Test
+    void buscar_DeveRejeitarParametrosInvalidos_SemConsultarOBanco() {
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoBuscaService.buscar("  ", CampoBusca.NFSE,
+                ModoBusca.PREFIXO, null, null, null, null, null));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoBuscaService.buscar("78", CampoBusca.NFSE,
+                ModoBusca.CONTEM, null, null, null, null, null));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoBuscaService.buscar("78", CampoBusca.NFSE,
+                ModoBusca.PREFIXO, null, null, null, null, 101));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoBuscaService.buscar("78", CampoBusca.NFSE,
+                ModoBusca.PREFIXO, null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, null));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoBuscaService.buscar("78", CampoBusca.NFSE,
+                ModoBusca.PREFIXO, null, null, null, "nao-e-cursor", null));
+
+        verify(creditoJdbcRepository, never()).buscarPorTermo(any(), any(), anyString(), isNull(), any(), any(),
+                any(), anyLong(), anyInt());
+        verifyNoInteractions(eventPublisherService);
+    }
+
+    private static Credito credito(Long id, String numeroCredito) {
+        return new Credito(id, numeroCredito, "7891011", LocalDate.of(2024, 2, 25), Valor.de("1500.75"),
+                "ISSQN", true, Valor.de("5.00"), Valor.de("30000.00"), Valor.de("5000.00"), Valor.de("25000.00"));
+    }
+}
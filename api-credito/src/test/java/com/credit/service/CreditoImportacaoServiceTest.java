@@ -0,0 +1,155 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.dto.CreditoDTO;
+import com.credit.dto.ImportacaoResultadoDTO;
+import com.credit.entity.Credito;
+import com.credit.entity.Valor;
+import com.credit.exception.RequisicaoInvalidaException;
+import com.credit.repository.CreditoJdbcRepository;
+import com.credit.repository.ModoAuditoria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoImportacaoServiceTest {
+
+    @Mock
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Mock
+    private NegativeCreditoCache negativeCreditoCache;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private CreditoImportacaoService importacaoService;
+
+    @Captor
+    private ArgumentCaptor<List<Credito>> lote;
+
+    @Test
+    void importarNdjson_DeveGravarEmLotes_ERejeitarLinhasInvalidas() {
+        ReflectionTestUtils.setField(importacaoService, "tamanhoLote", 2);
+        String corpo = linhaJson("123456", "Sim") + "\n"
+                + "{invalido\n"
+                + "\n"
+                + linhaJson("789012", "Não") + "\n"
+                + linhaJson("345678", "talvez") + "\n"
+                + linhaJson("901234", "true") + "\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importarNdjson(entrada(corpo));
+
+        assertEquals(5, resultado.getLidos());
+        assertEquals(3, resultado.getGravados());
+        assertEquals(2, resultado.getRejeitados());
+        assertTrue(resultado.getErros().get(0).startsWith("linha 2: JSON inválido"));
+        assertEquals("linha 5: simplesNacional deve ser Sim/Não (ou true/false)", resultado.getErros().get(1));
+
+        verify(creditoJdbcRepository, times(2)).upsertLote(lote.capture(), eq(ModoAuditoria.LOTE));
+        assertEquals(2, lote.getAllValues().get(0).size());
+        Credito ultimo = lote.getAllValues().get(1).get(0);
+        assertEquals("901234", ultimo.getNumeroCredito());
+        assertTrue(ultimo.isSimplesNacional());
+    }
+
+    @Test
+    void importarCsv_DeveMapearCabecalho_EManterUltimaLinhaDeNumeroRepetido() {
+        ReflectionTestUtils.setField(importacaoService, "modoAuditoria", ModoAuditoria.LINHA);
+        String corpo = "numero_nfse;numero_credito;data_constituicao;valor_issqn;tipo_credito;simples_nacional;"
+                + "aliquota;valor_faturado;valor_deducao;base_calculo\n"
+                + "7891011;123456;2024-02-25;1500.75;ISSQN;Sim;5.00;30000.00;5000.00;25000.00\n"
+                + "7891011;123456;2024-02-25;1600.00;ISSQN;Sim;5.00;32000.00;0.00;32000.00\n"
+                + "7891011;789012;25/02/2024;1500.75;ISSQN;Sim;5.00;30000.00;5000.00;25000.00\n";
+
+        ImportacaoResultadoDTO resultado = importacaoService.importarCsv(entrada(corpo));
+
+        assertEquals(3, resultado.getLidos());
+        assertEquals(1, resultado.getRejeitados());
+        assertTrue(resultado.getErros().get(0).startsWith("linha 4: valor inválido"));
+        verify(creditoJdbcRepository).upsertLote(lote.capture(), eq(ModoAuditoria.LINHA));
+        assertEquals(1, lote.getValue().size());
+        assertEquals(Valor.de("1600.00"), lote.getValue().get(0).getValorIssqn());
+        verify(negativeCreditoCache).registrarCredito("7891011", "123456");
+    }
+
+    @Test
+    void importar_DeveRejeitarValoresComMaisDeDuasCasasDecimais() {
+        String json = linhaJson("123456", "Sim").replace("1500.75", "1500.755");
+        ImportacaoResultadoDTO resultadoJson = importacaoService.importarNdjson(entrada(json + "\n"));
+        assertEquals(1, resultadoJson.getRejeitados());
+        assertTrue(resultadoJson.getErros().get(0).startsWith("linha 1: JSON inválido: valor com mais de 2 casas decimais"));
+
+        String csv = "numero_credito,numero_nfse,data_constituicao,valor_issqn,tipo_credito,simples_nacional,"
+                + "aliquota,valor_faturado,valor_deducao,base_calculo\n"
+                + "123456,7891011,2024-02-25,1500.75,ISSQN,Sim,5.001,30000.00,5000.00,25000.00\n";
+        ImportacaoResultadoDTO resultadoCsv = importacaoService.importarCsv(entrada(csv));
+        assertEquals(1, resultadoCsv.getRejeitados());
+        assertTrue(resultadoCsv.getErros().get(0).startsWith("linha 2: valor inválido"));
+        verifyNoInteractions(creditoJdbcRepository);
+    }
+
+    @Test
+    void importarCsv_DeveRejeitarCabecalhoIncompleto() {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> importacaoService.importarCsv(entrada("numero_credito,numero_nfse\n123456,7891011\n")));
+        verifyNoInteractions(creditoJdbcRepository);
+    }
+
+    @Test
+    void validar_DeveRejeitarValoresForaDaColuna() {
+        CreditoDTO dto = dto("123456", "Sim");
+        assertNull(CreditoImportacaoService.validar(dto));
+
+        dto.setAliquota(Valor.de("100.01"));
+        assertEquals("aliquota deve estar entre 0 e 100, com até 2 casas decimais", CreditoImportacaoService.validar(dto));
+
+        dto = dto("123456", "Sim");
+        dto.setValorIssqn(Valor.de("10000000000000.00"));
+        assertEquals("valores devem ser não negativos, com até 13 dígitos inteiros e 2 casas decimais",
+                CreditoImportacaoService.validar(dto));
+    }
+
+    private String linhaJson(String numeroCredito, String simplesNacional) {
+        try {
+            return objectMapper.writeValueAsString(dto(numeroCredito, simplesNacional));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CreditoDTO dto(String numeroCredito, String simplesNacional) {
+        return new CreditoDTO(numeroCredito, "7891011", LocalDate.of(2024, 2, 25), Valor.de("1500.75"), "ISSQN",
+                simplesNacional, Valor.de("5.00"), Valor.de("30000.00"), Valor.de("5000.00"), Valor.de("25000.00"));
+    }
+
+    private static InputStream entrada(String corpo) {
+        return new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8));
+    }
+}
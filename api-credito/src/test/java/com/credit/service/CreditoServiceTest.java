@@ -1,25 +1,64 @@
 package com.credit.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.credit.cache.ChavesQuentes;
+import com.credit.cache.CreditoCache;
+import com.credit.cache.NegativeCreditoCache;
+import com.credit.cache.SingleFlight;
+import com.credit.dto.ConsultaLoteResponseDTO;
+import com.credit.dto.CreditoDTO;
+import com.credit.dto.PaginaCreditosDTO;
+import com.credit.dto.ResumoNfseDTO;
 import com.credit.entity.Credito;
+import com.credit.entity.CreditoResumoNfse;
+import com.credit.entity.Valor;
 import com.credit.exception.CreditoNotFoundException;
+import com.credit.exception.RequisicaoInvalidaException;
 import com.credit.mapper.CreditoMapper;
+import com.credit.mapper.CreditoMapperImpl;
+import com.credit.repository.CreditoJdbcRepository;
 import com.credit.repository.CreditoRepository;
+import com.credit.repository.CreditoResumoNfseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @ExtendWith(MockitoExtension.class)
 class CreditoServiceTest {
@@ -27,36 +66,107 @@ class CreditoServiceTest {
     @Mock
     private CreditoRepository creditoRepository;
 
-    @Mock
-    private CreditoMapper creditoMapper;
+    @Spy
+    private CreditoMapper creditoMapper = new CreditoMapperImpl();
+
+    @Spy
+    private CreditoCache creditoCache = new CreditoCache(300, 1000, 1800, 5000, Optional.empty());
+
+    @Spy
+    private NegativeCreditoCache negativeCreditoCache = new NegativeCreditoCache(30, 10000, true);
+
+    @Spy
+    private ChavesQuentes chavesQuentes = new ChavesQuentes(true, 20, 4096, 4);
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(10000, 5000);
 
     @Mock
     private EventPublisherService eventPublisherService;
 
+    @Mock
+    private CreditoJdbcRepository creditoJdbcRepository;
+
+    @Mock
+    private CreditoResumoNfseRepository creditoResumoNfseRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     @InjectMocks
     private CreditoService creditoService;
 
+    private static final PageRequest PRIMEIRA_PAGINA = PageRequest.of(0, 1001);
+
     @Test
-    void buscarPorNumeroNfse_DeveRetornarCreditos_QuandoEncontrados() {
+    void buscarPaginaPorNumeroNfse_DeveRetornarCreditos_QuandoEncontrados() {
         String numeroNfse = "7891011";
         Credito credito = criarCreditoTeste();
-        when(creditoRepository.findByNumeroNfse(numeroNfse))
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA))
                 .thenReturn(Arrays.asList(credito));
 
-        creditoService.buscarPorNumeroNfse(numeroNfse);
+        creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null);
 
-        verify(creditoRepository).findByNumeroNfse(numeroNfse);
+        verify(creditoRepository).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA);
         verify(eventPublisherService).publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
     }
 
     @Test
-    void buscarPorNumeroNfse_DeveLancarExcecao_QuandoNaoEncontrado() {
+    void buscarPaginaPorNumeroNfse_DeveContarChaveQuente_MesmoQuandoServidaPeloCache() {
+        String numeroNfse = "7891011";
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA)).thenReturn(Arrays.asList(criarCreditoTeste()));
+
+        creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null);
+        creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null);
+
+        verify(creditoRepository, times(1)).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA);
+        assertEquals(numeroNfse, chavesQuentes.getNumerosNfse().get(0).getChave());
+        assertEquals(2, chavesQuentes.getNumerosNfse().get(0).getEstimativa());
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveCompartilharConsultaEmAndamento_EPublicarEventoPorChamada() throws Exception {
+        String numeroNfse = "7891011";
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenAnswer(invocacao -> {
+                    consultando.countDown();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return Arrays.asList(criarCreditoTeste());
+                });
+
+        CompletableFuture<PaginaCreditosDTO> primeira = CompletableFuture.supplyAsync(
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
+        consultando.await(5, TimeUnit.SECONDS);
+        CompletableFuture<PaginaCreditosDTO> segunda = CompletableFuture.supplyAsync(
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
+        verify(singleFlight, timeout(5000).times(2)).executar(eq("nfse:" + numeroNfse), any());
+        liberar.countDown();
+
+        assertEquals(primeira.get(5, TimeUnit.SECONDS).getCreditos(), segunda.get(5, TimeUnit.SECONDS).getCreditos());
+        verify(creditoRepository, times(1)).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA);
+        verify(eventPublisherService, times(2)).publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_NaoDeveCoalescer_ComLimiteInformado() {
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("7891011", Long.MIN_VALUE, PageRequest.of(0, 11)))
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+
+        creditoService.buscarPaginaPorNumeroNfse("7891011", null, 10);
+
+        verify(singleFlight, never()).executar(anyString(), any());
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveLancarExcecao_QuandoNaoEncontrado() {
         String numeroNfse = "inexistente";
-        when(creditoRepository.findByNumeroNfse(numeroNfse))
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA))
                 .thenReturn(Collections.emptyList());
 
         assertThrows(CreditoNotFoundException.class,
-                () -> creditoService.buscarPorNumeroNfse(numeroNfse));
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
     }
 
     @Test
@@ -72,19 +182,254 @@ class CreditoServiceTest {
         verify(eventPublisherService).publishConsultaEvent("CONSULTA_POR_CREDITO", numeroCredito);
     }
 
+    @Test
+    void buscarPorNumeroCredito_DeveUsarCache_QuandoConsultadoNovamente() {
+        String numeroCredito = "123456";
+        when(creditoRepository.findByNumeroCredito(numeroCredito))
+                .thenReturn(Optional.of(criarCreditoTeste()));
+
+        creditoService.buscarPorNumeroCredito(numeroCredito);
+        CreditoDTO credito = creditoService.buscarPorNumeroCredito(numeroCredito);
+
+        assertEquals("7891011", credito.getNumeroNfse());
+        verify(creditoRepository, times(1)).findByNumeroCredito(numeroCredito);
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveEvitarBanco_QuandoMissRepetido() {
+        String numeroNfse = "inexistente";
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenReturn(Collections.emptyList());
+
+        assertThrows(CreditoNotFoundException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
+        assertThrows(CreditoNotFoundException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
+
+        verify(creditoRepository, times(1)).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA);
+    }
+
+    @Test
+    void buscarPorNumeroCredito_DeveEvitarBanco_QuandoMissRepetido() {
+        String numeroCredito = "inexistente";
+        when(creditoRepository.findByNumeroCredito(numeroCredito))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CreditoNotFoundException.class,
+                () -> creditoService.buscarPorNumeroCredito(numeroCredito));
+        assertThrows(CreditoNotFoundException.class,
+                () -> creditoService.buscarPorNumeroCredito(numeroCredito));
+
+        verify(creditoRepository, times(1)).findByNumeroCredito(numeroCredito);
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveConsultarBanco_QuandoCreditoRegistradoAposMiss() {
+        String numeroNfse = "7891011";
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc(numeroNfse, Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+
+        assertThrows(CreditoNotFoundException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null));
+        negativeCreditoCache.registrarCredito(numeroNfse, "123456");
+
+        assertEquals(1, creditoService.buscarPaginaPorNumeroNfse(numeroNfse, null, null).getCreditos().size());
+    }
+
+    @Test
+    void buscarEmLote_DeveAgruparPorChave_EMarcarNaoEncontrados() {
+        when(creditoJdbcRepository.buscarPorNumerosNfse(Arrays.asList("7891011", "inexistente")))
+                .thenReturn(Arrays.asList(criarCreditoTeste(1L, "123456"), criarCreditoTeste(2L, "123457")));
+        when(creditoJdbcRepository.buscarPorNumerosCredito(Arrays.asList("123456", "999,999")))
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+
+        ConsultaLoteResponseDTO resposta = creditoService.buscarEmLote(
+                Arrays.asList("7891011", "inexistente", "7891011"),
+                Arrays.asList("123456", "999,999"));
+
+        // Lista da NFS-e na ordem de id, igual à da consulta paginada, também no cache
+        assertEquals(List.of("123456", "123457"), numerosCredito(resposta.getCreditosPorNfse().get("7891011")));
+        assertEquals(List.of("123456", "123457"), numerosCredito(creditoCache.getNumeroNfse("7891011")));
+        assertEquals(List.of("inexistente"), resposta.getNfseNaoEncontradas());
+        assertEquals("7891011", resposta.getCreditosPorNumero().get("123456").getNumeroNfse());
+        assertEquals(List.of("999,999"), resposta.getCreditosNaoEncontrados());
+        // Um evento por lote e tipo de chave, não um por chave
+        verify(eventPublisherService, times(1)).publishConsultaEvent("CONSULTA_LOTE_POR_NFSE", List.of("7891011", "inexistente"));
+        verify(eventPublisherService, times(1)).publishConsultaEvent("CONSULTA_LOTE_POR_CREDITO", List.of("123456", "999,999"));
+        verify(eventPublisherService, never()).publishConsultaEvent(anyString(), anyString());
+    }
+
+    @Test
+    void buscarEmLote_NaoDeveConsultarBanco_ParaChavesEmCache() {
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("7891011", Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("inexistente", Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenReturn(Collections.emptyList());
+        creditoService.buscarPaginaPorNumeroNfse("7891011", null, null);
+        assertThrows(CreditoNotFoundException.class, () -> creditoService.buscarPaginaPorNumeroNfse("inexistente", null, null));
+
+        ConsultaLoteResponseDTO resposta = creditoService.buscarEmLote(
+                Arrays.asList("7891011", "inexistente"), null);
+
+        assertEquals(1, resposta.getCreditosPorNfse().size());
+        assertEquals(List.of("inexistente"), resposta.getNfseNaoEncontradas());
+        verify(creditoJdbcRepository, never()).buscarPorNumerosNfse(any());
+    }
+
+    @Test
+    void buscarEmLote_DeveRejeitarPedidoVazio() {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> creditoService.buscarEmLote(Collections.emptyList(), Arrays.asList(" ")));
+        verify(eventPublisherService, never()).publishConsultaEvent(anyString(), anyString());
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DevePaginarPorCursor() {
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("7891011", Long.MIN_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(criarCreditoTeste(1L, "1"), criarCreditoTeste(2L, "2"), criarCreditoTeste(3L, "3")));
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("7891011", 2L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(criarCreditoTeste(3L, "3")));
+
+        PaginaCreditosDTO primeira = creditoService.buscarPaginaPorNumeroNfse("7891011", null, 2);
+        PaginaCreditosDTO segunda = creditoService.buscarPaginaPorNumeroNfse("7891011", primeira.getProximoCursor(), 2);
+
+        assertEquals(2, primeira.getCreditos().size());
+        assertEquals(1, segunda.getCreditos().size());
+        assertEquals("3", segunda.getCreditos().get(0).getNumeroCredito());
+        assertNull(segunda.getProximoCursor());
+        // Resultado parcial não vai para o cache; evento só na primeira página
+        assertNull(creditoCache.getNumeroNfse("7891011"));
+        verify(eventPublisherService, times(1)).publishConsultaEvent("CONSULTA_POR_NFSE", "7891011");
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveUsarCache_QuandoResultadoCabeNaPagina() {
+        when(creditoRepository.findByNumeroNfseAndIdGreaterThanOrderByIdAsc("7891011", Long.MIN_VALUE, PRIMEIRA_PAGINA))
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+
+        creditoService.buscarPaginaPorNumeroNfse("7891011", null, null);
+        PaginaCreditosDTO pagina = creditoService.buscarPaginaPorNumeroNfse("7891011", null, null);
+
+        assertEquals(1, pagina.getCreditos().size());
+        assertNull(pagina.getProximoCursor());
+        verify(creditoRepository, times(1)).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(anyString(), anyLong(), any());
+        verify(eventPublisherService, times(2)).publishConsultaEvent("CONSULTA_POR_NFSE", "7891011");
+    }
+
+    @Test
+    void buscarPaginaPorNumeroNfse_DeveRejeitarCursorDeOutraNfse() {
+        String cursor = CreditoService.codificarCursor("1122334", 10L);
+
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse("7891011", cursor, 10));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse("7891011", "!!!", 10));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> creditoService.buscarPaginaPorNumeroNfse("7891011", null, 5000));
+    }
+
+    @Test
+    void buscarComProjecao_NaoDeveUsarJpa() {
+        ReflectionTestUtils.setField(creditoService, "leituraProjecao", true);
+        CreditoDTO dto = creditoMapper.toDTO(criarCreditoTeste());
+        when(creditoJdbcRepository.buscarPaginaPorNumeroNfse("7891011", Long.MIN_VALUE, 1001))
+                .thenReturn(Arrays.asList(criarCreditoTeste()));
+        when(creditoJdbcRepository.buscarPorNumeroCredito("123456")).thenReturn(Optional.of(dto));
+
+        assertEquals(List.of(dto), creditoService.buscarPaginaPorNumeroNfse("7891011", null, null).getCreditos());
+        assertEquals(dto, creditoService.buscarPorNumeroCredito("123456"));
+
+        verify(creditoRepository, never()).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(anyString(), anyLong(), any());
+        verify(creditoRepository, never()).findByNumeroCredito(anyString());
+    }
+
+    @Test
+    void buscarResumoPorNumeroNfse_DeveCalcularMediaDaAliquota() {
+        CreditoResumoNfse resumo = new CreditoResumoNfse("7891011", 2, new BigDecimal("2701.25"),
+                new BigDecimal("9.50"), new BigDecimal("55000.00"),
+                LocalDate.of(2024, 2, 25), LocalDate.of(2024, 2, 26), null);
+        when(creditoResumoNfseRepository.findById("7891011")).thenReturn(Optional.of(resumo));
+
+        ResumoNfseDTO resultado = creditoService.buscarResumoPorNumeroNfse("7891011");
+
+        assertEquals(2, resultado.getTotalCreditos());
+        assertEquals(new BigDecimal("2701.25"), resultado.getTotalIssqn());
+        assertEquals(new BigDecimal("4.75"), resultado.getAliquotaMedia());
+        assertEquals(LocalDate.of(2024, 2, 26), resultado.getUltimaConstituicao());
+        verify(creditoRepository, never()).findByNumeroNfseAndIdGreaterThanOrderByIdAsc(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void buscarResumoPorNumeroNfse_DeveLancarExcecao_QuandoNaoExiste() {
+        when(creditoResumoNfseRepository.findById("inexistente")).thenReturn(Optional.empty());
+
+        assertThrows(CreditoNotFoundException.class, () -> creditoService.buscarResumoPorNumeroNfse("inexistente"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportar_DeveEscreverNdjson_PaginandoPorId() throws Exception {
+        ReflectionTestUtils.setField(creditoService, "tamanhoPaginaExportacao", 2);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fim = LocalDate.of(2024, 12, 31);
+        doAnswer(invocation -> {
+            long aposId = invocation.getArgument(3);
+            Consumer<Credito> consumidor = invocation.getArgument(5);
+            if (aposId == Long.MIN_VALUE) {
+                consumidor.accept(criarCreditoTeste(1L, "123456"));
+                consumidor.accept(criarCreditoTeste(2L, "789012"));
+                return 2;
+            }
+            consumidor.accept(criarCreditoTeste(3L, "111222"));
+            return 1;
+        }).when(creditoJdbcRepository).percorrerPorPeriodo(eq(inicio), eq(fim), isNull(), anyLong(), eq(2), any(Consumer.class));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        long total = creditoService.exportar(inicio, fim, " ", saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, total);
+        assertEquals(3, linhas.length);
+        assertEquals("789012", objectMapper.readTree(linhas[1]).get("numeroCredito").asText());
+        assertEquals("2024-02-25", objectMapper.readTree(linhas[2]).get("dataConstituicao").asText());
+        verify(creditoJdbcRepository).percorrerPorPeriodo(eq(inicio), eq(fim), isNull(), eq(Long.MIN_VALUE), eq(2), any(Consumer.class));
+        verify(creditoJdbcRepository).percorrerPorPeriodo(eq(inicio), eq(fim), isNull(), eq(2L), eq(2), any(Consumer.class));
+        verify(eventPublisherService).publishConsultaEvent("EXPORTACAO_POR_PERIODO", "2024-01-01..2024-12-31");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportar_DeveRejeitarPeriodoInvertido() {
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.exportar(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, new ByteArrayOutputStream()));
+        verify(creditoJdbcRepository, never()).percorrerPorPeriodo(any(), any(), any(), anyLong(), anyInt(), any(Consumer.class));
+    }
+
+    private static List<String> numerosCredito(List<CreditoDTO> creditos) {
+        return creditos.stream().map(CreditoDTO::getNumeroCredito).collect(Collectors.toList());
+    }
+
+    private Credito criarCreditoTeste(long id, String numeroCredito) {
+        Credito credito = criarCreditoTeste();
+        credito.setId(id);
+        credito.setNumeroCredito(numeroCredito);
+        return credito;
+    }
+
     private Credito criarCreditoTeste() {
         Credito credito = new Credito();
         credito.setId(1L);
         credito.setNumeroCredito("123456");
         credito.setNumeroNfse("7891011");
         credito.setDataConstituicao(LocalDate.of(2024, 2, 25));
-        credito.setValorIssqn(new BigDecimal("1500.75"));
+        credito.setValorIssqn(Valor.de("1500.75"));
         credito.setTipoCredito("ISSQN");
         credito.setSimplesNacional(true);
-        credito.setAliquota(new BigDecimal("5.0"));
-        credito.setValorFaturado(new BigDecimal("30000.00"));
-        credito.setValorDeducao(new BigDecimal("5000.00"));
-        credito.setBaseCalculo(new BigDecimal("25000.00"));
+        credito.setAliquota(Valor.de("5.0"));
+        credito.setValorFaturado(Valor.de("30000.00"));
+        credito.setValorDeducao(Valor.de("5000.00"));
+        credito.setBaseCalculo(Valor.de("25000.00"));
         return credito;
     }
 }
\ No newline at end of file
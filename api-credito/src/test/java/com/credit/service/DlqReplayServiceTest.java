@@ -0,0 +1,145 @@
+package com.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.credit.dto.ReprocessamentoDlqDTO;
+import com.credit.exception.RequisicaoInvalidaException;
+
+@ExtendWith(MockitoExtension.class)
+class DlqReplayServiceTest {
+
+    private static final TopicPartition DLQ = new TopicPartition("creditos-dlq", 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> dlqConsumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @InjectMocks
+    private DlqReplayService dlqReplayService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reprocessar_DeveReenviarParaTopicoDeOrigem_EConfirmarOffsets() {
+        ConsumidorDlq consumer = consumidorComRegistros(
+                registro(0, "creditos-consultas-retry-3"),
+                registro(1, null),
+                registro(2, "creditos-consultas"));
+        when(dlqConsumerFactory.createConsumer(eq("creditos-dlq-replay"), isNull(), isNull(), any(Properties.class)))
+                .thenReturn(consumer);
+        SettableListenableFuture<SendResult<String, Object>> enviado = new SettableListenableFuture<>();
+        enviado.set(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(enviado);
+
+        ReprocessamentoDlqDTO resultado = new ReprocessamentoDlqDTO();
+        dlqReplayService.reprocessar(2, 10, 0, resultado);
+
+        ArgumentCaptor<ProducerRecord<String, Object>> reenvio = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(1)).send(reenvio.capture());
+        assertEquals("creditos-consultas", reenvio.getValue().topic());
+        assertEquals(0, reenvio.getValue().headers().toArray().length);
+        assertEquals(new ReprocessamentoDlqDTO(2, 1, 1, false, null), resultado);
+        assertEquals(resultado, dlqReplayService.getUltimo());
+        assertEquals(2L, consumer.ultimoCommit.get(DLQ).offset());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void iniciar_DeveRodarEmSegundoPlano_LimitadoPorChamada() throws Exception {
+        ReflectionTestUtils.setField(dlqReplayService, "maximoPorChamada", 1);
+        ConsumidorDlq consumer = consumidorComRegistros(
+                registro(0, "creditos-consultas"),
+                registro(1, "creditos-consultas"));
+        when(dlqConsumerFactory.createConsumer(eq("creditos-dlq-replay"), isNull(), isNull(), any(Properties.class)))
+                .thenReturn(consumer);
+        SettableListenableFuture<SendResult<String, Object>> enviado = new SettableListenableFuture<>();
+        enviado.set(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(enviado);
+
+        assertTrue(dlqReplayService.iniciar(1000, 10, 0).isEmAndamento());
+        for (int i = 0; i < 500 && dlqReplayService.getUltimo().isEmAndamento(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(new ReprocessamentoDlqDTO(1, 1, 0, false, null), dlqReplayService.getUltimo());
+        assertEquals(1L, consumer.ultimoCommit.get(DLQ).offset());
+    }
+
+    @Test
+    void iniciar_DeveRejeitarParametrosInvalidos() {
+        assertThrows(RequisicaoInvalidaException.class, () -> dlqReplayService.iniciar(0, 10, 0));
+        verify(dlqConsumerFactory, never()).createConsumer(any(), any(), any(), any(Properties.class));
+    }
+
+    @SafeVarargs
+    private static ConsumidorDlq consumidorComRegistros(ConsumerRecord<String, byte[]>... registros) {
+        ConsumidorDlq consumer = new ConsumidorDlq();
+        consumer.updateBeginningOffsets(Map.of(DLQ, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(DLQ));
+            for (ConsumerRecord<String, byte[]> registro : registros) {
+                consumer.addRecord(registro);
+            }
+        });
+        return consumer;
+    }
+
+    private static ConsumerRecord<String, byte[]> registro(long offset, String topicoOriginal) {
+        ConsumerRecord<String, byte[]> registro = new ConsumerRecord<>("creditos-dlq", 0, offset, null, new byte[] {1, 2, 3});
+        registro.headers().add("x-tentativa", new byte[] {0, 0, 0, 3});
+        if (topicoOriginal != null) {
+            registro.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, topicoOriginal.getBytes(StandardCharsets.UTF_8));
+        }
+        return registro;
+    }
+
+    /** MockConsumer não permite consultar offsets depois do close(); guarda o último commit. */
+    private static class ConsumidorDlq extends MockConsumer<String, byte[]> {
+
+        private Map<TopicPartition, OffsetAndMetadata> ultimoCommit = Map.of();
+
+        ConsumidorDlq() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            super.commitSync(offsets);
+            ultimoCommit = offsets;
+        }
+    }
+}
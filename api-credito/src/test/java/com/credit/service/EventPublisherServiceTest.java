@@ -1,5 +1,6 @@
 package com.credit.service;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -7,11 +8,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 
+import com.credit.event.ConsultaEvent;
+import com.credit.event.PoliticaOverflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -27,21 +36,26 @@ public class EventPublisherServiceTest {
     @InjectMocks
     private EventPublisherService eventPublisherService;
 
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        eventPublisherService.encerrar();
+    }
+
     @Test
     public void publishConsultaEvent_comParametrosValidos_deveEnviarEventoParaKafka() {
         String tipoConsulta = "BUSCA_POR_NUMERO_CREDITO";
         String parametro = "123456";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return eventoMap.get("tipoConsulta").equals("BUSCA_POR_NUMERO_CREDITO") &&
-                    eventoMap.get("parametro").equals("123456") &&
-                    eventoMap.get("usuario").equals("sistema") &&
-                    eventoMap.containsKey("timestamp");
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return consultaEvent.getTipoConsulta().equals("BUSCA_POR_NUMERO_CREDITO") &&
+                    consultaEvent.getParametro().equals("123456") &&
+                    consultaEvent.getUsuario().equals("sistema") &&
+                    consultaEvent.getTimestamp() > 0;
         }));
     }
 
@@ -50,16 +64,16 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "BUSCA_POR_NUMERO_NFSE";
         String parametro = "7891011";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return eventoMap.get("tipoConsulta").equals("BUSCA_POR_NUMERO_NFSE") &&
-                    eventoMap.get("parametro").equals("7891011") &&
-                    eventoMap.get("usuario").equals("sistema") &&
-                    eventoMap.containsKey("timestamp");
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return consultaEvent.getTipoConsulta().equals("BUSCA_POR_NUMERO_NFSE") &&
+                    consultaEvent.getParametro().equals("7891011") &&
+                    consultaEvent.getUsuario().equals("sistema") &&
+                    consultaEvent.getTimestamp() > 0;
         }));
     }
 
@@ -68,16 +82,16 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "BUSCA_GERAL";
         String parametro = null;
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return eventoMap.get("tipoConsulta").equals("BUSCA_GERAL") &&
-                    eventoMap.get("parametro") == null &&
-                    eventoMap.get("usuario").equals("sistema") &&
-                    eventoMap.containsKey("timestamp");
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return consultaEvent.getTipoConsulta().equals("BUSCA_GERAL") &&
+                    consultaEvent.getParametro() == null &&
+                    consultaEvent.getUsuario().equals("sistema") &&
+                    consultaEvent.getTimestamp() > 0;
         }));
     }
 
@@ -86,16 +100,16 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "BUSCA_VAZIA";
         String parametro = "";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return eventoMap.get("tipoConsulta").equals("BUSCA_VAZIA") &&
-                    eventoMap.get("parametro").equals("") &&
-                    eventoMap.get("usuario").equals("sistema") &&
-                    eventoMap.containsKey("timestamp");
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return consultaEvent.getTipoConsulta().equals("BUSCA_VAZIA") &&
+                    consultaEvent.getParametro().equals("") &&
+                    consultaEvent.getUsuario().equals("sistema") &&
+                    consultaEvent.getTimestamp() > 0;
         }));
     }
 
@@ -104,11 +118,11 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "TESTE";
         String parametro = "VALOR_TESTE";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
-        verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), any(Map.class));
+        verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), any(ConsultaEvent.class));
     }
 
     @Test
@@ -116,22 +130,17 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "BUSCA_COM_TIMESTAMP";
         String parametro = "12345";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         LocalDateTime antesDoEvento = LocalDateTime.now().minusSeconds(1);
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
         LocalDateTime depoisDoEvento = LocalDateTime.now().plusSeconds(1);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            String timestamp = (String) eventoMap.get("timestamp");
-
-            try {
-                LocalDateTime timestampEvento = LocalDateTime.parse(timestamp);
-                return timestampEvento.isAfter(antesDoEvento) && timestampEvento.isBefore(depoisDoEvento);
-            } catch (Exception e) {
-                return false;
-            }
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            LocalDateTime timestampEvento = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(consultaEvent.getTimestamp()), ZoneId.systemDefault());
+            return timestampEvento.isAfter(antesDoEvento) && timestampEvento.isBefore(depoisDoEvento);
         }));
     }
 
@@ -140,42 +149,56 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "TESTE_USUARIO";
         String parametro = "teste";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return "sistema".equals(eventoMap.get("usuario"));
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return "sistema".equals(consultaEvent.getUsuario());
+        }));
+    }
+
+    @Test
+    public void publishConsultaEvent_lote_deveEnviarUmEventoComTodasAsChaves() {
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
+
+        eventPublisherService.publishConsultaEvent("CONSULTA_LOTE_POR_NFSE", List.of("7891011", "7891012", "7891013"));
+
+        verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return "CONSULTA_LOTE_POR_NFSE".equals(consultaEvent.getTipoConsulta()) &&
+                    consultaEvent.getParametro() == null &&
+                    List.of("7891011", "7891012", "7891013").equals(consultaEvent.getChaves());
         }));
     }
 
     @Test
     public void publishConsultaEvent_multiplisChamadas_deveEnviarMultiplosEventos() {
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent("TIPO_1", "PARAM_1");
         eventPublisherService.publishConsultaEvent("TIPO_2", "PARAM_2");
         eventPublisherService.publishConsultaEvent("TIPO_3", "PARAM_3");
 
-        verify(kafkaTemplate, times(3)).send(eq("creditos-consultas"), any(Map.class));
+        verify(kafkaTemplate, times(3)).send(eq("creditos-consultas"), any(ConsultaEvent.class));
 
         verify(kafkaTemplate).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return "TIPO_1".equals(eventoMap.get("tipoConsulta")) &&
-                    "PARAM_1".equals(eventoMap.get("parametro"));
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return "TIPO_1".equals(consultaEvent.getTipoConsulta()) &&
+                    "PARAM_1".equals(consultaEvent.getParametro());
         }));
 
         verify(kafkaTemplate).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return "TIPO_2".equals(eventoMap.get("tipoConsulta")) &&
-                    "PARAM_2".equals(eventoMap.get("parametro"));
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return "TIPO_2".equals(consultaEvent.getTipoConsulta()) &&
+                    "PARAM_2".equals(consultaEvent.getParametro());
         }));
 
         verify(kafkaTemplate).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-            return "TIPO_3".equals(eventoMap.get("tipoConsulta")) &&
-                    "PARAM_3".equals(eventoMap.get("parametro"));
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+            return "TIPO_3".equals(consultaEvent.getTipoConsulta()) &&
+                    "PARAM_3".equals(consultaEvent.getParametro());
         }));
     }
 
@@ -184,23 +207,71 @@ public class EventPublisherServiceTest {
         String tipoConsulta = "VERIFICACAO_COMPLETA";
         String parametro = "TESTE_COMPLETO";
 
-        when(kafkaTemplate.send(anyString(), any(Map.class))).thenReturn(sendResultFuture);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
 
         eventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
         verify(kafkaTemplate, times(1)).send(eq("creditos-consultas"), argThat(evento -> {
-            Map<String, Object> eventoMap = (Map<String, Object>) evento;
-
-            if (eventoMap.size() != 4) return false;
-
-            return eventoMap.containsKey("tipoConsulta") &&
-                    eventoMap.containsKey("parametro") &&
-                    eventoMap.containsKey("timestamp") &&
-                    eventoMap.containsKey("usuario") &&
-                    eventoMap.get("tipoConsulta") instanceof String &&
-                    eventoMap.get("parametro") instanceof String &&
-                    eventoMap.get("timestamp") instanceof String &&
-                    eventoMap.get("usuario") instanceof String;
+            ConsultaEvent consultaEvent = (ConsultaEvent) evento;
+
+            return "VERIFICACAO_COMPLETA".equals(consultaEvent.getTipoConsulta()) &&
+                    "TESTE_COMPLETO".equals(consultaEvent.getParametro()) &&
+                    "sistema".equals(consultaEvent.getUsuario()) &&
+                    consultaEvent.getTimestamp() > 0;
         }));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void publishConsultaEvent_modoAssincrono_deveEnviarPelaThreadDePublicacao() {
+        configurarModoAssincrono(100, PoliticaOverflow.DROP);
+        when(kafkaTemplate.send(anyString(), any(ConsultaEvent.class))).thenReturn(sendResultFuture);
+        eventPublisherService.iniciar();
+
+        for (int i = 0; i < 10; i++) {
+            eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", "NFSE-" + i);
+        }
+
+        verify(kafkaTemplate, timeout(2000).times(10)).send(eq("creditos-consultas"), any(ConsultaEvent.class));
+        assertEquals(10, eventPublisherService.getEnfileirados());
+        assertEquals(0, eventPublisherService.getDescartados());
+    }
+
+    @Test
+    public void publishConsultaEvent_filaCheiaComDrop_deveDescartarSemBloquear() {
+        configurarModoAssincrono(2, PoliticaOverflow.DROP);
+        ReflectionTestUtils.setField(eventPublisherService, "fila", new ArrayBlockingQueue<>(2));
+
+        for (int i = 0; i < 5; i++) {
+            eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", "NFSE-" + i);
+        }
+
+        assertEquals(2, eventPublisherService.getProfundidadeFila());
+        assertEquals(2, eventPublisherService.getEnfileirados());
+        assertEquals(3, eventPublisherService.getDescartados());
+        verify(kafkaTemplate, never()).send(anyString(), any());
+    }
+
+    @Test
+    public void publishConsultaEvent_filaAcimaDaMarcaComSample_deveAceitarUmACadaN() {
+        configurarModoAssincrono(10, PoliticaOverflow.SAMPLE);
+        ReflectionTestUtils.setField(eventPublisherService, "taxaAmostragem", 2);
+        ReflectionTestUtils.setField(eventPublisherService, "marcaDagua", 0);
+        ReflectionTestUtils.setField(eventPublisherService, "fila", new ArrayBlockingQueue<>(10));
+
+        for (int i = 0; i < 6; i++) {
+            eventPublisherService.publishConsultaEvent("CONSULTA_POR_NFSE", "NFSE-" + i);
+        }
+
+        assertEquals(3, eventPublisherService.getEnfileirados());
+        assertEquals(3, eventPublisherService.getDescartados());
+    }
+
+    private void configurarModoAssincrono(int capacidade, PoliticaOverflow politica) {
+        ReflectionTestUtils.setField(eventPublisherService, "async", true);
+        ReflectionTestUtils.setField(eventPublisherService, "capacidade", capacidade);
+        ReflectionTestUtils.setField(eventPublisherService, "tamanhoLote", 50);
+        ReflectionTestUtils.setField(eventPublisherService, "politicaOverflow", politica);
+        ReflectionTestUtils.setField(eventPublisherService, "taxaAmostragem", 10);
+        ReflectionTestUtils.setField(eventPublisherService, "blockTimeoutMs", 10L);
+    }
+}